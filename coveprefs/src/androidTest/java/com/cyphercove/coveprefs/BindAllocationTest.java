@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.preference.Preference;
+import androidx.preference.PreferenceViewHolder;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cyphercove.coveprefs.utils.PreferenceViewHolderWrapper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binds preferences alternately to two recycled holders, as the preference list does while scrolling, to check that
+ * tracking the bound row doesn't allocate.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BindAllocationTest {
+    private static final int BINDS = 500;
+
+    private ActivityScenario<TestPreferenceActivity> scenario;
+
+    @Before
+    public void setUp (){
+        scenario = ActivityScenario.launch(TestPreferenceActivity.class);
+    }
+
+    @After
+    public void tearDown (){
+        scenario.close();
+    }
+
+    /** Creates a holder for the preference's row the way the preference list does. */
+    private static PreferenceViewHolder createHolder (TestPreferenceActivity activity, Preference preference){
+        ViewGroup parent = activity.getFragment().getListView();
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        View itemView = inflater.inflate(preference.getLayoutResource(), parent, false);
+        ViewGroup widgetFrame = itemView.findViewById(android.R.id.widget_frame);
+        if (widgetFrame != null && preference.getWidgetLayoutResource() != 0)
+            inflater.inflate(preference.getWidgetLayoutResource(), widgetFrame);
+        return PreferenceViewHolder.createInstanceForTests(itemView);
+    }
+
+    private static <P extends BaseDialogPreference<?>> P setUpPreference (TestPreferenceActivity activity, P preference, String key){
+        preference.setKey(key);
+        preference.setPersistent(false);
+        return activity.addPreference(preference);
+    }
+
+    private static void assertRebindingDoesNotAllocate (TestPreferenceActivity activity, BaseDialogPreference<?> preference){
+        PreferenceViewHolder first = createHolder(activity, preference);
+        PreferenceViewHolder second = createHolder(activity, preference);
+        for (int i = 0; i < 10; i++) {
+            preference.bindPreferenceView(PreferenceViewHolderWrapper.of(i % 2 == 0 ? first : second));
+        }
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        for (int i = 0; i < BINDS; i++) {
+            preference.bindPreferenceView(PreferenceViewHolderWrapper.of(i % 2 == 0 ? first : second));
+        }
+        Debug.stopAllocCounting();
+        assertEquals(preference.getClass().getSimpleName(), 0, Debug.getThreadAllocCount());
+    }
+
+    @Test
+    public void rebindingToDifferentHoldersDoesNotAllocate (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                Context context = activity.getFragment().getPreferenceManager().getContext();
+                assertRebindingDoesNotAllocate(activity,
+                        setUpPreference(activity, new ColorPreference(context), "bindAllocationTestColor"));
+                assertRebindingDoesNotAllocate(activity,
+                        setUpPreference(activity, new RotaryPreference(context), "bindAllocationTestRotary"));
+                assertRebindingDoesNotAllocate(activity,
+                        setUpPreference(activity, new MultiColorPreference(context), "bindAllocationTestMultiColor"));
+            }
+        });
+    }
+}
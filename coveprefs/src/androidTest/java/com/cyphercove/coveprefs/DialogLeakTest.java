@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.View;
+
+import androidx.fragment.app.DialogFragment;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Opens and dismisses each kind of picker dialog, and checks that its picker view can be garbage collected
+ * afterwards, so neither the preference nor anything static keeps dialog views alive.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DialogLeakTest {
+    private static final String KEY = "leakTest";
+    private static final int GC_ATTEMPTS = 20;
+
+    private ActivityScenario<TestPreferenceActivity> scenario;
+
+    @Before
+    public void setUp (){
+        scenario = ActivityScenario.launch(TestPreferenceActivity.class);
+    }
+
+    @After
+    public void tearDown (){
+        scenario.close();
+    }
+
+    private interface PreferenceFactory {
+        BaseDialogPreference<?> create (Context context);
+    }
+
+    @Test
+    public void colorDialogViewsAreCollected (){
+        assertCollectedAfterDismiss(new PreferenceFactory() {
+            @Override
+            public BaseDialogPreference<?> create(Context context) {
+                return new ColorPreference(context);
+            }
+        }, R.id.coveprefs_colorPicker);
+    }
+
+    @Test
+    public void multiColorDialogViewsAreCollected (){
+        assertCollectedAfterDismiss(new PreferenceFactory() {
+            @Override
+            public BaseDialogPreference<?> create(Context context) {
+                return new MultiColorPreference(context);
+            }
+        }, R.id.coveprefs_colorPicker);
+    }
+
+    @Test
+    public void rotaryDialogViewsAreCollected (){
+        assertCollectedAfterDismiss(new PreferenceFactory() {
+            @Override
+            public BaseDialogPreference<?> create(Context context) {
+                return new RotaryPreference(context);
+            }
+        }, R.id.coveprefs_rotaryPicker);
+    }
+
+    @Test
+    public void stringDialogViewsAreCollected (){
+        assertCollectedAfterDismiss(new PreferenceFactory() {
+            @Override
+            public BaseDialogPreference<?> create(Context context) {
+                return new StringPreference(context);
+            }
+        }, R.id.coveprefs_editText);
+    }
+
+    private void assertCollectedAfterDismiss (final PreferenceFactory factory, final int viewId){
+        final WeakReference<?>[] viewReference = new WeakReference<?>[1];
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                BaseDialogPreference<?> preference = factory.create(activity.getFragment().getPreferenceManager().getContext());
+                preference.setKey(KEY);
+                preference.setPersistent(false);
+                activity.addPreference(preference);
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                activity.getFragment().findPreference(KEY).performClick();
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                BaseDialogPreference<?> preference = activity.getFragment().findPreference(KEY);
+                DialogFragment dialogFragment = (DialogFragment)activity.getSupportFragmentManager()
+                        .findFragmentByTag(preference.getDialogFragmentTag());
+                assertNotNull(dialogFragment);
+                View view = dialogFragment.requireDialog().findViewById(viewId);
+                assertNotNull(view);
+                viewReference[0] = new WeakReference<>(view);
+                dialogFragment.dismiss();
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        for (int i = 0; i < GC_ATTEMPTS && viewReference[0].get() != null; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            SystemClock.sleep(100);
+        }
+        assertNull("The dialog's view was not garbage collected", viewReference[0].get());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.preference.PreferenceViewHolder;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binds a LabeledSeekBarPreference to the same recycled holder repeatedly, as the preference list does when rows are
+ * recycled, to check that the labels are only added on the first bind.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LabeledSeekBarPreferenceTest {
+    private static final String TAG = "LabeledSeekBarTest";
+    private static final int BINDS_PER_BATCH = 200;
+    private static final int BATCHES = 10;
+
+    private ActivityScenario<TestPreferenceActivity> scenario;
+
+    @Before
+    public void setUp (){
+        scenario = ActivityScenario.launch(TestPreferenceActivity.class);
+    }
+
+    @After
+    public void tearDown (){
+        scenario.close();
+    }
+
+    /** Creates a holder for the preference's row the way the preference list does. */
+    private static PreferenceViewHolder createHolder (TestPreferenceActivity activity, LabeledSeekBarPreference preference){
+        ViewGroup parent = activity.getFragment().getListView();
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        View itemView = inflater.inflate(preference.getLayoutResource(), parent, false);
+        ViewGroup widgetFrame = itemView.findViewById(android.R.id.widget_frame);
+        if (widgetFrame != null && preference.getWidgetLayoutResource() != 0)
+            inflater.inflate(preference.getWidgetLayoutResource(), widgetFrame);
+        return PreferenceViewHolder.createInstanceForTests(itemView);
+    }
+
+    private static LabeledSeekBarPreference addPreference (TestPreferenceActivity activity){
+        return addPreference(activity, "labeledSeekBarTest", "Left", "Right");
+    }
+
+    private static LabeledSeekBarPreference addPreference (TestPreferenceActivity activity, String key,
+                                                           String leftLabel, String rightLabel){
+        LabeledSeekBarPreference preference =
+                new LabeledSeekBarPreference(activity.getFragment().getPreferenceManager().getContext());
+        preference.setKey(key);
+        preference.setPersistent(false);
+        preference.setLeftLabel(leftLabel);
+        preference.setRightLabel(rightLabel);
+        return activity.addPreference(preference);
+    }
+
+    private static void collectViews (View view, ArrayList<View> views){
+        views.add(view);
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup)view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                collectViews(group.getChildAt(i), views);
+            }
+        }
+    }
+
+    @Test
+    public void rebindingRecycledHolderKeepsHierarchy (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                LabeledSeekBarPreference preference = addPreference(activity);
+                PreferenceViewHolder holder = createHolder(activity, preference);
+                preference.onBindViewHolder(holder);
+                ArrayList<View> views = new ArrayList<>();
+                collectViews(holder.itemView, views);
+
+                TextView leftLabel = (TextView)holder.findViewById(R.id.coveprefs_seekBarPlusLabelLeft);
+                TextView rightLabel = (TextView)holder.findViewById(R.id.coveprefs_seekBarPlusLabelRight);
+                assertNotNull(leftLabel);
+                assertNotNull(rightLabel);
+                assertSame(leftLabel.getParent(), holder.findViewById(androidx.preference.R.id.seekbar).getParent());
+
+                preference.setLeftLabel("Start");
+                for (int i = 0; i < 5; i++) {
+                    preference.onBindViewHolder(holder);
+                    ArrayList<View> reboundViews = new ArrayList<>();
+                    collectViews(holder.itemView, reboundViews);
+                    assertEquals(views, reboundViews);
+                }
+                assertEquals("Start", leftLabel.getText().toString());
+                assertEquals("Right", rightLabel.getText().toString());
+            }
+        });
+    }
+
+    @Test
+    public void settingLabelsDoesNotChangeHolderRecycledForAnotherPreference (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                LabeledSeekBarPreference first = addPreference(activity, "labeledSeekBarTestFirst", "Left", "Right");
+                LabeledSeekBarPreference second = addPreference(activity, "labeledSeekBarTestSecond", "Low", "High");
+                PreferenceViewHolder holder = createHolder(activity, first);
+                first.onBindViewHolder(holder);
+                second.onBindViewHolder(holder);
+
+                first.setLeftLabel("Start");
+                first.setRightLabel("End");
+                TextView leftLabel = (TextView)holder.findViewById(R.id.coveprefs_seekBarPlusLabelLeft);
+                TextView rightLabel = (TextView)holder.findViewById(R.id.coveprefs_seekBarPlusLabelRight);
+                assertEquals("Low", leftLabel.getText().toString());
+                assertEquals("High", rightLabel.getText().toString());
+            }
+        });
+    }
+
+    /**
+     * Logs the cost of the first bind, which adds the labels, and the mean cost of later binds of the same holder
+     * in batches. The later batches should cost the same as each other.
+     */
+    @Test
+    public void benchmarkBind (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                LabeledSeekBarPreference preference = addPreference(activity);
+                PreferenceViewHolder holder = createHolder(activity, preference);
+                long start = System.nanoTime();
+                preference.onBindViewHolder(holder);
+                Log.i(TAG, String.format("First bind: %.1f us", (System.nanoTime() - start) / 1000.0));
+                ViewGroup labelParent = (ViewGroup)holder.findViewById(R.id.coveprefs_seekBarPlusLabelLeft).getParent();
+                int childCount = labelParent.getChildCount();
+
+                StringBuilder batchMeans = new StringBuilder();
+                for (int batch = 0; batch < BATCHES; batch++) {
+                    start = System.nanoTime();
+                    for (int i = 0; i < BINDS_PER_BATCH; i++) {
+                        preference.onBindViewHolder(holder);
+                    }
+                    long meanNanos = (System.nanoTime() - start) / BINDS_PER_BATCH;
+                    batchMeans.append(batch == 0 ? "" : ", ").append(String.format("%.1f", meanNanos / 1000.0));
+                }
+                Log.i(TAG, "Rebind means per batch of " + BINDS_PER_BATCH + " (us): " + batchMeans);
+                assertEquals(childCount, labelParent.getChildCount());
+            }
+        });
+    }
+}
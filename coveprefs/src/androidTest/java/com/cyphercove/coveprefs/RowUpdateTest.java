@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.core.widget.ImageViewCompat;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceViewHolder;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cyphercove.coveprefs.utils.AbsViewHolder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts how often preference rows are bound, to check that summary-only and widget-only updates change the row
+ * in place instead of rebinding it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowUpdateTest {
+    private static final String ROTARY_KEY = "rowUpdateTestRotary";
+    private static final String IMAGE_LIST_KEY = "rowUpdateTestImageList";
+    private static final int LAYOUT_ATTEMPTS = 50;
+
+    private ActivityScenario<TestPreferenceActivity> scenario;
+    private CountingRotaryPreference rotaryPreference;
+    private CountingImageListPreference imageListPreference;
+
+    public static class CountingRotaryPreference extends RotaryPreference {
+        int bindCount;
+
+        public CountingRotaryPreference(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onPreferenceViewCreated(AbsViewHolder view) {
+            bindCount++;
+            super.onPreferenceViewCreated(view);
+        }
+    }
+
+    public static class CountingImageListPreference extends ImageListPreference {
+        int bindCount;
+
+        public CountingImageListPreference(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onPreferenceViewCreated(AbsViewHolder view) {
+            bindCount++;
+            super.onPreferenceViewCreated(view);
+        }
+    }
+
+    @Before
+    public void setUp (){
+        scenario = ActivityScenario.launch(TestPreferenceActivity.class);
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                Context context = activity.getFragment().getPreferenceManager().getContext();
+                activity.getFragment().getPreferenceManager().getSharedPreferences().edit()
+                        .remove(ROTARY_KEY).remove(IMAGE_LIST_KEY).commit();
+                rotaryPreference = new CountingRotaryPreference(context);
+                rotaryPreference.setKey(ROTARY_KEY);
+                rotaryPreference.setSummaryProvider(new Preference.SummaryProvider<RotaryPreference>() {
+                    @Override
+                    public CharSequence provideSummary(@NonNull RotaryPreference preference) {
+                        return "Angle " + preference.getValue();
+                    }
+                });
+                activity.addPreference(rotaryPreference);
+                imageListPreference = new CountingImageListPreference(context);
+                imageListPreference.setKey(IMAGE_LIST_KEY);
+                activity.addPreference(imageListPreference);
+            }
+        });
+        awaitListLayout();
+    }
+
+    @After
+    public void tearDown (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                activity.getFragment().getPreferenceManager().getSharedPreferences().edit()
+                        .remove(ROTARY_KEY).remove(IMAGE_LIST_KEY).commit();
+            }
+        });
+        scenario.close();
+    }
+
+    private void awaitListLayout (){
+        final boolean[] laidOut = new boolean[1];
+        for (int i = 0; i < LAYOUT_ATTEMPTS && !laidOut[0]; i++) {
+            InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+            SystemClock.sleep(20);
+            scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+                @Override
+                public void perform(TestPreferenceActivity activity) {
+                    laidOut[0] = activity.isListLaidOut();
+                }
+            });
+        }
+        assertTrue(laidOut[0]);
+    }
+
+    private void onMainThread (final Runnable runnable){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                runnable.run();
+            }
+        });
+        awaitListLayout();
+    }
+
+    @Test
+    public void summaryOnlyUpdateDoesNotRebind (){
+        assertTrue(rotaryPreference.bindCount > 0);
+        final int bindCount = rotaryPreference.bindCount;
+        onMainThread(new Runnable() {
+            @Override
+            public void run() {
+                rotaryPreference.getSharedPreferences().edit().putInt(ROTARY_KEY, 123).commit();
+                rotaryPreference.loadPersistedValue();
+            }
+        });
+        assertEquals(bindCount, rotaryPreference.bindCount);
+
+        onMainThread(new Runnable() {
+            @Override
+            public void run() {
+                PreferenceViewHolder holder = rotaryPreference.getBoundViewHolder();
+                assertNotNull(holder);
+                assertEquals("Angle 123", ((TextView)holder.findViewById(android.R.id.summary)).getText().toString());
+            }
+        });
+    }
+
+    @Test
+    public void widgetOnlyUpdateDoesNotRebind (){
+        assertTrue(imageListPreference.bindCount > 0);
+        final int bindCount = imageListPreference.bindCount;
+        onMainThread(new Runnable() {
+            @Override
+            public void run() {
+                imageListPreference.setTintColor(Color.RED);
+            }
+        });
+        assertEquals(bindCount, imageListPreference.bindCount);
+
+        onMainThread(new Runnable() {
+            @Override
+            public void run() {
+                PreferenceViewHolder holder = imageListPreference.getBoundViewHolder();
+                assertNotNull(holder);
+                ImageView widget = (ImageView)holder.findViewById(R.id.coveprefs_widget);
+                assertEquals(Color.RED, ImageViewCompat.getImageTintList(widget).getDefaultColor());
+            }
+        });
+    }
+
+    /** Checks that the counts would catch a rebind. */
+    @Test
+    public void fullUpdateRebinds (){
+        final int bindCount = rotaryPreference.bindCount;
+        onMainThread(new Runnable() {
+            @Override
+            public void run() {
+                rotaryPreference.setTitle("Changed");
+            }
+        });
+        assertTrue(rotaryPreference.bindCount > bindCount);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceFragmentCompat;
+import androidx.preference.PreferenceScreen;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Hosts an empty preference screen for instrumented tests, which add the preferences they need with
+ * {@link #addPreference(Preference)}. CovePrefs dialogs are shown the same way an app shows them.
+ */
+public class TestPreferenceActivity extends AppCompatActivity
+        implements PreferenceFragmentCompat.OnPreferenceDisplayDialogCallback {
+
+    private TestPreferenceFragment fragment;
+
+    @Override
+    public boolean onPreferenceDisplayDialog(@NonNull PreferenceFragmentCompat caller, Preference pref) {
+        return CovePrefs.onPreferenceDisplayDialog(caller, pref);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        fragment = new TestPreferenceFragment();
+        getSupportFragmentManager().beginTransaction()
+                .replace(android.R.id.content, fragment)
+                .commitNow();
+    }
+
+    public TestPreferenceFragment getFragment() {
+        return fragment;
+    }
+
+    /** Adds a preference to the screen. Must be called on the main thread. */
+    public <P extends Preference> P addPreference(P preference) {
+        fragment.getPreferenceScreen().addPreference(preference);
+        return preference;
+    }
+
+    /**
+     * @return Whether the preference list has no pending adapter updates or layout, so every row is bound. Must be
+     * called on the main thread.
+     */
+    public boolean isListLaidOut() {
+        RecyclerView listView = fragment.getListView();
+        return !listView.hasPendingAdapterUpdates() && !listView.isLayoutRequested();
+    }
+
+    public static class TestPreferenceFragment extends PreferenceFragmentCompat {
+        @Override
+        public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
+            PreferenceScreen screen = getPreferenceManager().createPreferenceScreen(requireContext());
+            setPreferenceScreen(screen);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.AbsSavedState;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class SavedStateTest {
+    private static final String TAG = "SavedStateTest";
+    private static final int BENCHMARK_ITERATIONS = 20000;
+    private static final int BENCHMARK_RUNS = 5;
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Parcelable> S roundTrip (S state){
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(state, 0);
+            parcel.setDataPosition(0);
+            return (S)parcel.readParcelable(state.getClass().getClassLoader());
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static <T> SingleValueSavedState<T> roundTrip (Class<T> dataType, T value){
+        SingleValueSavedState<T> state = SingleValueSavedState.create(AbsSavedState.EMPTY_STATE, dataType);
+        state.setValue(value);
+        SingleValueSavedState<T> restored = roundTrip(state);
+        assertTrue(SingleValueSavedState.isOfCorrectType(restored, dataType));
+        return restored;
+    }
+
+    @Test
+    public void singleValueStatesRoundTrip (){
+        assertEquals(Float.valueOf(-1.5f), roundTrip(Float.class, -1.5f).getValue());
+        assertEquals(Long.valueOf(Long.MIN_VALUE), roundTrip(Long.class, Long.MIN_VALUE).getValue());
+        assertEquals(Boolean.TRUE, roundTrip(Boolean.class, true).getValue());
+        assertEquals(Boolean.FALSE, roundTrip(Boolean.class, false).getValue());
+        assertEquals(Integer.valueOf(0xFF336699), roundTrip(Integer.class, 0xFF336699).getValue());
+        assertEquals("value", roundTrip(String.class, "value").getValue());
+        assertArrayEquals(new int[]{1, -2, 3}, roundTrip(int[].class, new int[]{1, -2, 3}).getValue());
+        assertArrayEquals(new int[0], roundTrip(int[].class, new int[0]).getValue());
+        assertNull(roundTrip(int[].class, null).getValue());
+    }
+
+    @Test
+    public void primitiveAccessorsRoundTrip (){
+        FloatSavedState floatState = new FloatSavedState(AbsSavedState.EMPTY_STATE);
+        floatState.setFloat(Float.NaN);
+        assertTrue(Float.isNaN(roundTrip(floatState).getFloat()));
+
+        LongSavedState longState = new LongSavedState(AbsSavedState.EMPTY_STATE);
+        longState.setLong(1L << 40);
+        assertEquals(1L << 40, roundTrip(longState).getLong());
+
+        BooleanSavedState booleanState = new BooleanSavedState(AbsSavedState.EMPTY_STATE);
+        booleanState.setBoolean(true);
+        assertTrue(roundTrip(booleanState).getBoolean());
+    }
+
+    @Test
+    public void multiColorStateRoundTrips (){
+        MultiColorSavedState state = new MultiColorSavedState(AbsSavedState.EMPTY_STATE);
+        state.setPendingValue("#FF0000,#00FF00,#0000FF");
+        state.setActiveIndex(2);
+        MultiColorSavedState restored = roundTrip(state);
+        assertEquals("#FF0000,#00FF00,#0000FF", restored.getPendingValue());
+        assertEquals(2, restored.getActiveIndex());
+
+        MultiColorSavedState empty = roundTrip(new MultiColorSavedState(AbsSavedState.EMPTY_STATE));
+        assertNull(empty.getPendingValue());
+        assertEquals(0, empty.getActiveIndex());
+    }
+
+    /**
+     * Logs the cost of saving and restoring one preference's state through a Parcel, per data
+     * type, along with the cost of creating the state reflectively as was done before the factory
+     * registry.
+     */
+    @Test
+    public void benchmarkSaveRestore () throws Exception {
+        benchmark(Integer.class, 0xFF336699);
+        benchmark(String.class, "#FF336699");
+        benchmark(Float.class, 0.5f);
+        benchmark(Long.class, 123456789L);
+        benchmark(Boolean.class, true);
+        benchmark(int[].class, new int[]{0xFFFF0000, 0xFF00FF00, 0xFF0000FF});
+    }
+
+    private static <T> void benchmark (Class<T> dataType, T value) throws Exception {
+        Class<?> stateType = SingleValueSavedState.create(AbsSavedState.EMPTY_STATE, dataType).getClass();
+        Parcelable.Creator<?> creator = (Parcelable.Creator<?>)stateType.getField("CREATOR").get(null);
+        Parcel parcel = Parcel.obtain();
+        long bestFactoryNanos = Long.MAX_VALUE, bestReflectionNanos = Long.MAX_VALUE;
+        try {
+            for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                long start = SystemClock.elapsedRealtimeNanos();
+                for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                    SingleValueSavedState<T> state = SingleValueSavedState.create(AbsSavedState.EMPTY_STATE, dataType);
+                    state.setValue(value);
+                    saveAndRestore(parcel, state, creator, dataType);
+                }
+                long factoryDone = SystemClock.elapsedRealtimeNanos();
+                for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                    @SuppressWarnings("unchecked")
+                    SingleValueSavedState<T> state = (SingleValueSavedState<T>)stateType
+                            .getConstructor(Parcelable.class).newInstance(AbsSavedState.EMPTY_STATE);
+                    state.setValue(value);
+                    saveAndRestore(parcel, state, creator, dataType);
+                }
+                long reflectionDone = SystemClock.elapsedRealtimeNanos();
+                bestFactoryNanos = Math.min(bestFactoryNanos, factoryDone - start);
+                bestReflectionNanos = Math.min(bestReflectionNanos, reflectionDone - factoryDone);
+            }
+        } finally {
+            parcel.recycle();
+        }
+        Log.i(TAG, String.format("%s: save/restore %.0f ns per preference (reflective creation %.0f ns)",
+                dataType.getSimpleName(), (double)bestFactoryNanos / BENCHMARK_ITERATIONS,
+                (double)bestReflectionNanos / BENCHMARK_ITERATIONS));
+    }
+
+    private static <T> void saveAndRestore (Parcel parcel, SingleValueSavedState<T> state, Parcelable.Creator<?> creator,
+                                            Class<T> dataType){
+        parcel.setDataPosition(0);
+        parcel.setDataSize(0);
+        state.writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        Parcelable restored = (Parcelable)creator.createFromParcel(parcel);
+        if (!SingleValueSavedState.isOfCorrectType(restored, dataType))
+            fail();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.graphics.Color;
+import android.util.Log;
+
+import androidx.core.graphics.ColorUtils;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares ColorMath with the framework's HSV conversions and with ColorUtils' HSL conversions, which it replaces, and
+ * logs how long each takes per color.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColorMathFrameworkTest {
+    private static final String TAG = "ColorMathFrameworkTest";
+    /** Channel step through the RGB cube, which keeps the JNI side of the comparison to a few seconds. */
+    private static final int STEP = 5;
+    private static final int CHANNEL_TOLERANCE = 1;
+    private static final float COMPONENT_TOLERANCE = 1e-5f;
+    private static final int BENCHMARK_COLORS = 1 << 16;
+
+    private static void assertChannelsEqual (int color, int expected, int actual){
+        for (int shift = 0; shift < 32; shift += 8) {
+            int difference = Math.abs(((expected >>> shift) & 0xFF) - ((actual >>> shift) & 0xFF));
+            if (difference > CHANNEL_TOLERANCE)
+                fail(String.format("#%06X: expected #%08X but was #%08X", color & 0xFFFFFF, expected, actual));
+        }
+    }
+
+    private static void assertComponentsEqual (int color, float[] expected, float[] actual){
+        for (int i = 0; i < 3; i++) {
+            if (Math.abs(expected[i] - actual[i]) > COMPONENT_TOLERANCE)
+                fail(String.format("#%06X: expected component %d to be %f but was %f",
+                        color & 0xFFFFFF, i, expected[i], actual[i]));
+        }
+    }
+
+    @Test
+    public void HSVMatchesFramework (){
+        float[] expected = new float[3];
+        float[] actual = new float[3];
+        for (int r = 0; r < 256; r += STEP) {
+            for (int g = 0; g < 256; g += STEP) {
+                for (int b = 0; b < 256; b += STEP) {
+                    int color = Color.rgb(r, g, b);
+                    Color.colorToHSV(color, expected);
+                    ColorMath.colorToHSV(color, actual);
+                    assertComponentsEqual(color, expected, actual);
+                    assertChannelsEqual(color, Color.HSVToColor(0x80, expected), ColorMath.HSVToColor(0x80,
+                            expected[0], expected[1], expected[2]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void HSLMatchesColorUtils (){
+        float[] expected = new float[3];
+        float[] actual = new float[3];
+        for (int r = 0; r < 256; r += STEP) {
+            for (int g = 0; g < 256; g += STEP) {
+                for (int b = 0; b < 256; b += STEP) {
+                    int color = Color.rgb(r, g, b);
+                    ColorUtils.colorToHSL(color, expected);
+                    ColorMath.colorToHSL(color, actual);
+                    assertComponentsEqual(color, expected, actual);
+                    assertChannelsEqual(color, ColorUtils.HSLToColor(expected), ColorMath.HSLToColor(expected, 0));
+                }
+            }
+        }
+    }
+
+    /** Logs the mean time per color of the framework's conversions and ColorMath's. */
+    @Test
+    public void benchmarkHSV (){
+        int[] colors = new int[BENCHMARK_COLORS];
+        for (int i = 0; i < BENCHMARK_COLORS; i++) {
+            colors[i] = 0xFF000000 | (i * 0x9E3779B1 >>> 8);
+        }
+        float[] hsv = new float[3];
+        float[] hsvs = new float[BENCHMARK_COLORS * 3];
+        int[] colorsOut = new int[BENCHMARK_COLORS];
+        int checksum = 0;
+        for (int pass = 0; pass < 2; pass++) { // The first pass warms up.
+            long start = System.nanoTime();
+            for (int color : colors) {
+                Color.colorToHSV(color, hsv);
+                checksum += Color.HSVToColor(hsv);
+            }
+            long frameworkNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int color : colors) {
+                ColorMath.colorToHSV(color, hsv);
+                checksum -= ColorMath.HSVToColor(hsv, 0);
+            }
+            long colorMathNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ColorMath.colorsToHSV(colors, 0, hsvs, 0, BENCHMARK_COLORS);
+            ColorMath.HSVToColors(hsvs, 0, colorsOut, 0, BENCHMARK_COLORS);
+            long batchNanos = System.nanoTime() - start;
+
+            if (pass == 1)
+                Log.i(TAG, String.format("HSV round trip per color: framework %.1f ns, ColorMath %.1f ns, " +
+                                "ColorMath batch %.1f ns",
+                        (double)frameworkNanos / BENCHMARK_COLORS, (double)colorMathNanos / BENCHMARK_COLORS,
+                        (double)batchNanos / BENCHMARK_COLORS));
+        }
+        Log.i(TAG, "Checksum " + checksum);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PreferenceBackupTest {
+    private static final String TAG = "PreferenceBackupTest";
+    private static final int BENCHMARK_KEYS = 10000;
+    private static final int BENCHMARK_RUNS = 5;
+
+    private Context context;
+    private SharedPreferences source, destination;
+    private File file;
+
+    @Before
+    public void setUp (){
+        context = InstrumentationRegistry.getTargetContext();
+        source = context.getSharedPreferences("PreferenceBackupTest_source", Context.MODE_PRIVATE);
+        destination = context.getSharedPreferences("PreferenceBackupTest_destination", Context.MODE_PRIVATE);
+        source.edit().clear().commit();
+        destination.edit().clear().commit();
+        file = new File(context.getCacheDir(), "PreferenceBackupTest.bin");
+    }
+
+    @After
+    public void tearDown (){
+        source.edit().clear().commit();
+        destination.edit().clear().commit();
+        file.delete();
+    }
+
+    @Test
+    public void roundTripKeepsAllTypes () throws IOException {
+        source.edit()
+                .putInt("int", -7)
+                .putLong("long", Long.MAX_VALUE)
+                .putFloat("float", 0.25f)
+                .putBoolean("boolean", true)
+                .putString("string", "Caf\u00e9")
+                .putStringSet("set", new HashSet<>(Arrays.asList("a", "b")))
+                .commit();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(6, PreferenceBackup.export(context, source, out));
+        assertEquals(6, PreferenceBackup.importInto(context, destination,
+                new ByteArrayInputStream(out.toByteArray()), true));
+        assertEquals(source.getAll(), destination.getAll());
+    }
+
+    @Test
+    public void blobsAreExportedByValue () throws IOException {
+        StringBlobStore blobStore = StringBlobStore.getInstance(context);
+        String body = "A long value in blob storage";
+        String handle = blobStore.writeNow("blob", body);
+        source.edit().putString("blob", handle).commit();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PreferenceBackup.export(context, source, out);
+        assertFalse(new String(out.toByteArray(), "ISO-8859-1").contains(handle));
+
+        PreferenceBackup.importInto(context, destination, new ByteArrayInputStream(out.toByteArray()), true);
+        String imported = destination.getString("blob", null);
+        assertTrue(StringBlobStore.isHandle(imported));
+        assertEquals(body, StringBlobStore.readValue(context, imported));
+    }
+
+    @Test
+    public void corruptBackupChangesNothing () throws IOException {
+        source.edit().putString("string", "value").commit();
+        destination.edit().putInt("existing", 1).commit();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PreferenceBackup.export(context, source, out);
+        byte[] bytes = out.toByteArray();
+        bytes[bytes.length - 6] ^= 1;
+
+        try {
+            PreferenceBackup.importInto(context, destination, new ByteArrayInputStream(bytes), true);
+            fail();
+        } catch (IOException expected) {
+        }
+        assertEquals(1, destination.getAll().size());
+        assertEquals(1, destination.getInt("existing", 0));
+    }
+
+    @Test
+    public void fileChannelIsLeftAfterBackup () throws IOException {
+        source.edit().putString("string", "value").commit();
+        long backupLength;
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            PreferenceBackup.export(context, source, out.getChannel());
+            backupLength = out.getChannel().position();
+            out.write(new byte[64 * 1024]);
+        }
+
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            PreferenceBackup.importInto(context, destination, channel, true);
+            assertEquals(backupLength, channel.position());
+        }
+    }
+
+    /** Exports and imports 10,000 keys of mixed types through a file, and logs the throughput. */
+    @Test
+    public void benchmarkTenThousandKeys () throws IOException {
+        SharedPreferences.Editor editor = source.edit();
+        for (int i = 0; i < BENCHMARK_KEYS; i++) {
+            String key = "key" + i;
+            switch (i % 5) {
+                case 0: editor.putInt(key, i); break;
+                case 1: editor.putLong(key, i * 31L); break;
+                case 2: editor.putFloat(key, i / 3f); break;
+                case 3: editor.putBoolean(key, (i & 8) == 0); break;
+                default: editor.putString(key, "value number " + i); break;
+            }
+        }
+        editor.commit();
+        Map<String, ?> expected = source.getAll();
+
+        long bestExportNanos = Long.MAX_VALUE, bestImportNanos = Long.MAX_VALUE;
+        for (int run = 0; run < BENCHMARK_RUNS; run++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                assertEquals(BENCHMARK_KEYS, PreferenceBackup.export(context, source, out.getChannel()));
+            }
+            long exported = SystemClock.elapsedRealtimeNanos();
+            try (FileInputStream in = new FileInputStream(file)) {
+                assertEquals(BENCHMARK_KEYS, PreferenceBackup.importInto(context, destination, in.getChannel(), true));
+            }
+            long imported = SystemClock.elapsedRealtimeNanos();
+            bestExportNanos = Math.min(bestExportNanos, exported - start);
+            bestImportNanos = Math.min(bestImportNanos, imported - exported);
+        }
+        assertEquals(expected, destination.getAll());
+
+        Log.i(TAG, String.format("%d keys, %d bytes: export %.1f ms (%.0f keys/s), import with commit %.1f ms (%.0f keys/s)",
+                BENCHMARK_KEYS, file.length(),
+                bestExportNanos / 1e6, BENCHMARK_KEYS * 1e9 / bestExportNanos,
+                bestImportNanos / 1e6, BENCHMARK_KEYS * 1e9 / bestImportNanos));
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cyphercove.coveprefs.ColorPreference;
+import com.cyphercove.coveprefs.StringPreference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PreferenceMigratorTest {
+    private SharedPreferences sharedPreferences;
+
+    @Before
+    public void setUp (){
+        sharedPreferences = InstrumentationRegistry.getTargetContext()
+                .getSharedPreferences("PreferenceMigratorTest", Context.MODE_PRIVATE);
+        sharedPreferences.edit().clear().commit();
+    }
+
+    @After
+    public void tearDown (){
+        sharedPreferences.edit().clear().commit();
+    }
+
+    /** Appends the suffix to String values. */
+    private static PreferenceMigrator.ValueMigration append (final String suffix){
+        return new PreferenceMigrator.ValueMigration() {
+            @Override
+            public Object migrate(@NonNull String key, @NonNull Object value) {
+                return value + suffix;
+            }
+        };
+    }
+
+    private static class CountingMigration implements PreferenceMigrator.ValueMigration {
+        int count;
+
+        @Override
+        public Object migrate(@NonNull String key, @NonNull Object value) {
+            count++;
+            return (Integer)value + 1;
+        }
+    }
+
+    @Test
+    public void stepsRunInVersionOrder (){
+        sharedPreferences.edit().putString("string", "v0").putString("unregistered", "v0").commit();
+        PreferenceMigrator migrator = new PreferenceMigrator(sharedPreferences, 3);
+        migrator.addKeys(StringPreference.class, "string", "missing");
+        migrator.addMigration(3, StringPreference.class, append("-3"));
+        migrator.addMigration(1, StringPreference.class, append("-1"));
+        migrator.addMigration(2, StringPreference.class, append("-2a"));
+        migrator.addMigration(2, StringPreference.class, append("-2b"));
+        migrator.ensureMigrated();
+
+        assertTrue(migrator.isMigrated());
+        assertEquals("v0-1-2a-2b-3", sharedPreferences.getString("string", null));
+        assertEquals("v0", sharedPreferences.getString("unregistered", null));
+        assertFalse(sharedPreferences.contains("missing"));
+        assertEquals(3, sharedPreferences.getInt(PreferenceMigrator.SCHEMA_VERSION_KEY, 0));
+    }
+
+    @Test
+    public void onlyStepsAboveStoredVersionRun (){
+        sharedPreferences.edit().putString("string", "v2").putInt(PreferenceMigrator.SCHEMA_VERSION_KEY, 2).commit();
+        PreferenceMigrator migrator = new PreferenceMigrator(sharedPreferences, 3);
+        migrator.addKeys(StringPreference.class, "string");
+        migrator.addMigration(1, StringPreference.class, append("-1"));
+        migrator.addMigration(2, StringPreference.class, append("-2"));
+        migrator.addMigration(3, StringPreference.class, append("-3"));
+        migrator.ensureMigrated();
+        assertEquals("v2-3", sharedPreferences.getString("string", null));
+    }
+
+    @Test
+    public void nullResultRemovesKey (){
+        sharedPreferences.edit().putInt("color", 1).commit();
+        PreferenceMigrator migrator = new PreferenceMigrator(sharedPreferences, 1);
+        migrator.addKeys(ColorPreference.class, "color");
+        migrator.addMigration(1, ColorPreference.class, new PreferenceMigrator.ValueMigration() {
+            @Override
+            public Object migrate(@NonNull String key, @NonNull Object value) {
+                return null;
+            }
+        });
+        migrator.ensureMigrated();
+        assertFalse(sharedPreferences.contains("color"));
+    }
+
+    @Test
+    public void rerunningDoesNotMigrateAgain (){
+        sharedPreferences.edit().putInt("color", 1).commit();
+        CountingMigration migration = new CountingMigration();
+        PreferenceMigrator migrator = new PreferenceMigrator(sharedPreferences, 1);
+        migrator.addKeys(ColorPreference.class, "color");
+        migrator.addMigration(1, ColorPreference.class, migration);
+        migrator.ensureMigrated();
+        migrator.ensureMigrated();
+
+        // A new migrator, as after a restart, finds the recorded version.
+        PreferenceMigrator restarted = new PreferenceMigrator(sharedPreferences, 1);
+        restarted.addKeys(ColorPreference.class, "color");
+        restarted.addMigration(1, ColorPreference.class, migration);
+        restarted.ensureMigrated();
+
+        assertEquals(1, migration.count);
+        assertEquals(2, sharedPreferences.getInt("color", 0));
+    }
+
+    @Test
+    public void failedWriteIsRetried () throws InterruptedException {
+        sharedPreferences.edit().putInt("color", 1).commit();
+        FailingSharedPreferences failing = new FailingSharedPreferences(sharedPreferences);
+        CountingMigration migration = new CountingMigration();
+        PreferenceMigrator migrator = new PreferenceMigrator(failing, 1);
+        migrator.addKeys(ColorPreference.class, "color");
+        migrator.addMigration(1, ColorPreference.class, migration);
+
+        failing.failCommits = true;
+        migrateInBackgroundAndWait(migrator);
+        assertFalse(migrator.isMigrated());
+        assertEquals(1, sharedPreferences.getInt("color", 0));
+        assertFalse(sharedPreferences.contains(PreferenceMigrator.SCHEMA_VERSION_KEY));
+
+        failing.failCommits = false;
+        migrateInBackgroundAndWait(migrator);
+        assertTrue(migrator.isMigrated());
+        assertEquals(2, migration.count);
+        assertEquals(2, sharedPreferences.getInt("color", 0));
+        assertEquals(1, sharedPreferences.getInt(PreferenceMigrator.SCHEMA_VERSION_KEY, 0));
+    }
+
+    private static void migrateInBackgroundAndWait (PreferenceMigrator migrator) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        migrator.migrateInBackground(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    /** Delegates to real SharedPreferences, but can make commits fail without writing anything. */
+    private static class FailingSharedPreferences implements SharedPreferences {
+        final SharedPreferences delegate;
+        volatile boolean failCommits;
+
+        FailingSharedPreferences (SharedPreferences delegate){
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<String, ?> getAll() {
+            return delegate.getAll();
+        }
+
+        @Nullable
+        @Override
+        public String getString(String key, @Nullable String defValue) {
+            return delegate.getString(key, defValue);
+        }
+
+        @Nullable
+        @Override
+        public Set<String> getStringSet(String key, @Nullable Set<String> defValues) {
+            return delegate.getStringSet(key, defValues);
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            return delegate.getInt(key, defValue);
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return delegate.getLong(key, defValue);
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return delegate.getFloat(key, defValue);
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return delegate.getBoolean(key, defValue);
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return delegate.contains(key);
+        }
+
+        @Override
+        public Editor edit() {
+            final Editor editor = delegate.edit();
+            return new Editor() {
+                @Override
+                public Editor putString(String key, @Nullable String value) {
+                    editor.putString(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putStringSet(String key, @Nullable Set<String> values) {
+                    editor.putStringSet(key, values);
+                    return this;
+                }
+
+                @Override
+                public Editor putInt(String key, int value) {
+                    editor.putInt(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putLong(String key, long value) {
+                    editor.putLong(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putFloat(String key, float value) {
+                    editor.putFloat(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putBoolean(String key, boolean value) {
+                    editor.putBoolean(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor remove(String key) {
+                    editor.remove(key);
+                    return this;
+                }
+
+                @Override
+                public Editor clear() {
+                    editor.clear();
+                    return this;
+                }
+
+                @Override
+                public boolean commit() {
+                    return !failCommits && editor.commit();
+                }
+
+                @Override
+                public void apply() {
+                    if (!failCommits)
+                        editor.apply();
+                }
+            };
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            delegate.registerOnSharedPreferenceChangeListener(listener);
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+            delegate.unregisterOnSharedPreferenceChangeListener(listener);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PreferenceSnapshotTest {
+    private static final int EDITS = 2000;
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private SharedPreferences sharedPreferences;
+    private PreferenceSnapshot preferenceSnapshot;
+
+    @Before
+    public void setUp (){
+        sharedPreferences = InstrumentationRegistry.getTargetContext()
+                .getSharedPreferences("PreferenceSnapshotTest", Context.MODE_PRIVATE);
+        sharedPreferences.edit().clear().commit();
+        preferenceSnapshot = new PreferenceSnapshot(sharedPreferences);
+        preferenceSnapshot.addIntKey("a", -1);
+        preferenceSnapshot.addIntKey("b", -1);
+        preferenceSnapshot.addStringKey("c", "default");
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                preferenceSnapshot.register();
+            }
+        });
+    }
+
+    @After
+    public void tearDown (){
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                preferenceSnapshot.unregister();
+            }
+        });
+        sharedPreferences.edit().clear().commit();
+    }
+
+    private static void runOnMainSync (Runnable runnable){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    /** Waits for the main thread to publish a snapshot in which key "a" has the value. */
+    private PreferenceSnapshot.Snapshot awaitValue (int value){
+        long end = SystemClock.uptimeMillis() + TIMEOUT_MILLIS;
+        while (SystemClock.uptimeMillis() < end) {
+            PreferenceSnapshot.Snapshot snapshot = preferenceSnapshot.getSnapshot();
+            if (snapshot.getInt("a") == value)
+                return snapshot;
+            SystemClock.sleep(5);
+        }
+        fail("Timed out waiting for a snapshot with value " + value);
+        return null;
+    }
+
+    @Test
+    public void unsetKeysUseDefaults (){
+        PreferenceSnapshot.Snapshot snapshot = preferenceSnapshot.getSnapshot();
+        assertNotNull(snapshot);
+        assertEquals(-1, snapshot.getInt("a"));
+        assertEquals("default", snapshot.getString("c"));
+        try {
+            snapshot.getInt("undeclared");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * Applies batches that always write the same value to "a" and "b" from one thread, while another thread reads
+     * snapshots. Every snapshot must hold equal values, and versions must never go backwards.
+     */
+    @Test
+    public void snapshotsStayConsistentDuringConcurrentApply () throws InterruptedException {
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long lastVersion = -1;
+                int lastValue = -1;
+                while (writing.get() && failure.get() == null) {
+                    PreferenceSnapshot.Snapshot snapshot = preferenceSnapshot.getSnapshot();
+                    int a = snapshot.getInt("a");
+                    int b = snapshot.getInt("b");
+                    if (a != b)
+                        failure.set("Snapshot " + snapshot.getVersion() + " has a = " + a + " and b = " + b);
+                    else if (snapshot.getVersion() < lastVersion || a < lastValue)
+                        failure.set("Snapshot went backwards to version " + snapshot.getVersion());
+                    lastVersion = snapshot.getVersion();
+                    lastValue = a;
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < EDITS; i++) {
+            sharedPreferences.edit().putInt("a", i).putInt("b", i).apply();
+        }
+        awaitValue(EDITS - 1);
+        writing.set(false);
+        reader.join();
+        assertNull(failure.get(), failure.get());
+    }
+
+    @Test
+    public void versionOnlyChangesWithValues (){
+        sharedPreferences.edit().putInt("a", 1).putInt("b", 1).apply();
+        long version = awaitValue(1).getVersion();
+
+        sharedPreferences.edit().putInt("a", 1).putInt("undeclared", 5).commit();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertEquals(version, preferenceSnapshot.getSnapshot().getVersion());
+
+        sharedPreferences.edit().putInt("a", 2).commit();
+        assertTrue(awaitValue(2).getVersion() > version);
+    }
+}
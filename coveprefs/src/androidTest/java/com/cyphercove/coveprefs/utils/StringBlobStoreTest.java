@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.AtomicFile;
+
+import androidx.annotation.NonNull;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class StringBlobStoreTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Context context = InstrumentationRegistry.getTargetContext();
+    private final StringBlobStore blobStore = StringBlobStore.getInstance(context);
+
+    /** Records the handle it is given, whether the handle's file existed at that point, and the thread. */
+    private class RecordingPersister implements StringBlobStore.HandlePersister {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile String handle;
+        volatile boolean fileExisted;
+        volatile boolean onMainThread;
+
+        @Override
+        public boolean persistHandle(@NonNull String handle) {
+            this.handle = handle;
+            fileExisted = fileOf(handle).exists();
+            onMainThread = Looper.myLooper() == Looper.getMainLooper();
+            latch.countDown();
+            return true;
+        }
+
+        void await () throws InterruptedException {
+            assertTrue("The handle was not persisted", latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private File fileOf (String handle){
+        int checksumSeparator = handle.lastIndexOf(':');
+        String fileName = handle.substring("coveprefs-blob:".length(), checksumSeparator) + "_"
+                + handle.substring(checksumSeparator + 1);
+        return new File(new File(context.getFilesDir(), "coveprefs_blobs"), fileName);
+    }
+
+    private static long crcOf (String body){
+        CRC32 crc = new CRC32();
+        byte[] bytes = body.getBytes(UTF_8);
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    @Test
+    public void handleIsPersistedAfterItsFileIsWritten () throws InterruptedException {
+        RecordingPersister persister = new RecordingPersister();
+        String handle = blobStore.write("blobStoreTest", "A body", null, persister);
+        persister.await();
+        assertEquals(handle, persister.handle);
+        assertTrue(persister.fileExisted);
+        assertFalse(persister.onMainThread);
+        assertEquals("A body", StringBlobStore.readValue(context, handle));
+        blobStore.discard(handle);
+    }
+
+    /** Two bodies with the same CRC32 have the same handle, so the second must still replace the file. */
+    @Test
+    public void bodyWithSameChecksumIsWritten () throws InterruptedException, IOException {
+        String first = "hhbegbexmqqz";
+        String second = "wqzczkarvfrd";
+        assertEquals(crcOf(first), crcOf(second));
+
+        RecordingPersister firstPersister = new RecordingPersister();
+        String firstHandle = blobStore.write("blobStoreCollisionTest", first, null, firstPersister);
+        firstPersister.await();
+
+        RecordingPersister secondPersister = new RecordingPersister();
+        String secondHandle = blobStore.write("blobStoreCollisionTest", second, firstHandle, secondPersister);
+        assertEquals(firstHandle, secondHandle);
+        secondPersister.await();
+        assertEquals(second, new String(new AtomicFile(fileOf(secondHandle)).readFully(), UTF_8));
+        blobStore.discard(secondHandle);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Outline;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.PixelCopy;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewOutlineProvider;
+import android.view.Window;
+import android.widget.LinearLayout;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.cyphercove.coveprefs.TestPreferenceActivity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the rounded corners of the HSV selector views clipped to their outline with the path clipping they used
+ * before, both in how they render and in how long the renderer takes to draw them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HSVSelectorClipTest {
+    private static final String TAG = "HSVSelectorClipTest";
+    private static final int WIDTH = 240;
+    private static final int HEIGHT = 180;
+    private static final int BACKGROUND = Color.MAGENTA;
+    /** Outline clipping is antialiased and path clipping may not be, so pixels this close to the edge are skipped. */
+    private static final float EDGE_TOLERANCE = 1.5f;
+    private static final int CHANNEL_TOLERANCE = 4;
+    private static final int VIEWS_PER_FRAME = 4;
+    private static final int WARMUP_FRAMES = 30;
+    private static final int BENCHMARK_FRAMES = 120;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ActivityScenario<TestPreferenceActivity> scenario;
+
+    /** Rounds its corners the way SaturationValueSelectorView did before it was clipped to its outline. */
+    static class PathClippedSaturationValueSelectorView extends SaturationValueSelectorView {
+        private final Path roundCornersMask = new Path();
+        private final int cornerRadii;
+
+        PathClippedSaturationValueSelectorView (Context context, int cornerRadii){
+            super(context);
+            this.cornerRadii = cornerRadii;
+        }
+
+        @Override
+        protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+            super.onSizeChanged(w, h, oldw, oldh);
+            roundCornersMask.reset();
+            roundCornersMask.addRoundRect(0, 0, w, h, cornerRadii, cornerRadii, Path.Direction.CW);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            canvas.save();
+            canvas.clipPath(roundCornersMask);
+            super.onDraw(canvas);
+            canvas.restore();
+        }
+    }
+
+    @Before
+    public void setUp (){
+        assumeTrue(Build.VERSION.SDK_INT >= 26);
+        scenario = ActivityScenario.launch(TestPreferenceActivity.class);
+    }
+
+    @After
+    public void tearDown (){
+        if (scenario != null)
+            scenario.close();
+    }
+
+    private static int cornerRadii (Context context){
+        return ResolvedStyles.colorPicker(context, null, 0).cornerRadii;
+    }
+
+    /** Creates a view rounded the way HSVSelectorView rounds it now, or the way it was rounded before. */
+    @TargetApi(21)
+    private static SaturationValueSelectorView createView (Context context, boolean pathClipped){
+        final int cornerRadii = cornerRadii(context);
+        SaturationValueSelectorView view;
+        if (pathClipped) {
+            view = new PathClippedSaturationValueSelectorView(context, cornerRadii);
+        } else {
+            view = new SaturationValueSelectorView(context);
+            view.setOutlineProvider(new ViewOutlineProvider() {
+                @Override
+                public void getOutline(View view, Outline outline) {
+                    outline.setRoundRect(0, 0, view.getWidth(), view.getHeight(), cornerRadii);
+                }
+            });
+            view.setClipToOutline(true);
+        }
+        view.setColor(200f, 0.5f, 0.5f);
+        return view;
+    }
+
+    /** Shows a row of views over the activity's content, on an opaque background. Must be called on the main thread. */
+    private static LinearLayout showRow (TestPreferenceActivity activity, boolean[] pathClipped){
+        LinearLayout row = new LinearLayout(activity);
+        row.setBackgroundColor(BACKGROUND);
+        for (boolean clipped : pathClipped) {
+            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(WIDTH, HEIGHT);
+            params.rightMargin = 8;
+            row.addView(createView(activity, clipped), params);
+        }
+        activity.addContentView(row, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        return row;
+    }
+
+    @Test
+    public void hsvSelectorViewClipsToRoundedOutline (){
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                HSVSelectorView hsvView = new HSVSelectorView(activity);
+                hsvView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH * 2, View.MeasureSpec.EXACTLY),
+                        View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+                hsvView.layout(0, 0, WIDTH * 2, HEIGHT);
+                int cornerRadii = cornerRadii(activity);
+                for (int id : new int[]{com.cyphercove.coveprefs.R.id.coveprefs_hueSelector,
+                        com.cyphercove.coveprefs.R.id.coveprefs_saturationValueSelector}) {
+                    View view = hsvView.findViewById(id);
+                    assertTrue(view.getClipToOutline());
+                    Outline outline = new Outline();
+                    view.getOutlineProvider().getOutline(view, outline);
+                    Rect rect = new Rect();
+                    assertTrue(outline.getRect(rect));
+                    assertEquals(new Rect(0, 0, view.getWidth(), view.getHeight()), rect);
+                    assertEquals(cornerRadii, outline.getRadius(), 0f);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void outlineClippingMatchesPathClipping () throws InterruptedException {
+        final int[][] locations = new int[2][2];
+        final Window[] window = new Window[1];
+        final int[] cornerRadii = new int[1];
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                showRow(activity, new boolean[]{true, false});
+                window[0] = activity.getWindow();
+                cornerRadii[0] = cornerRadii(activity);
+            }
+        });
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                ViewGroup row = (ViewGroup)activity.findViewById(android.R.id.content);
+                row = (ViewGroup)row.getChildAt(row.getChildCount() - 1);
+                row.getChildAt(0).getLocationInWindow(locations[0]);
+                row.getChildAt(1).getLocationInWindow(locations[1]);
+            }
+        });
+
+        Bitmap pathClipped = copyPixels(window[0], locations[0]);
+        Bitmap outlineClipped = copyPixels(window[0], locations[1]);
+        int radius = cornerRadii[0];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                float distance = distanceInsideRoundRect(x + 0.5f, y + 0.5f, radius);
+                if (Math.abs(distance) <= EDGE_TOLERANCE)
+                    continue;
+                int expected = pathClipped.getPixel(x, y);
+                int actual = outlineClipped.getPixel(x, y);
+                if (distance < 0)
+                    assertEquals(String.format("Corner pixel (%d, %d)", x, y), BACKGROUND, actual);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int difference = Math.abs(((expected >>> shift) & 0xFF) - ((actual >>> shift) & 0xFF));
+                    if (difference > CHANNEL_TOLERANCE)
+                        fail(String.format("At (%d, %d): expected #%08X but was #%08X", x, y, expected, actual));
+                }
+            }
+        }
+    }
+
+    /** @return The distance of a point inside the view's rounded rect from its edge, negative if it's outside. */
+    private static float distanceInsideRoundRect (float x, float y, int radius){
+        float edgeDistance = Math.min(Math.min(x, WIDTH - x), Math.min(y, HEIGHT - y));
+        float cornerX = x < radius ? radius - x : x > WIDTH - radius ? x - (WIDTH - radius) : 0f;
+        float cornerY = y < radius ? radius - y : y > HEIGHT - radius ? y - (HEIGHT - radius) : 0f;
+        if (cornerX > 0f && cornerY > 0f)
+            return radius - (float)Math.hypot(cornerX, cornerY);
+        return edgeDistance;
+    }
+
+    @TargetApi(26)
+    private static Bitmap copyPixels (Window window, int[] location) throws InterruptedException {
+        final Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger result = new AtomicInteger(-1);
+        PixelCopy.request(window, new Rect(location[0], location[1], location[0] + WIDTH, location[1] + HEIGHT),
+                bitmap, new PixelCopy.OnPixelCopyFinishedListener() {
+                    @Override
+                    public void onPixelCopyFinished(int copyResult) {
+                        result.set(copyResult);
+                        latch.countDown();
+                    }
+                }, new Handler(Looper.getMainLooper()));
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(PixelCopy.SUCCESS, result.get());
+        return bitmap;
+    }
+
+    /**
+     * Logs the mean time the renderer spends on frames that redraw a row of path-clipped views, and a row of
+     * outline-clipped views. The outline-clipped row should be no slower.
+     */
+    @Test
+    public void benchmarkDraw () throws InterruptedException {
+        HandlerThread metricsThread = new HandlerThread(TAG);
+        metricsThread.start();
+        try {
+            long pathClippedNanos = timeFrames(true, new Handler(metricsThread.getLooper()));
+            long outlineClippedNanos = timeFrames(false, new Handler(metricsThread.getLooper()));
+            Log.i(TAG, String.format("Mean renderer time per frame of %d views: clipPath %.1f us, outline %.1f us",
+                    VIEWS_PER_FRAME, pathClippedNanos / 1000.0, outlineClippedNanos / 1000.0));
+        } finally {
+            metricsThread.quit();
+        }
+    }
+
+    /** @return The mean draw, sync and command issue time of frames that redraw every view in the row. */
+    @TargetApi(26)
+    private long timeFrames (final boolean pathClipped, final Handler metricsHandler) throws InterruptedException {
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicInteger measuredFrames = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Window.OnFrameMetricsAvailableListener[] listener = new Window.OnFrameMetricsAvailableListener[1];
+        final LinearLayout[] row = new LinearLayout[1];
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                boolean[] views = new boolean[VIEWS_PER_FRAME];
+                Arrays.fill(views, pathClipped);
+                row[0] = showRow(activity, views);
+                row[0].setOrientation(LinearLayout.VERTICAL);
+                listener[0] = new Window.OnFrameMetricsAvailableListener() {
+                    private int frames;
+
+                    @Override
+                    public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCount) {
+                        if (++frames <= WARMUP_FRAMES || measuredFrames.get() >= BENCHMARK_FRAMES)
+                            return;
+                        totalNanos.addAndGet(frameMetrics.getMetric(FrameMetrics.DRAW_DURATION)
+                                + frameMetrics.getMetric(FrameMetrics.SYNC_DURATION)
+                                + frameMetrics.getMetric(FrameMetrics.COMMAND_ISSUE_DURATION));
+                        if (measuredFrames.incrementAndGet() == BENCHMARK_FRAMES)
+                            done.countDown();
+                    }
+                };
+                activity.getWindow().addOnFrameMetricsAvailableListener(listener[0], metricsHandler);
+                Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        if (done.getCount() == 0)
+                            return;
+                        for (int i = 0; i < row[0].getChildCount(); i++) {
+                            row[0].getChildAt(i).invalidate();
+                        }
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                });
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS * 3, TimeUnit.SECONDS));
+        scenario.onActivity(new ActivityScenario.ActivityAction<TestPreferenceActivity>() {
+            @Override
+            public void perform(TestPreferenceActivity activity) {
+                activity.getWindow().removeOnFrameMetricsAvailableListener(listener[0]);
+                ((ViewGroup)row[0].getParent()).removeView(row[0]);
+            }
+        });
+        return totalNanos.get() / BENCHMARK_FRAMES;
+    }
+}
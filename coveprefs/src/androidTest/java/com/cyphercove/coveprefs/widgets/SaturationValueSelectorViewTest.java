@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class SaturationValueSelectorViewTest {
+    private static final int WIDTH = 240;
+    private static final int HEIGHT = 180;
+    /** Both renderings are dithered, so channels can differ slightly. */
+    private static final int CHANNEL_TOLERANCE = 4;
+
+    private static Context createContext (){
+        return new ContextThemeWrapper(InstrumentationRegistry.getTargetContext(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light);
+    }
+
+    private static SaturationValueSelectorView createView (){
+        SaturationValueSelectorView view = new SaturationValueSelectorView(createContext());
+        view.layout(0, 0, WIDTH, HEIGHT);
+        return view;
+    }
+
+    private static void runOnMainSync (Runnable runnable){
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    @Test
+    public void setHueAndDrawDoNotAllocate (){
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SaturationValueSelectorView view = createView();
+                Canvas canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+                for (int i = 0; i < 10; i++) {
+                    view.setHue(i * 36f);
+                    view.onDraw(canvas);
+                }
+
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                for (int i = 0; i < 360; i++) {
+                    view.setHue(i);
+                    view.onDraw(canvas);
+                }
+                Debug.stopAllocCounting();
+                assertEquals(0, Debug.getThreadAllocCount());
+            }
+        });
+    }
+
+    /**
+     * Draws the plane the way it was drawn before the overlay bitmap: a horizontal white-to-hue gradient, with a
+     * vertical clear-to-black gradient over it.
+     */
+    private static void drawTwoGradientPlane (Canvas canvas, float hue){
+        Paint saturationPaint = new Paint(Paint.DITHER_FLAG);
+        saturationPaint.setStyle(Paint.Style.STROKE);
+        saturationPaint.setStrokeWidth(HEIGHT);
+        saturationPaint.setShader(new LinearGradient(WIDTH, 0, 0, 0,
+                new int[]{Color.HSVToColor(new float[]{hue, 1f, 1f}), 0xFFFFFFFF}, null, Shader.TileMode.CLAMP));
+        Paint valuePaint = new Paint(Paint.DITHER_FLAG);
+        valuePaint.setStyle(Paint.Style.STROKE);
+        valuePaint.setStrokeWidth(WIDTH);
+        valuePaint.setShader(new LinearGradient(0, 0, 0, HEIGHT,
+                new int[]{0x00000000, 0xFF000000}, null, Shader.TileMode.CLAMP));
+        canvas.drawLine(0, HEIGHT / 2f, WIDTH, HEIGHT / 2f, saturationPaint);
+        canvas.drawLine(WIDTH / 2f, 0, WIDTH / 2f, HEIGHT, valuePaint);
+    }
+
+    @Test
+    public void overlayMatchesTwoGradientRendering (){
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                SaturationValueSelectorView view = createView();
+                Bitmap actual = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                Bitmap expected = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+                // The selector is drawn at the top left corner, where it is left out of the comparison.
+                int excludedRadius = ResolvedStyles.colorPicker(createContext(), null, 0).hsvSelectorRadius + 2;
+                for (float hue : new float[]{0f, 47f, 120f, 200f, 300f, 359f}) {
+                    view.setColor(hue, 0f, 1f);
+                    actual.eraseColor(Color.TRANSPARENT);
+                    view.onDraw(new Canvas(actual));
+                    expected.eraseColor(Color.TRANSPARENT);
+                    drawTwoGradientPlane(new Canvas(expected), hue);
+                    assertPixelsMatch(hue, expected, actual, excludedRadius);
+                }
+            }
+        });
+    }
+
+    private static void assertPixelsMatch (float hue, Bitmap expected, Bitmap actual, int excludedRadius){
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (x * x + y * y <= excludedRadius * excludedRadius)
+                    continue;
+                int expectedPixel = expected.getPixel(x, y);
+                int actualPixel = actual.getPixel(x, y);
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int difference = Math.abs(((expectedPixel >>> shift) & 0xFF) - ((actualPixel >>> shift) & 0xFF));
+                    if (difference > CHANNEL_TOLERANCE)
+                        fail(String.format("Hue %.0f at (%d, %d): expected #%08X but was #%08X",
+                                hue, x, y, expectedPixel, actualPixel));
+                }
+            }
+        }
+    }
+}
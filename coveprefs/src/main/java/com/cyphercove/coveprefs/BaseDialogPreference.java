@@ -22,17 +22,22 @@ import android.os.Bundle;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.DialogPreference;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceDialogFragmentCompat;
+import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.PreferenceViewHolder;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import com.cyphercove.coveprefs.state.SingleValueSavedState;
 import com.cyphercove.coveprefs.utils.PreferenceViewHolderWrapper;
 import com.cyphercove.coveprefs.utils.AbsViewHolder;
+import com.cyphercove.coveprefs.utils.BoundRow;
+import com.cyphercove.coveprefs.widgets.InputLatencyProbe;
 
 /**
  * A DialogPreference set up to restore dialog state on Activity recreation, and automatically persist resources on
@@ -60,6 +65,10 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
     private Button neutralButton;
     private boolean usesInternalButtonBar;
     private DialogFragment<T> dialogFragment;
+    private Parcelable restoredDialogViewState;
+    private final BoundRow boundRow = new BoundRow(this);
+    /** Whether the dialog view has been prewarmed since the preference was attached to its screen. */
+    private boolean dialogViewPrewarmRequested;
 
     protected abstract Class<T> getDataType();
 
@@ -105,31 +114,47 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
         setNegativeButtonText(null);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected Parcelable onSaveInstanceState() {
         final Parcelable superState = super.onSaveInstanceState();
-        if (newValue == null || newValue == currentValue) {
+        return onSaveDialogState(superState, newValue == currentValue ? null : newValue);
+    }
+
+    /** Saves the state of an open dialog along with the preference's state.
+     * @param superState The state saved by the Preference.
+     * @param pendingValue The value modified in the dialog that has not been committed, or null if there is none.
+     * @return The state to save. By default, the pending value wrapping the super state, or the super state alone if
+     * there is no pending value. Subclasses that have more dialog state to save can override this to save it in the
+     * same object, and override {@link #onRestoreDialogState(Parcelable)} to match.
+     */
+    protected Parcelable onSaveDialogState(Parcelable superState, @Nullable T pendingValue) {
+        if (pendingValue == null) {
             return superState; // no need to save
         }
 
         final SingleValueSavedState<T> myState = SingleValueSavedState.create(superState, getDataType());
-        myState.setValue(newValue);
+        myState.setValue(pendingValue);
         return myState;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected void onRestoreInstanceState(Parcelable state) {
+        super.onRestoreInstanceState(onRestoreDialogState(state));
+    }
+
+    /** Restores state saved by {@link #onSaveDialogState(Parcelable, Object)}.
+     * @param state The saved state.
+     * @return The state saved by the Preference, to be passed up to it.
+     */
+    @SuppressWarnings("unchecked")
+    protected Parcelable onRestoreDialogState(Parcelable state) {
         if (state == null || !SingleValueSavedState.isOfCorrectType(state, getDataType())) {
-            super.onRestoreInstanceState(state);
-            return;
+            return state;
         }
 
         SingleValueSavedState<T> myState = (SingleValueSavedState<T>) state;
-        super.onRestoreInstanceState(myState.getSuperState());
-
-        newValue = (T)myState.getValue();
+        newValue = myState.getValue();
+        return myState.getSuperState();
     }
 
     public void setValue (T value){
@@ -200,7 +225,39 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
     @Override
     public final void onBindViewHolder(PreferenceViewHolder holder){
         super.onBindViewHolder(holder);
-        onPreferenceViewCreated(new PreferenceViewHolderWrapper(holder));
+        bindPreferenceView(PreferenceViewHolderWrapper.of(holder));
+        if (!dialogViewPrewarmRequested) {
+            dialogViewPrewarmRequested = true;
+            DialogViewPool.prewarm(getContext(), getDialogLayoutResource());
+        }
+    }
+
+    /** The part of binding the preference view that CovePrefs adds. Package-private for tests. */
+    void bindPreferenceView(PreferenceViewHolderWrapper view) {
+        boundRow.onBind(view);
+        onPreferenceViewCreated(view);
+    }
+
+    @Override
+    public void onDetached() {
+        super.onDetached();
+        dialogViewPrewarmRequested = false;
+    }
+
+    /** Called when the dialog fragment saves its state, for example before a configuration change. Subclasses can
+     * return state of the dialog's widgets that can't be derived from the pending value, so the dialog can be put
+     * back exactly as it was.
+     * @return The state of the dialog's views, or null if there is nothing to save.
+     */
+    protected Parcelable onSaveDialogViewState (){
+        return null;
+    }
+
+    /** @return The state returned by {@link #onSaveDialogViewState()} before the dialog was recreated, or null if
+     * the dialog is being shown fresh. Only available during {@link #onBindDialogView(View)}.
+     */
+    protected final Parcelable getRestoredDialogViewState (){
+        return restoredDialogViewState;
     }
 
     /** Called when the preference view has been created. This is a good time for caching references to any custom
@@ -211,6 +268,31 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
 
     }
 
+    /** Refreshes the summary shown in the preference view, for example after the value changed with a summary
+     * provider set. Unlike {@link #notifyChanged()}, this does not rebind the whole preference view unless the summary
+     * can't be updated in place, so widget animations keep running.
+     */
+    protected void notifySummaryChanged (){
+        if (!boundRow.updateSummary())
+            notifyChanged();
+    }
+
+    /** @return The view holder currently showing this preference, or null if the preference isn't showing or its
+     * view can't be verified. Views in it can be updated directly for changes that don't need a full rebind.
+     */
+    @Nullable
+    protected final PreferenceViewHolder getBoundViewHolder (){
+        return boundRow.get();
+    }
+
+    /** @return The {@code coveprefs_widget} view of the view holder currently showing this preference, or null if
+     * there is none or the view holder can't be verified, as for {@link #getBoundViewHolder()}.
+     */
+    @Nullable
+    protected final View getBoundWidget (){
+        return boundRow.getWidget();
+    }
+
     /** Called when the dialog was closed with positive result, the change listener accepted the change, and the value
      * has been persisted. This is a good time to update any widgets in the preference view.
      */
@@ -218,6 +300,20 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
 
     }
 
+    /** Called when the views of the dialog are no longer in use, because the dialog has closed or its fragment's
+     * views have been destroyed. Subclasses must drop any references to dialog views they captured in
+     * {@link #onDialogViewCreated(View)}, so the dialog's view hierarchy can be garbage collected. A new dialog will
+     * call {@link #onDialogViewCreated(View)} again.
+     */
+    protected void onDialogViewReleased (){
+
+    }
+
+    private void releaseDialogView (){
+        neutralButton = null;
+        onDialogViewReleased();
+    }
+
     /** Called when the dialog view has just been inflated.
      *
      * @param view The root content view of the dialog. Will be null if {@link #setDialogLayoutResource(int)} has never
@@ -271,7 +367,118 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
 
     public static class DialogFragment<T> extends PreferenceDialogFragmentCompat {
 
+        private static final String SAVE_STATE_VIEW_STATE = "BaseDialogPreference.DialogFragment.viewState";
+        private static final String ARG_REQUESTED_NANOS = "BaseDialogPreference.DialogFragment.requestedNanos";
+
+        /**
+         * Receives the timing of each CovePrefs dialog as it opens. Set with {@link #setTimingListener(TimingListener)}.
+         */
+        public interface TimingListener {
+            /** Called on the main thread once the dialog's first frame has been drawn. */
+            void onDialogTiming (@NonNull Timing timing);
+        }
+
+        /**
+         * Timestamps of the phases of opening a dialog, from {@link System#nanoTime()}. A timestamp is 0 if the
+         * phase was not observed.
+         */
+        public static final class Timing {
+            Class<?> preferenceClass;
+            String key;
+            long requestedNanos, createdNanos, viewCreationStartedNanos, viewInflatedNanos, viewCreatedNanos,
+                    viewBoundNanos, firstDrawNanos;
+            boolean viewPrewarmed;
+
+            Timing (){
+            }
+
+            /** @return The class of the preference the dialog belongs to. */
+            public Class<?> getPreferenceClass (){
+                return preferenceClass;
+            }
+
+            /** @return The key of the preference the dialog belongs to. */
+            public String getKey (){
+                return key;
+            }
+
+            /** @return When {@link CovePrefs#onPreferenceDisplayDialog(PreferenceFragmentCompat, Preference)}
+             * started the fragment transaction. 0 if the dialog was shown some other way, or is being recreated. */
+            public long getRequestedNanos (){
+                return requestedNanos;
+            }
+
+            /** @return When the fragment was created. */
+            public long getCreatedNanos (){
+                return createdNanos;
+            }
+
+            /** @return When the dialog content view was requested, before it was inflated. */
+            public long getViewCreationStartedNanos (){
+                return viewCreationStartedNanos;
+            }
+
+            /** @return When the dialog content view was inflated, or taken from the prewarmed views. */
+            public long getViewInflatedNanos (){
+                return viewInflatedNanos;
+            }
+
+            /** @return When {@link BaseDialogPreference#onDialogViewCreated(View)} returned. */
+            public long getViewCreatedNanos (){
+                return viewCreatedNanos;
+            }
+
+            /** @return When {@link BaseDialogPreference#onBindDialogView(View)} returned. */
+            public long getViewBoundNanos (){
+                return viewBoundNanos;
+            }
+
+            /** @return When the dialog window drew its first frame. */
+            public long getFirstDrawNanos (){
+                return firstDrawNanos;
+            }
+
+            /** @return Whether the content view was inflated ahead of time instead of when the dialog opened. */
+            public boolean isViewPrewarmed (){
+                return viewPrewarmed;
+            }
+
+            @Override
+            public String toString (){
+                long start = requestedNanos != 0 ? requestedNanos : createdNanos;
+                return preferenceClass.getSimpleName() + "(" + key + ")"
+                        + (requestedNanos != 0 ? " transaction " + millis(createdNanos - start) : "")
+                        + " inflate " + millis(viewInflatedNanos - viewCreationStartedNanos)
+                        + (viewPrewarmed ? " (prewarmed)" : "")
+                        + " created " + millis(viewCreatedNanos - viewInflatedNanos)
+                        + " bind " + millis(viewBoundNanos - viewCreatedNanos)
+                        + " firstDraw " + millis(firstDrawNanos - start);
+            }
+
+            private static String millis (long nanos){
+                return (nanos / 10000) / 100f + "ms";
+            }
+        }
+
+        private static TimingListener timingListener;
+
         Button internalPositiveButton;
+        private Parcelable restoredViewState;
+        private Timing timing;
+
+        /**
+         * Sets a listener that receives the timing of every CovePrefs dialog that opens, for finding where the time
+         * between a tap and a visible dialog goes. When no listener is set, no timing is recorded.
+         * @param listener The listener, or null to stop timing.
+         */
+        public static void setTimingListener (@Nullable TimingListener listener){
+            timingListener = listener;
+        }
+
+        static void markRequested (androidx.fragment.app.DialogFragment fragment){
+            if (timingListener != null && fragment.getArguments() != null)
+                fragment.getArguments().putLong(ARG_REQUESTED_NANOS, System.nanoTime());
+        }
 
         public static DialogFragment newInstance(String key) {
             final DialogFragment
@@ -287,27 +494,120 @@ public abstract class BaseDialogPreference<T> extends DialogPreference {
             return (BaseDialogPreference<T>) getPreference();
         }
 
+        @Override
+        public void onCreate(Bundle savedInstanceState) {
+            if (timingListener != null) {
+                timing = new Timing();
+                timing.createdNanos = System.nanoTime();
+                if (savedInstanceState == null && getArguments() != null)
+                    timing.requestedNanos = getArguments().getLong(ARG_REQUESTED_NANOS);
+            }
+            super.onCreate(savedInstanceState);
+            if (savedInstanceState != null)
+                restoredViewState = savedInstanceState.getParcelable(SAVE_STATE_VIEW_STATE);
+        }
+
+        @Override
+        public void onStart() {
+            super.onStart();
+            Dialog dialog = getDialog();
+            if (dialog != null && dialog.getWindow() != null)
+                InputLatencyProbe.attachWindow(dialog.getWindow());
+            if (timing == null || timing.firstDrawNanos != 0 || dialog == null || dialog.getWindow() == null)
+                return;
+            final View decorView = dialog.getWindow().getDecorView();
+            decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+                @Override
+                public void onDraw() {
+                    final ViewTreeObserver.OnDrawListener drawListener = this;
+                    final Timing finishedTiming = timing;
+                    timing = null;
+                    if (finishedTiming != null) {
+                        finishedTiming.firstDrawNanos = System.nanoTime();
+                        BaseDialogPreference<T> preference = getBasePreference();
+                        finishedTiming.preferenceClass = preference.getClass();
+                        finishedTiming.key = preference.getKey();
+                    }
+                    decorView.post(new Runnable() { // Listeners can't be removed during dispatch.
+                        @Override
+                        public void run() {
+                            decorView.getViewTreeObserver().removeOnDrawListener(drawListener);
+                            TimingListener listener = timingListener;
+                            if (finishedTiming != null && listener != null)
+                                listener.onDialogTiming(finishedTiming);
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public void onStop() {
+            super.onStop();
+            Dialog dialog = getDialog();
+            if (dialog != null && dialog.getWindow() != null)
+                InputLatencyProbe.detachWindow(dialog.getWindow());
+        }
+
+        @Override
+        public void onSaveInstanceState(@NonNull Bundle outState) {
+            super.onSaveInstanceState(outState);
+            Parcelable viewState = getBasePreference().onSaveDialogViewState();
+            if (viewState != null)
+                outState.putParcelable(SAVE_STATE_VIEW_STATE, viewState);
+        }
+
+        @Override
+        public void onDestroyView() {
+            super.onDestroyView();
+            internalPositiveButton = null;
+            BaseDialogPreference<T> preference = getBasePreference();
+            if (preference != null && preference.dialogFragment == this) { // Not closed, such as on a configuration change.
+                preference.setDialogFragment(null);
+                preference.releaseDialogView();
+            }
+        }
+
         /** See {@link PreferenceDialogFragmentCompat#onDialogClosed(boolean)}. */
         @Override
         public void onDialogClosed(boolean positiveResult) {
-            getBasePreference().onDialogClosed(positiveResult);
-            getBasePreference().setDialogFragment(null);
+            BaseDialogPreference<T> preference = getBasePreference();
+            preference.onDialogClosed(positiveResult);
+            preference.setDialogFragment(null);
+            preference.releaseDialogView();
+            DialogViewPool.prewarm(preference.getContext(), preference.getDialogLayoutResource());
         }
 
         @Override
         protected View onCreateDialogView(Context context) {
-            View view = super.onCreateDialogView(context);
+            if (timing != null)
+                timing.viewCreationStartedNanos = System.nanoTime();
+            View view = DialogViewPool.take(context, getBasePreference().getDialogLayoutResource());
+            if (timing != null)
+                timing.viewPrewarmed = view != null;
+            if (view == null)
+                view = super.onCreateDialogView(context);
+            if (timing != null)
+                timing.viewInflatedNanos = System.nanoTime();
             handleInternalButtonBar(view);
 
             getBasePreference().setDialogFragment(this);
             getBasePreference().onDialogViewCreated(view);
+            if (timing != null)
+                timing.viewCreatedNanos = System.nanoTime();
             return view;
         }
 
         @Override
         protected void onBindDialogView(View view) {
             super.onBindDialogView(view);
-            getBasePreference().onBindDialogView(view);
+            BaseDialogPreference<T> preference = getBasePreference();
+            preference.restoredDialogViewState = restoredViewState;
+            preference.onBindDialogView(view);
+            preference.restoredDialogViewState = null;
+            restoredViewState = null;
+            if (timing != null)
+                timing.viewBoundNanos = System.nanoTime();
         }
 
         private void handleInternalButtonBar (View layoutView){
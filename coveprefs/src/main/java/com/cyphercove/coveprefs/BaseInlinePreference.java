@@ -139,7 +139,7 @@ public abstract class BaseInlinePreference<T> extends Preference {
     public final void onBindViewHolder(PreferenceViewHolder holder){
         super.onBindViewHolder(holder);
 
-        onPreferenceViewCreated(new PreferenceViewHolderWrapper(holder));
+        onPreferenceViewCreated(PreferenceViewHolderWrapper.of(holder));
     }
 
     /** Called when the preference view has been created. This is a good time for caching references to any custom
@@ -20,6 +20,7 @@ import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.os.Build;
+import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.view.View;
 
@@ -28,8 +29,10 @@ import androidx.annotation.NonNull;
 import com.cyphercove.coveprefs.utils.ColorCache;
 import com.cyphercove.coveprefs.utils.AbsViewHolder;
 import com.cyphercove.coveprefs.widgets.ColorPicker;
+import com.cyphercove.coveprefs.widgets.ColorPickerState;
 import com.cyphercove.coveprefs.widgets.ColorSwatch;
 
+
 /**
  * A DialogPreference that allows the user to choose a color. The color will be in ARGB 32 bit format, with alpha equal
  * to 255. The default styling is intended for use with no dialog title or icon.
@@ -37,10 +40,10 @@ import com.cyphercove.coveprefs.widgets.ColorSwatch;
  * {@code android:defaultValue} may be specified as a decimal integer, hexadecimal integer (preceded by {@code #} or
  * {@code 0x}), or color resource ({@code @color/myColor}).
  * <p>
- * The preference XML may specify which widgets appear in the dialog. By default, all are used. Example, showing all
- * available options:
+ * The preference XML may specify which widgets appear in the dialog. By default, {@code hsv|hex|recent} are used.
+ * Example, showing all available options:
  * <p>
- * <code>app:coveprefs_colorPickerWidgets="hsv|hex|recent"</code>
+ * <code>app:coveprefs_colorPickerWidgets="hsv|hex|recent|oklch"</code>
  */
 @SuppressWarnings("WeakerAccess")
 public class ColorPreference extends BaseDialogPreference<Integer> implements ColorPicker.OnColorChangedListener{
@@ -51,7 +54,6 @@ public class ColorPreference extends BaseDialogPreference<Integer> implements Co
             ColorPicker.WIDGET_RECENTLY_PICKED;
 
     private ColorPicker colorPicker;
-    private ColorSwatch colorWidget;
     private int widgets;
 
     public ColorPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
@@ -92,12 +94,13 @@ public class ColorPreference extends BaseDialogPreference<Integer> implements Co
      *     <li>{@link ColorPicker#WIDGET_HSV_PICKER}</li>
      *     <li>{@link ColorPicker#WIDGET_HEX_TEXT_EDIT}</li>
      *     <li>{@link ColorPicker#WIDGET_RECENTLY_PICKED}</li>
+     *     <li>{@link ColorPicker#WIDGET_OKLCH_PICKER}</li>
      * </ul>
      *
      * @param widgets
      */
     public void setWidgets(@ColorPicker.Widgets int widgets) {
-        if (widgets != widgets) {
+        if (this.widgets != widgets) {
             this.widgets = widgets;
             notifyChanged();
         }
@@ -133,20 +136,35 @@ public class ColorPreference extends BaseDialogPreference<Integer> implements Co
     @Override
     protected void onBindDialogView(View view) {
         super.onBindDialogView(view);
-        colorPicker.setColor(getValueForBindingDialog());
-        colorPicker.setWidgets(widgets);
+        Parcelable pickerState = getRestoredDialogViewState();
+        colorPicker.setWidgets(widgets); // First, so restored picker state is read in the right color model
+        colorPicker.setColor(getValueForBindingDialog(),
+                pickerState instanceof ColorPickerState ? (ColorPickerState)pickerState : null);
+    }
+
+    @Override
+    protected Parcelable onSaveDialogViewState() {
+        return colorPicker == null ? null : colorPicker.getPickerState();
+    }
+
+    @Override
+    protected void onDialogViewReleased() {
+        colorPicker = null;
     }
 
     @Override
     protected void onPreferenceViewCreated (AbsViewHolder view){
-        colorWidget = (ColorSwatch)view.findViewById(R.id.coveprefs_widget);
+        ColorSwatch colorWidget = (ColorSwatch)view.findViewById(R.id.coveprefs_widget);
         colorWidget.setColor(getValueForBindingPreferenceView());
     }
 
     @Override
     protected void onValueChangedAndCommitted() {
-        if (colorWidget != null)
-            colorWidget.setColorAnimated(getValueForBindingPreferenceView());
+        View colorWidget = getBoundWidget();
+        if (colorWidget instanceof ColorSwatch)
+            ((ColorSwatch)colorWidget).setColorAnimated(getValueForBindingPreferenceView());
+        else
+            notifyChanged();
         ColorCache.submitColor(getContext(), getValueForBindingPreferenceView());
     }
 
@@ -40,8 +40,18 @@ public final class CovePrefs {
             return false;
 
         final DialogFragment f = BaseDialogPreference.DialogFragment.newInstance(pref.getKey());
+        BaseDialogPreference.DialogFragment.markRequested(f);
         f.setTargetFragment(caller, 0);
         f.show(fragmentManager, ((BaseDialogPreference)pref).getDialogFragmentTag());
         return true;
     }
+
+    /**
+     * Sets whether the content views of CovePrefs dialogs are inflated ahead of time, while the main thread is
+     * idle after a preference screen is shown, so the dialogs open faster. Enabled by default.
+     * @param enabled Whether to prewarm dialog views.
+     */
+    public static void setDialogPrewarmingEnabled(boolean enabled){
+        DialogViewPool.setEnabled(enabled);
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.fragment.app.FragmentActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Holds dialog content views that were inflated ahead of time while the main thread was idle, one
+ * per layout for each Activity. A dialog takes its view out of the pool, so a view is never shown
+ * twice, and the pool is refilled the next time the main thread is idle. The pool of an Activity is
+ * discarded when it is destroyed.
+ * <p>
+ * Views are inflated with the Activity itself, which is the Context a dialog fragment hosted by it
+ * passes to {@code onCreateDialogView()}, so a prewarmed view is the same as one inflated when the
+ * dialog opens. A view is only handed out for that Context.
+ */
+final class DialogViewPool implements MessageQueue.IdleHandler, LifecycleEventObserver {
+
+    private static boolean enabled = true;
+    private static final HashMap<FragmentActivity, DialogViewPool> POOLS = new HashMap<>();
+
+    private final FragmentActivity activity;
+    private final SparseArray<View> views = new SparseArray<>();
+    private final ArrayList<Integer> pendingLayouts = new ArrayList<>();
+    private boolean idleHandlerQueued;
+    private boolean destroyed;
+
+    private DialogViewPool (FragmentActivity activity){
+        this.activity = activity;
+        activity.getLifecycle().addObserver(this);
+    }
+
+    static void setEnabled (boolean enabled){
+        DialogViewPool.enabled = enabled;
+        if (!enabled) {
+            for (DialogViewPool pool : POOLS.values())
+                pool.clear();
+        }
+    }
+
+    /**
+     * Requests that a view for the layout be inflated the next time the main thread is idle, if the
+     * pool doesn't already hold one.
+     * @param context A Context of the Activity the dialog will be shown in.
+     * @param layoutResId The dialog layout.
+     */
+    static void prewarm (Context context, @LayoutRes int layoutResId){
+        if (!enabled || layoutResId == 0 || Looper.myLooper() != Looper.getMainLooper())
+            return;
+        FragmentActivity activity = findActivity(context);
+        if (activity == null || activity.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED)
+            return;
+        DialogViewPool pool = POOLS.get(activity);
+        if (pool == null){
+            pool = new DialogViewPool(activity);
+            POOLS.put(activity, pool);
+        }
+        pool.request(layoutResId);
+    }
+
+    /**
+     * @param context The Context the dialog view would otherwise be inflated with.
+     * @param layoutResId The dialog layout.
+     * @return A prewarmed view for the layout, which is removed from the pool, or null if there is none
+     * or it was inflated with a different Context.
+     */
+    static View take (Context context, @LayoutRes int layoutResId){
+        DialogViewPool pool = context instanceof FragmentActivity ? POOLS.get(context) : null;
+        if (pool == null)
+            return null;
+        View view = pool.views.get(layoutResId);
+        pool.views.remove(layoutResId);
+        return view;
+    }
+
+    private static FragmentActivity findActivity (Context context){
+        while (context instanceof ContextWrapper){
+            if (context instanceof FragmentActivity)
+                return (FragmentActivity)context;
+            context = ((ContextWrapper)context).getBaseContext();
+        }
+        return null;
+    }
+
+    private void request (int layoutResId){
+        if (views.get(layoutResId) != null || pendingLayouts.contains(layoutResId))
+            return;
+        pendingLayouts.add(layoutResId);
+        if (!idleHandlerQueued){
+            idleHandlerQueued = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    @Override
+    public boolean queueIdle() {
+        if (destroyed || pendingLayouts.isEmpty()){
+            idleHandlerQueued = false;
+            return false;
+        }
+        // Inflate one layout per idle pass so input and frames can be handled in between.
+        int layoutResId = pendingLayouts.remove(pendingLayouts.size() - 1);
+        if (views.get(layoutResId) == null){
+            views.put(layoutResId, LayoutInflater.from(activity).inflate(layoutResId, null));
+        }
+        idleHandlerQueued = !pendingLayouts.isEmpty();
+        return idleHandlerQueued;
+    }
+
+    private void clear (){
+        views.clear();
+        pendingLayouts.clear();
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_DESTROY){
+            destroyed = true;
+            clear();
+            activity.getLifecycle().removeObserver(this);
+            POOLS.remove(activity);
+        }
+    }
+}
@@ -57,7 +57,6 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     private int[] entryIds;
     private CharSequence[] entryValues;
     private CharSequence[] entryContentDescriptions;
-    private CovePrefs_PreferenceImageView selectedImageWidget;
     private int tintResource;
     private ColorStateList tintColorStateList;
     private PorterDuff.Mode tintMode;
@@ -124,7 +123,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setEntries(int[] entryIds) {
         if (!Arrays.equals(this.entryIds, entryIds)) {
             this.entryIds = entryIds;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -161,7 +160,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setEntryValues(CharSequence[] entryValues) {
         if (!Arrays.equals(this.entryValues, entryValues)) {
             this.entryValues = entryValues;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -211,7 +210,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setEntryContentDescriptions(CharSequence[] entryContentDescriptions) {
         if (!Arrays.equals(this.entryContentDescriptions, entryContentDescriptions)) {
             this.entryContentDescriptions = entryContentDescriptions;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -309,7 +308,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
         if (!Objects.equals(tint, tintColorStateList) || tintResource != 0) {
             tintResource = 0;
             tintColorStateList = tint;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -317,7 +316,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
         if (tintResource != tint || tintColorStateList != null) {
             tintResource = tint;
             tintColorStateList = null;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -333,7 +332,7 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setTintMode(@NonNull PorterDuff.Mode tintMode) {
         if (this.tintMode != tintMode) {
             this.tintMode = tintMode;
-            notifyChanged();
+            notifyWidgetChanged();
         }
     }
 
@@ -344,7 +343,6 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setDialogRowHeight(int dialogRowHeight) {
         if (this.dialogRowHeight != dialogRowHeight) {
             this.dialogRowHeight = dialogRowHeight;
-            notifyChanged();
         }
     }
 
@@ -355,7 +353,6 @@ public class ImageListPreference extends BaseDialogPreference<String>{
     public void setDialogColumnWidth(int dialogColumnWidth) {
         if (this.dialogColumnWidth != dialogColumnWidth) {
             this.dialogColumnWidth = dialogColumnWidth;
-            notifyChanged();
         }
     }
 
@@ -409,35 +406,48 @@ public class ImageListPreference extends BaseDialogPreference<String>{
 
     @Override
     protected void onPreferenceViewCreated (AbsViewHolder view){
-        selectedImageWidget = (CovePrefs_PreferenceImageView)view.findViewById(R.id.coveprefs_widget);
+        CovePrefs_PreferenceImageView selectedImageWidget = (CovePrefs_PreferenceImageView)view.findViewById(R.id.coveprefs_widget);
         if (smallWidget){
             ViewGroup.LayoutParams layoutParams = selectedImageWidget.getLayoutParams();
             int size = getContext().getResources().getDimensionPixelSize(R.dimen.coveprefs_preference_widget_small);
             layoutParams.width = layoutParams.height = size;
             selectedImageWidget.setLayoutParams(layoutParams);
         }
-        if (getTint() != null) {
-            ImageViewCompat.setImageTintList(selectedImageWidget, getTint());
-            ImageViewCompat.setImageTintMode(selectedImageWidget, tintMode);
-        }
-        int selectedImageId = getDrawableForValue();
-        if (selectedImageId != 0){
-            selectedImageWidget.setImageResource(selectedImageId);
-            selectedImageWidget.setContentDescription(getContentDescriptionForValue());
-        }
+        bindWidget(selectedImageWidget);
     }
 
     @Override
     protected void onValueChangedAndCommitted() {
-        if (selectedImageWidget != null) {
-            int selectedImageId = getDrawableForValue();
-            if (selectedImageId != 0) {
-                selectedImageWidget.setImageResource(selectedImageId);
-                selectedImageWidget.setContentDescription(getContentDescriptionForValue());
-            } else {
-                selectedImageWidget.setImageDrawable(null);
-                selectedImageWidget.setContentDescription(null);
-            }
+        View selectedImageWidget = getBoundWidget();
+        if (selectedImageWidget instanceof ImageView)
+            bindSelectedImage((ImageView)selectedImageWidget);
+        else
+            notifyChanged();
+    }
+
+    /** Updates the widget in place for a change to its image or tint, rather than rebinding the whole view. */
+    private void notifyWidgetChanged (){
+        View widget = getBoundWidget();
+        if (widget instanceof ImageView)
+            bindWidget((ImageView)widget);
+        else
+            notifyChanged();
+    }
+
+    private void bindWidget (ImageView selectedImageWidget){
+        ImageViewCompat.setImageTintList(selectedImageWidget, getTint());
+        ImageViewCompat.setImageTintMode(selectedImageWidget, tintMode);
+        bindSelectedImage(selectedImageWidget);
+    }
+
+    private void bindSelectedImage (ImageView selectedImageWidget){
+        int selectedImageId = getDrawableForValue();
+        if (selectedImageId != 0) {
+            selectedImageWidget.setImageResource(selectedImageId);
+            selectedImageWidget.setContentDescription(getContentDescriptionForValue());
+        } else {
+            selectedImageWidget.setImageDrawable(null);
+            selectedImageWidget.setContentDescription(null);
         }
     }
 
@@ -43,7 +43,6 @@ import androidx.preference.SeekBarPreference;
 public class LabeledSeekBarPreference extends SeekBarPreference {
 
     private CharSequence leftLabel, rightLabel;
-    private TextView leftLabelView, rightLabelView;
 
     private static final String TAG = "SeekBarPlusPreference";
 
@@ -74,6 +73,16 @@ public class LabeledSeekBarPreference extends SeekBarPreference {
     public void onBindViewHolder(PreferenceViewHolder view) {
         super.onBindViewHolder(view);
 
+        // A recycled view that was already restructured only needs its text set.
+        TextView leftLabelView = (TextView) view.findViewById(R.id.coveprefs_seekBarPlusLabelLeft);
+        TextView rightLabelView = (TextView) view.findViewById(R.id.coveprefs_seekBarPlusLabelRight);
+        if (leftLabelView == null || rightLabelView == null)
+            addLabelViews(view);
+        else
+            bindLabelViews(leftLabelView, rightLabelView);
+    }
+
+    private void addLabelViews (PreferenceViewHolder view){
         SeekBar seekBar = (SeekBar) view.findViewById(androidx.preference.R.id.seekbar);
         if (seekBar == null){
             Log.e(TAG, "SeekBar id is missing!");
@@ -102,8 +111,8 @@ public class LabeledSeekBarPreference extends SeekBarPreference {
                         ViewGroup.LayoutParams.MATCH_PARENT, 0);
 
         LayoutInflater inflater = LayoutInflater.from(getContext());
-        leftLabelView = (TextView)inflater.inflate(R.layout.coveprefs_seekbar_label_left, layout, false);
-        rightLabelView = (TextView)inflater.inflate(R.layout.coveprefs_seekbar_label_right, layout, false);
+        TextView leftLabelView = (TextView)inflater.inflate(R.layout.coveprefs_seekbar_label_left, layout, false);
+        TextView rightLabelView = (TextView)inflater.inflate(R.layout.coveprefs_seekbar_label_right, layout, false);
 
         layout.removeAllViews();
         layout.addView(leftLabelView, labelLayoutParams);
@@ -112,6 +121,10 @@ public class LabeledSeekBarPreference extends SeekBarPreference {
         if (valueLabel != null)
             layout.addView(valueLabel, valueLabelLayoutParams);
 
+        bindLabelViews(leftLabelView, rightLabelView);
+    }
+
+    private void bindLabelViews (TextView leftLabelView, TextView rightLabelView){
         leftLabelView.setText(leftLabel);
         rightLabelView.setText(rightLabel);
     }
@@ -123,9 +136,6 @@ public class LabeledSeekBarPreference extends SeekBarPreference {
     public void setLeftLabel (CharSequence leftLabel){
         if ((leftLabel == null && this.leftLabel != null) || (leftLabel != null && !leftLabel.equals(this.leftLabel))) {
             this.leftLabel = leftLabel;
-            if (leftLabelView != null) {
-                leftLabelView.setText(leftLabel);
-            }
             notifyChanged();
         }
     }
@@ -141,9 +151,6 @@ public class LabeledSeekBarPreference extends SeekBarPreference {
     public void setRightLabel (CharSequence rightLabel){
         if ((rightLabel == null && this.rightLabel != null) || (rightLabel != null && !rightLabel.equals(this.rightLabel))) {
             this.rightLabel = rightLabel;
-            if (rightLabelView != null) {
-                rightLabelView.setText(rightLabel);
-            }
             notifyChanged();
         }
     }
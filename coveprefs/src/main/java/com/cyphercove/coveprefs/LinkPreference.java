@@ -62,8 +62,7 @@ public class LinkPreference extends Preference {
     public void setUri(String uri) {
         if ((uri == null && this.uri != null) || (uri != null && !uri.equals(this.uri))) {
             this.uri = uri;
-            updateIntent();
-            notifyChanged();
+            updateIntent(); // The intent isn't shown, so no rebind is needed.
         }
     }
 
@@ -79,7 +78,6 @@ public class LinkPreference extends Preference {
         if ((backupUri == null && this.backupUri != null) || (backupUri != null && !backupUri.equals(this.backupUri))) {
             this.backupUri = backupUri;
             updateIntent();
-            notifyChanged();
         }
     }
 
@@ -95,7 +93,6 @@ public class LinkPreference extends Preference {
         if ((uriFormatArg == null && uriFormatArg != null) || (uriFormatArg != null && !uriFormatArg.equals(this.uriFormatArg))) {
             this.uriFormatArg = uriFormatArg;
             updateIntent();
-            notifyChanged();
         }
     }
 
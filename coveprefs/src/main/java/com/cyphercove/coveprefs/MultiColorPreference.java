@@ -22,24 +22,27 @@ import android.util.AttributeSet;
 import android.view.View;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import com.cyphercove.coveprefs.state.SingleValueSavedState;
+import com.cyphercove.coveprefs.state.MultiColorSavedState;
 import com.cyphercove.coveprefs.utils.ColorCache;
 import com.cyphercove.coveprefs.utils.MultiColor;
 import com.cyphercove.coveprefs.utils.AbsViewHolder;
 import com.cyphercove.coveprefs.widgets.ColorPicker;
+import com.cyphercove.coveprefs.widgets.ColorPickerState;
 import com.cyphercove.coveprefs.widgets.MultiColorPicker;
 import com.cyphercove.coveprefs.widgets.MultiColorSwatch;
 
+
 /**
  * A DialogPreference that allows the user to choose a color, or a set of colors, or a disabled color. The preference is
  * stored as a String, which packs the value(s) of the colors. The colors will be in ARGB 32 bit format, with alpha equal
  * to 255. The default styling is intended for use with no dialog title or icon.
  * <p>
- * The preference XML may specify which widgets appear in the dialog. By default, all are used. Example, showing all
- * available options:
+ * The preference XML may specify which widgets appear in the dialog. By default, {@code hsv|hex|recent} are used.
+ * Example, showing all available options:
  * <p>
- * <code>app:coveprefs_colorPickerWidgets="hsv|hex|recent"</code>
+ * <code>app:coveprefs_colorPickerWidgets="hsv|hex|recent|oklch"</code>
  */
 @SuppressWarnings("WeakerAccess")
 public class MultiColorPreference extends BaseDialogPreference<String> implements
@@ -51,10 +54,11 @@ public class MultiColorPreference extends BaseDialogPreference<String> implement
             ColorPicker.WIDGET_RECENTLY_PICKED;
 
     private MultiColorPicker colorPicker;
-    private MultiColorSwatch colorWidget;
     private int widgets;
     private final @NonNull MultiColor.Definition definition;
     private int currentlySelectedColorIndex;
+    private String boundPreferenceValue;
+    private MultiColor boundMultiColor;
 
     /**
      * Private constructor to enable optionally programmatically set MultiColor.Definition. If
@@ -121,12 +125,13 @@ public class MultiColorPreference extends BaseDialogPreference<String> implement
      *     <li>{@link ColorPicker#WIDGET_HSV_PICKER}</li>
      *     <li>{@link ColorPicker#WIDGET_HEX_TEXT_EDIT}</li>
      *     <li>{@link ColorPicker#WIDGET_RECENTLY_PICKED}</li>
+     *     <li>{@link ColorPicker#WIDGET_OKLCH_PICKER}</li>
      * </ul>
      *
      * @param widgets
      */
     public void setWidgets(@ColorPicker.Widgets int widgets) {
-        if (widgets != widgets) {
+        if (this.widgets != widgets) {
             this.widgets = widgets;
             notifyChanged();
         }
@@ -138,25 +143,24 @@ public class MultiColorPreference extends BaseDialogPreference<String> implement
     }
 
     @Override
-    protected Parcelable onSaveInstanceState() {
-        final Parcelable superState = super.onSaveInstanceState();
-
-        final SingleValueSavedState<Integer> myState = SingleValueSavedState.create(superState, Integer.class);
-        myState.setValue(currentlySelectedColorIndex);
+    protected Parcelable onSaveDialogState(Parcelable superState, @Nullable String pendingValue) {
+        final MultiColorSavedState myState = new MultiColorSavedState(superState);
+        myState.setPendingValue(pendingValue);
+        myState.setActiveIndex(currentlySelectedColorIndex);
         return myState;
     }
 
     @Override
-    protected void onRestoreInstanceState(Parcelable state) {
-        if (state == null) {
-            super.onRestoreInstanceState(null);
-            return;
+    protected Parcelable onRestoreDialogState(Parcelable state) {
+        if (!(state instanceof MultiColorSavedState)) {
+            return super.onRestoreDialogState(state);
         }
 
-        @SuppressWarnings("unchecked")
-        SingleValueSavedState<Integer> myState = (SingleValueSavedState<Integer>) state;
-        currentlySelectedColorIndex = myState.getValue();
-        super.onRestoreInstanceState(myState.getSuperState());
+        MultiColorSavedState myState = (MultiColorSavedState) state;
+        currentlySelectedColorIndex = myState.getActiveIndex();
+        if (myState.getPendingValue() != null)
+            onValueModifiedInDialog(myState.getPendingValue());
+        return myState.getSuperState();
     }
 
     @Override
@@ -191,22 +195,50 @@ public class MultiColorPreference extends BaseDialogPreference<String> implement
     protected void onBindDialogView(View view) {
         super.onBindDialogView(view);
         MultiColor multiColor = definition.getValue(getValueForBindingDialog());
-        colorPicker.setMultiColorValue(currentlySelectedColorIndex, multiColor);
-        colorPicker.setWidgets(widgets);
+        Parcelable pickerState = getRestoredDialogViewState();
+        colorPicker.setWidgets(widgets); // First, so restored picker state is read in the right color model
+        if (pickerState instanceof ColorPickerState)
+            colorPicker.setMultiColorValue(multiColor, (ColorPickerState)pickerState);
+        else
+            colorPicker.setMultiColorValue(currentlySelectedColorIndex, multiColor);
+    }
+
+    @Override
+    protected Parcelable onSaveDialogViewState() {
+        return colorPicker == null ? null : colorPicker.getPickerState();
+    }
+
+    @Override
+    protected void onDialogViewReleased() {
+        colorPicker = null;
     }
 
     @Override
     protected void onPreferenceViewCreated (AbsViewHolder view){
-        colorWidget = (MultiColorSwatch)view.findViewById(R.id.coveprefs_widget);
-        MultiColor multiColor = definition.getValue(getValueForBindingPreferenceView());
+        MultiColorSwatch colorWidget = (MultiColorSwatch)view.findViewById(R.id.coveprefs_widget);
+        MultiColor multiColor = getMultiColorForBindingPreferenceView();
         colorWidget.setColors(multiColor.getValues(), multiColor.getValueCount());
     }
 
+    /** @return The parsed value for the preference view, which is only parsed again when the value changes. Must not
+     * be modified. */
+    private MultiColor getMultiColorForBindingPreferenceView (){
+        String value = getValueForBindingPreferenceView();
+        if (!value.equals(boundPreferenceValue)) {
+            boundMultiColor = definition.getValue(value);
+            boundPreferenceValue = value;
+        }
+        return boundMultiColor;
+    }
+
     @Override
     protected void onValueChangedAndCommitted() {
-        MultiColor multiColor = definition.getValue(getValueForBindingPreferenceView());
-        if (colorWidget != null)
-            colorWidget.setColorsAnimated(multiColor.getValues(), multiColor.getValueCount());
+        MultiColor multiColor = getMultiColorForBindingPreferenceView();
+        View colorWidget = getBoundWidget();
+        if (colorWidget instanceof MultiColorSwatch)
+            ((MultiColorSwatch)colorWidget).setColorsAnimated(multiColor.getValues(), multiColor.getValueCount());
+        else
+            notifyChanged();
         ColorCache.submitColor(getContext(), multiColor.getValues(), multiColor.getValueCount());
     }
 
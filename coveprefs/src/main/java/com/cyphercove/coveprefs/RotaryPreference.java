@@ -27,6 +27,7 @@ import com.cyphercove.coveprefs.utils.AbsViewHolder;
 import com.cyphercove.coveprefs.widgets.RotaryPicker;
 import com.cyphercove.coveprefs.widgets.RotaryPreferenceWidget;
 
+
 /**
  * A DialogPreference that allows the user to choose an integer angle from 0 to 359.  The default styling is intended
  * for use with no dialog title or icon.
@@ -34,7 +35,6 @@ import com.cyphercove.coveprefs.widgets.RotaryPreferenceWidget;
 @SuppressWarnings("WeakerAccess")
 public class RotaryPreference extends BaseDialogPreference<Integer> implements RotaryPicker.OnAngleChangedListener {
     private RotaryPicker rotaryPicker;
-    private RotaryPreferenceWidget rotaryWidget;
 
     public RotaryPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
@@ -89,18 +89,26 @@ public class RotaryPreference extends BaseDialogPreference<Integer> implements R
         rotaryPicker.setAngle(getValueForBindingDialog());
     }
 
+    @Override
+    protected void onDialogViewReleased() {
+        rotaryPicker = null;
+    }
+
     @Override
     protected void onPreferenceViewCreated (AbsViewHolder view){
-        rotaryWidget = (RotaryPreferenceWidget) view.findViewById(R.id.coveprefs_widget);
+        RotaryPreferenceWidget rotaryWidget = (RotaryPreferenceWidget) view.findViewById(R.id.coveprefs_widget);
         rotaryWidget.setValue(getValueForBindingPreferenceView());
     }
 
     @Override
     protected void onValueChangedAndCommitted() {
-        if (rotaryWidget != null)
-            rotaryWidget.setValueAnimated(getValueForBindingPreferenceView());
+        View rotaryWidget = getBoundWidget();
+        if (rotaryWidget instanceof RotaryPreferenceWidget)
+            ((RotaryPreferenceWidget)rotaryWidget).setValueAnimated(getValueForBindingPreferenceView());
+        else
+            notifyChanged();
         if (getSummaryProvider() != null)
-            notifyChanged(); // This skips the animation so only notify if necessary.
+            notifySummaryChanged();
     }
 
     /**
@@ -16,7 +16,11 @@
 package com.cyphercove.coveprefs;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.content.res.TypedArray;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcelable;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.AttributeSet;
@@ -24,20 +28,34 @@ import android.view.View;
 import android.widget.EditText;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
+import com.cyphercove.coveprefs.utils.StringBlobStore;
+
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * A DialogPreference that allows the user to type in a String. It is similar to
  * {@link androidx.preference.EditTextPreference}, but it allows specifying a hint for the EditText
  * box and disallowing empty strings.
+ * <p>
+ * For large values, blob storage can be enabled with {@code app:coveprefs_blobStorage}. The String is
+ * then stored in its own file and SharedPreferences only holds a short handle, which can be resolved
+ * with {@link StringBlobStore#readValue(Context, String)}. The file is read in the background. Until it
+ * has loaded, the preference view and dialog show an empty value, and the dialog can't be confirmed.
+ * A new value's file is also written in the background, and SharedPreferences holds the previous
+ * handle until it has been written.
  */
 @SuppressWarnings("WeakerAccess")
 public class StringPreference extends BaseDialogPreference<String> {
     private EditText editText;
     private CharSequence editTextHint;
     private boolean allowEmptyString;
+    private boolean blobStorage;
+    private String pendingBlobHandle; // Set while the value is a handle whose body has not been loaded yet.
+    private boolean dialogAwaitingBlob; // Set while the dialog shows a placeholder for a loading blob.
 
     public StringPreference(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
@@ -48,6 +66,7 @@ public class StringPreference extends BaseDialogPreference<String> {
         }
         editTextHint = a.getText(R.styleable.CovePrefs_StringPreference_coveprefs_editTextHint);
         allowEmptyString = a.getBoolean(R.styleable.CovePrefs_StringPreference_coveprefs_allowEmptyString, true);
+        blobStorage = a.getBoolean(R.styleable.CovePrefs_StringPreference_coveprefs_blobStorage, false);
         a.recycle();
 
         setDialogLayoutResource(R.layout.coveprefs_string_dialog);
@@ -103,7 +122,7 @@ public class StringPreference extends BaseDialogPreference<String> {
     }
 
     public void setEditTextHint(CharSequence editTextHint) {
-        if (!Objects.equals(editTextHint, this.editText)) {
+        if (!Objects.equals(editTextHint, this.editTextHint)) {
             this.editTextHint = editTextHint;
             notifyChanged();
         }
@@ -113,6 +132,79 @@ public class StringPreference extends BaseDialogPreference<String> {
         setEditTextHint(getContext().getText(editTextHint));
     }
 
+    public boolean isBlobStorage() {
+        return blobStorage;
+    }
+
+    /**
+     * Sets whether the value is stored in its own file instead of in SharedPreferences. Should be
+     * set before the preference is attached. A value stored before blob storage was enabled is still
+     * read, and is moved to a file the next time it is saved.
+     * @param blobStorage Whether to use blob storage.
+     */
+    public void setBlobStorage(boolean blobStorage) {
+        this.blobStorage = blobStorage;
+    }
+
+    @Override
+    public void setValue(String value) {
+        if (pendingBlobHandle != null && !pendingBlobHandle.equals(value))
+            pendingBlobHandle = null;
+        super.setValue(value);
+    }
+
+    /** @return The value. If it is stored as a blob that hasn't finished loading in the background, it is read from
+     * disk on the calling thread. */
+    @Override
+    public String getValue() {
+        loadPendingBlob();
+        return super.getValue();
+    }
+
+    @Override
+    protected String getValueForBindingDialog() {
+        if (!isBlobLoading())
+            loadPendingBlob();
+        return withoutPendingHandle(super.getValueForBindingDialog());
+    }
+
+    @Override
+    protected String getValueForBindingPreferenceView() {
+        if (!isBlobLoading())
+            loadPendingBlob();
+        return withoutPendingHandle(super.getValueForBindingPreferenceView());
+    }
+
+    /** @return Whether the value is a blob whose body hasn't been read into memory yet. */
+    private boolean isBlobLoading() {
+        return pendingBlobHandle != null && !StringBlobStore.getInstance(getContext()).isLoaded(pendingBlobHandle);
+    }
+
+    /** Replaces a handle that is still loading with a placeholder, so it is never shown. */
+    private String withoutPendingHandle(String value) {
+        return value.equals(pendingBlobHandle) ? getBackupDefaultValue() : value;
+    }
+
+    private void loadPendingBlob() {
+        if (pendingBlobHandle != null) {
+            pendingBlobHandle = null;
+            applyPersistedValue();
+        }
+    }
+
+    private void onBlobLoaded(String handle) {
+        if (!handle.equals(pendingBlobHandle))
+            return; // Already loaded on demand, or replaced by a new value.
+        loadPendingBlob();
+        if (getSummaryProvider() != null)
+            notifySummaryChanged();
+        if (editText != null && dialogAwaitingBlob) {
+            dialogAwaitingBlob = false;
+            editText.setEnabled(true);
+            editText.setText(getValue());
+        }
+    }
+
     @Override
     protected void onDialogViewCreated(View view) {
         editText = view.findViewById(R.id.coveprefs_editText);
@@ -125,23 +217,105 @@ public class StringPreference extends BaseDialogPreference<String> {
     @Override
     protected void onBindDialogView(View view) {
         super.onBindDialogView(view);
-        editText.setText(getValueForBindingDialog());
+        dialogAwaitingBlob = isBlobLoading() && pendingBlobHandle.equals(super.getValueForBindingDialog());
+        if (dialogAwaitingBlob) {
+            // The placeholder must not become the dialog's value, or confirming would overwrite the blob with it.
+            editText.removeTextChangedListener(textWatcher);
+            editText.setText(getValueForBindingDialog());
+            editText.addTextChangedListener(textWatcher);
+            editText.setEnabled(false);
+            setInternalPositiveButtonEnabled(false); // Re-enabled when the text is set in onBlobLoaded().
+        } else {
+            editText.setText(getValueForBindingDialog());
+            editText.setEnabled(true);
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveDialogState(Parcelable superState, @Nullable String pendingValue) {
+        // While the blob loads, the dialog has no value of its own. It loads again when restored.
+        return super.onSaveDialogState(superState, dialogAwaitingBlob ? null : pendingValue);
+    }
+
+    @Override
+    protected void onDialogViewReleased() {
+        if (editText != null) {
+            editText.removeTextChangedListener(textWatcher);
+            editText = null;
+        }
+        dialogAwaitingBlob = false;
     }
 
     @Override
     protected void onValueChangedAndCommitted() {
         if (getSummaryProvider() != null)
-            notifyChanged(); // This skips the animation so only notify if necessary.
+            notifySummaryChanged();
     }
 
     @Override
     protected void persistValue(String value) {
-        persistString(value);
+        if (!blobStorage || value == null || value.equals(pendingBlobHandle)) {
+            persistString(value);
+            return;
+        }
+        if (shouldPersist()) {
+            final String key = getKey();
+            final SharedPreferences sharedPreferences = getSharedPreferences(); // Null with a PreferenceDataStore.
+            String currentHandle = getPersistedString(null);
+            StringBlobStore.getInstance(getContext()).write(key, value, currentHandle, new StringBlobStore.HandlePersister() {
+                @Override
+                public boolean persistHandle(@NonNull String handle) {
+                    if (sharedPreferences != null)
+                        return sharedPreferences.edit().putString(key, handle).commit();
+                    return persistStringOnMainThread(handle);
+                }
+            });
+        }
+    }
+
+    /** Persists through the PreferenceDataStore on the main thread, and waits for it. */
+    private boolean persistStringOnMainThread(final String value) {
+        final boolean[] persisted = new boolean[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                persisted[0] = persistString(value);
+                latch.countDown();
+            }
+        });
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return persisted[0];
     }
 
     @Override
     protected String getPersistedValue(String defaultReturnValue) {
-        return getPersistedString(defaultReturnValue);
+        String persisted = getPersistedString(null);
+        if (!blobStorage || !StringBlobStore.isHandle(persisted))
+            return persisted != null ? persisted : defaultReturnValue;
+
+        StringBlobStore blobStore = StringBlobStore.getInstance(getContext());
+        if (super.getValue() == null && !blobStore.isLoaded(persisted)) {
+            // Initial value. Hold the handle while the body loads in the background.
+            final String handle = persisted;
+            pendingBlobHandle = handle;
+            blobStore.prefetch(handle, new Runnable() {
+                @Override
+                public void run() {
+                    onBlobLoaded(handle);
+                }
+            });
+            return handle;
+        }
+        String body = blobStore.read(persisted);
+        if (body == null)
+            return StringBlobStore.isHandle(defaultReturnValue) ? getBackupDefaultValue() : defaultReturnValue;
+        return body;
     }
 
     @Override
@@ -173,7 +347,7 @@ public class StringPreference extends BaseDialogPreference<String> {
 
         @Override
         public CharSequence provideSummary(StringPreference preference) {
-            return preference.getValue();
+            return preference.getValueForBindingPreferenceView();
         }
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ */
+public class BooleanSavedState extends SingleValueSavedState<Boolean> {
+    boolean value;
+
+    public BooleanSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    public BooleanSavedState(Parcel source) {
+        super(source);
+        value = source.readInt() != 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeInt(value ? 1 : 0);
+    }
+
+    public boolean getBoolean() {
+        return value;
+    }
+
+    public void setBoolean(boolean value) {
+        this.value = value;
+    }
+
+    public Boolean getValue() {
+        return value;
+    }
+
+    public void setValue(Boolean value) {
+        this.value = value;
+    }
+
+    public static final Parcelable.Creator<BooleanSavedState> CREATOR =
+            new Parcelable.Creator<BooleanSavedState>() {
+
+                public BooleanSavedState createFromParcel(Parcel in) {
+                    return new BooleanSavedState(in);
+                }
+
+                public BooleanSavedState[] newArray(int size) {
+                    return new BooleanSavedState[size];
+                }
+            };
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ */
+public class FloatSavedState extends SingleValueSavedState<Float> {
+    float value;
+
+    public FloatSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    public FloatSavedState(Parcel source) {
+        super(source);
+        value = source.readFloat();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeFloat(value);
+    }
+
+    public float getFloat() {
+        return value;
+    }
+
+    public void setFloat(float value) {
+        this.value = value;
+    }
+
+    public Float getValue() {
+        return value;
+    }
+
+    public void setValue(Float value) {
+        this.value = value;
+    }
+
+    public static final Parcelable.Creator<FloatSavedState> CREATOR =
+            new Parcelable.Creator<FloatSavedState>() {
+
+                public FloatSavedState createFromParcel(Parcel in) {
+                    return new FloatSavedState(in);
+                }
+
+                public FloatSavedState[] newArray(int size) {
+                    return new FloatSavedState[size];
+                }
+            };
+}
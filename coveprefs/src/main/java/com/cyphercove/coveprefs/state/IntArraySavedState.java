@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ */
+public class IntArraySavedState extends SingleValueSavedState<int[]> {
+    int[] value;
+
+    public IntArraySavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    public IntArraySavedState(Parcel source) {
+        super(source);
+        value = source.createIntArray();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeIntArray(value);
+    }
+
+    public int[] getValue() {
+        return value;
+    }
+
+    public void setValue(int[] value) {
+        this.value = value;
+    }
+
+    public static final Parcelable.Creator<IntArraySavedState> CREATOR =
+            new Parcelable.Creator<IntArraySavedState>() {
+
+                public IntArraySavedState createFromParcel(Parcel in) {
+                    return new IntArraySavedState(in);
+                }
+
+                public IntArraySavedState[] newArray(int size) {
+                    return new IntArraySavedState[size];
+                }
+            };
+}
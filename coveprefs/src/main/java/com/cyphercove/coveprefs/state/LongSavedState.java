@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ */
+public class LongSavedState extends SingleValueSavedState<Long> {
+    long value;
+
+    public LongSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    public LongSavedState(Parcel source) {
+        super(source);
+        value = source.readLong();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeLong(value);
+    }
+
+    public long getLong() {
+        return value;
+    }
+
+    public void setLong(long value) {
+        this.value = value;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public void setValue(Long value) {
+        this.value = value;
+    }
+
+    public static final Parcelable.Creator<LongSavedState> CREATOR =
+            new Parcelable.Creator<LongSavedState>() {
+
+                public LongSavedState createFromParcel(Parcel in) {
+                    return new LongSavedState(in);
+                }
+
+                public LongSavedState[] newArray(int size) {
+                    return new LongSavedState[size];
+                }
+            };
+}
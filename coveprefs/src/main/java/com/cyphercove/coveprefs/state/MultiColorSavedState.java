@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.state;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.preference.Preference;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Saved state of a MultiColorPreference: the value pending in its dialog, if any, together with
+ * the index of the color being edited.
+ */
+public class MultiColorSavedState extends Preference.BaseSavedState {
+    String pendingValue;
+    int activeIndex;
+
+    public MultiColorSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    public MultiColorSavedState(Parcel source) {
+        super(source);
+        pendingValue = source.readString();
+        activeIndex = source.readInt();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeString(pendingValue);
+        dest.writeInt(activeIndex);
+    }
+
+    @Nullable
+    public String getPendingValue() {
+        return pendingValue;
+    }
+
+    public void setPendingValue(@Nullable String pendingValue) {
+        this.pendingValue = pendingValue;
+    }
+
+    public int getActiveIndex() {
+        return activeIndex;
+    }
+
+    public void setActiveIndex(int activeIndex) {
+        this.activeIndex = activeIndex;
+    }
+
+    public static final Parcelable.Creator<MultiColorSavedState> CREATOR =
+            new Parcelable.Creator<MultiColorSavedState>() {
+
+                public MultiColorSavedState createFromParcel(Parcel in) {
+                    return new MultiColorSavedState(in);
+                }
+
+                public MultiColorSavedState[] newArray(int size) {
+                    return new MultiColorSavedState[size];
+                }
+            };
+}
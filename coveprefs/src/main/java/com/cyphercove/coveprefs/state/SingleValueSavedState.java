@@ -19,7 +19,8 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.preference.Preference;
 
-import java.lang.reflect.Constructor;
+import androidx.annotation.NonNull;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,41 +29,98 @@ import java.util.Map;
  */
 public abstract class SingleValueSavedState<T> extends Preference.BaseSavedState {
 
-    private static final Map<Class, Class> DATA_TYPES_TO_STATES_TYPES = new HashMap<>();
-    static {
-        DATA_TYPES_TO_STATES_TYPES.put(Integer.class, IntegerSavedState.class);
-        DATA_TYPES_TO_STATES_TYPES.put(String.class, StringSavedState.class);
+    /**
+     * Creates an empty saved state for a data type.
+     * @param <T> The data type of the save state
+     */
+    public interface Factory<T> {
+        SingleValueSavedState<T> create (Parcelable superState);
     }
 
-    @SuppressWarnings("unchecked")
-    public static <T> SingleValueSavedState<T> create (Parcelable superState, Class<T> dataType){
-        Class<?> stateType = DATA_TYPES_TO_STATES_TYPES.get(dataType);
-        if (stateType == null)
-            throw new RuntimeException("Unsupported data type: " + dataType.getName());
+    private static final class Registration {
+        final Class<?> stateType;
+        final Factory<?> factory;
 
-        try {
-            Constructor<?> constructor = stateType.getConstructor(Parcelable.class);
-            return (SingleValueSavedState<T>)constructor.newInstance(superState);
-        } catch (Exception e ) {
-            throw new RuntimeException("Saved state type: " + stateType.getName() +
-                    " must have a public constructor that takes a Parcelable.", e);
+        Registration (Class<?> stateType, Factory<?> factory){
+            this.stateType = stateType;
+            this.factory = factory;
         }
+    }
+
+    private static final Map<Class<?>, Registration> REGISTRATIONS = new HashMap<>();
+    static {
+        register(Integer.class, IntegerSavedState.class, new Factory<Integer>() {
+            @Override
+            public SingleValueSavedState<Integer> create(Parcelable superState) {
+                return new IntegerSavedState(superState);
+            }
+        });
+        register(String.class, StringSavedState.class, new Factory<String>() {
+            @Override
+            public SingleValueSavedState<String> create(Parcelable superState) {
+                return new StringSavedState(superState);
+            }
+        });
+        register(Float.class, FloatSavedState.class, new Factory<Float>() {
+            @Override
+            public SingleValueSavedState<Float> create(Parcelable superState) {
+                return new FloatSavedState(superState);
+            }
+        });
+        register(Long.class, LongSavedState.class, new Factory<Long>() {
+            @Override
+            public SingleValueSavedState<Long> create(Parcelable superState) {
+                return new LongSavedState(superState);
+            }
+        });
+        register(Boolean.class, BooleanSavedState.class, new Factory<Boolean>() {
+            @Override
+            public SingleValueSavedState<Boolean> create(Parcelable superState) {
+                return new BooleanSavedState(superState);
+            }
+        });
+        register(int[].class, IntArraySavedState.class, new Factory<int[]>() {
+            @Override
+            public SingleValueSavedState<int[]> create(Parcelable superState) {
+                return new IntArraySavedState(superState);
+            }
+        });
+    }
 
+    /**
+     * Registers the saved state used by preferences of a data type, so custom BaseDialogPreference
+     * and BaseInlinePreference subclasses can use data types that are not built in.
+     * @param dataType The data type of the preference.
+     * @param stateType The class of the saved state. It must be a Parcelable with a CREATOR.
+     * @param factory Creates instances of the saved state.
+     */
+    public static synchronized <T> void register (@NonNull Class<T> dataType,
+                                                  @NonNull Class<? extends SingleValueSavedState<T>> stateType,
+                                                  @NonNull Factory<T> factory){
+        REGISTRATIONS.put(dataType, new Registration(stateType, factory));
     }
 
-    public static boolean isOfCorrectType (Parcelable state, Class dataType){
-        Class stateType = DATA_TYPES_TO_STATES_TYPES.get(dataType);
-        if (stateType == null)
+    private static synchronized Registration getRegistration (Class<?> dataType){
+        Registration registration = REGISTRATIONS.get(dataType);
+        if (registration == null)
             throw new RuntimeException("Unsupported data type: " + dataType.getName());
+        return registration;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> SingleValueSavedState<T> create (Parcelable superState, Class<T> dataType){
+        return ((Factory<T>)getRegistration(dataType).factory).create(superState);
+    }
 
-        return state.getClass().equals(stateType);
+    public static boolean isOfCorrectType (Parcelable state, Class<?> dataType){
+        return state.getClass() == getRegistration(dataType).stateType;
     }
 
-    SingleValueSavedState (Parcel source){
+    protected SingleValueSavedState (Parcel source){
         super(source);
     }
 
-    SingleValueSavedState(Parcelable superState) {
+    protected SingleValueSavedState(Parcelable superState) {
         super(superState);
     }
 
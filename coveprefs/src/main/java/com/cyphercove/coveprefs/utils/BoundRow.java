@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.text.TextUtils;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.preference.Preference;
+import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceViewHolder;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.cyphercove.coveprefs.R;
+
+import java.lang.ref.WeakReference;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+/**
+ * Tracks the row a Preference was last bound to, so a change that only affects the summary or the widget
+ * can update those views directly instead of calling {@link Preference#notifyChanged()}, which rebinds the
+ * whole row and cancels any running widget animation.
+ * <p>
+ * The row is only returned while it is still attached and at the Preference's adapter position, so a row
+ * that has been recycled for another Preference is never modified. The row is held through the weak reference
+ * of its {@link PreferenceViewHolderWrapper}, so binding to a different row doesn't allocate.
+ */
+@RestrictTo(LIBRARY_GROUP)
+public final class BoundRow {
+
+    private final Preference preference;
+    private WeakReference<PreferenceViewHolderWrapper> row = new WeakReference<>(null);
+
+    public BoundRow (@NonNull Preference preference){
+        this.preference = preference;
+    }
+
+    /**
+     * Call from {@link Preference#onBindViewHolder(PreferenceViewHolder)}.
+     * @param row The wrapper from {@link PreferenceViewHolderWrapper#of(PreferenceViewHolder)}.
+     */
+    public void onBind (@NonNull PreferenceViewHolderWrapper row){
+        this.row = row.getWeakReference();
+    }
+
+    /**
+     * @return The holder of the row currently showing the Preference, or null if it isn't showing or can't
+     * be verified, for example while the adapter has pending updates.
+     */
+    @Nullable
+    public PreferenceViewHolder get (){
+        PreferenceViewHolderWrapper row = getRow();
+        return row == null ? null : row.getViewHolder();
+    }
+
+    /**
+     * @return The widget of the row currently showing the Preference, or null if it has none, or the row isn't
+     * showing or can't be verified.
+     */
+    @Nullable
+    public View getWidget (){
+        PreferenceViewHolderWrapper row = getRow();
+        return row == null ? null : row.findViewById(R.id.coveprefs_widget);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Nullable
+    private PreferenceViewHolderWrapper getRow (){
+        PreferenceViewHolderWrapper row = this.row.get();
+        if (row == null)
+            return null;
+        PreferenceViewHolder holder = row.getViewHolder();
+        ViewParent parent = holder.itemView.getParent();
+        if (!(parent instanceof RecyclerView))
+            return null;
+        RecyclerView.Adapter<?> adapter = ((RecyclerView)parent).getAdapter();
+        if (!(adapter instanceof PreferenceGroup.PreferencePositionCallback))
+            return null;
+        int position = holder.getAdapterPosition();
+        if (position == RecyclerView.NO_POSITION
+                || ((PreferenceGroup.PreferencePositionCallback)adapter).getPreferenceAdapterPosition(preference) != position)
+            return null;
+        return row;
+    }
+
+    /**
+     * Shows the Preference's current summary in its row, the same way a full bind would.
+     * @return Whether the row was updated. If false, the caller should fall back to a full rebind.
+     */
+    public boolean updateSummary (){
+        PreferenceViewHolder holder = get();
+        if (holder == null)
+            return false;
+        View view = holder.findViewById(android.R.id.summary);
+        if (!(view instanceof TextView))
+            return false;
+        TextView summaryView = (TextView)view;
+        CharSequence summary = preference.getSummary();
+        if (TextUtils.isEmpty(summary)) {
+            summaryView.setVisibility(View.GONE);
+        } else {
+            summaryView.setText(summary);
+            summaryView.setVisibility(View.VISIBLE);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+/**
+ * Color space conversions that don't allocate or cross JNI, for use in per-frame and per-touch code.
+ * <p>
+ * The HSV conversions follow Skia's {@code SkRGBToHSV} and {@code SkHSVToColor} step for step in single precision, so
+ * they give the same results as {@link android.graphics.Color#colorToHSV(int, float[])} and
+ * {@link android.graphics.Color#HSVToColor(float[])}. The HSL conversions follow
+ * {@code androidx.core.graphics.ColorUtils}.
+ */
+@RestrictTo(LIBRARY_GROUP)
+public final class ColorMath {
+    private ColorMath (){
+    }
+
+    private static final float NEARLY_ZERO = 1f / (1 << 12);
+
+    /**
+     * Converts a color to hue, saturation and value.
+     * @param color The color. Alpha is ignored.
+     * @param hsvOut An array to write the hue [0, 360), saturation [0, 1] and value [0, 1] into.
+     * @param offset The index in hsvOut to start writing at.
+     */
+    public static void colorToHSV (@ColorInt int color, float[] hsvOut, int offset){
+        int r = (color >> 16) & 0xFF;
+        int g = (color >> 8) & 0xFF;
+        int b = color & 0xFF;
+        int max = Math.max(r, Math.max(g, b));
+        int min = Math.min(r, Math.min(g, b));
+        int delta = max - min;
+        float v = max / 255f;
+        if (delta == 0) {
+            hsvOut[offset] = 0f;
+            hsvOut[offset + 1] = 0f;
+            hsvOut[offset + 2] = v;
+            return;
+        }
+        float s = (float)delta / max;
+        float h;
+        if (r == max)
+            h = (float)(g - b) / delta;
+        else if (g == max)
+            h = 2f + (float)(b - r) / delta;
+        else
+            h = 4f + (float)(r - g) / delta;
+        h *= 60f;
+        if (h < 0f)
+            h += 360f;
+        hsvOut[offset] = h;
+        hsvOut[offset + 1] = s;
+        hsvOut[offset + 2] = v;
+    }
+
+    public static void colorToHSV (@ColorInt int color, float[] hsvOut){
+        colorToHSV(color, hsvOut, 0);
+    }
+
+    /**
+     * Converts a run of colors to hue, saturation and value triples.
+     * @param hsvOut Receives three values per color, starting at hsvOffset.
+     */
+    public static void colorsToHSV (int[] colors, int colorOffset, float[] hsvOut, int hsvOffset, int count){
+        for (int i = 0; i < count; i++) {
+            colorToHSV(colors[colorOffset + i], hsvOut, hsvOffset + i * 3);
+        }
+    }
+
+    /** @return The hue of the color, the same as {@link #colorToHSV(int, float[])} would give. */
+    public static float hue (@ColorInt int color){
+        int r = (color >> 16) & 0xFF;
+        int g = (color >> 8) & 0xFF;
+        int b = color & 0xFF;
+        int max = Math.max(r, Math.max(g, b));
+        int delta = max - Math.min(r, Math.min(g, b));
+        if (delta == 0)
+            return 0f;
+        float h;
+        if (r == max)
+            h = (float)(g - b) / delta;
+        else if (g == max)
+            h = 2f + (float)(b - r) / delta;
+        else
+            h = 4f + (float)(r - g) / delta;
+        h *= 60f;
+        return h < 0f ? h + 360f : h;
+    }
+
+    /** @return The value (brightness) of the color, the same as {@link #colorToHSV(int, float[])} would give. */
+    public static float value (@ColorInt int color){
+        int r = (color >> 16) & 0xFF;
+        int g = (color >> 8) & 0xFF;
+        int b = color & 0xFF;
+        return Math.max(r, Math.max(g, b)) / 255f;
+    }
+
+    /**
+     * Converts hue, saturation and value to a color. Saturation and value are clamped to [0, 1], and a hue outside
+     * [0, 360) is treated as 0.
+     * @param alpha The alpha of the returned color, [0, 255].
+     */
+    @ColorInt
+    public static int HSVToColor (int alpha, float hue, float saturation, float value){
+        float s = saturation < 0f ? 0f : (saturation > 1f ? 1f : saturation);
+        float v = value < 0f ? 0f : (value > 1f ? 1f : value);
+        int vByte = round(v * 255f);
+        if (s <= NEARLY_ZERO)
+            return (alpha << 24) | (vByte << 16) | (vByte << 8) | vByte;
+
+        float hx = (hue < 0f || hue >= 360f) ? 0f : hue / 60f;
+        float w = (float)Math.floor(hx);
+        float f = hx - w;
+        int p = round((1f - s) * v * 255f);
+        int q = round((1f - (s * f)) * v * 255f);
+        int t = round((1f - (s * (1f - f))) * v * 255f);
+        int r, g, b;
+        switch ((int)w) {
+            case 0: r = vByte; g = t; b = p; break;
+            case 1: r = q; g = vByte; b = p; break;
+            case 2: r = p; g = vByte; b = t; break;
+            case 3: r = p; g = q; b = vByte; break;
+            case 4: r = t; g = p; b = vByte; break;
+            default: r = vByte; g = p; b = q; break;
+        }
+        return (alpha << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /** Converts hue, saturation and value to an opaque color. */
+    @ColorInt
+    public static int HSVToColor (float hue, float saturation, float value){
+        return HSVToColor(0xFF, hue, saturation, value);
+    }
+
+    /** Converts the hue, saturation and value triple at the offset to an opaque color. */
+    @ColorInt
+    public static int HSVToColor (float[] hsv, int offset){
+        return HSVToColor(0xFF, hsv[offset], hsv[offset + 1], hsv[offset + 2]);
+    }
+
+    /**
+     * Converts a run of hue, saturation and value triples to opaque colors.
+     * @param hsv Three values per color, starting at hsvOffset.
+     */
+    public static void HSVToColors (float[] hsv, int hsvOffset, int[] colorsOut, int colorOffset, int count){
+        for (int i = 0; i < count; i++) {
+            colorsOut[colorOffset + i] = HSVToColor(hsv, hsvOffset + i * 3);
+        }
+    }
+
+    /**
+     * Converts a color to hue, saturation and lightness.
+     * @param color The color. Alpha is ignored.
+     * @param hslOut An array to write the hue [0, 360), saturation [0, 1] and lightness [0, 1] into.
+     * @param offset The index in hslOut to start writing at.
+     */
+    public static void colorToHSL (@ColorInt int color, float[] hslOut, int offset){
+        float rf = ((color >> 16) & 0xFF) / 255f;
+        float gf = ((color >> 8) & 0xFF) / 255f;
+        float bf = (color & 0xFF) / 255f;
+        float max = Math.max(rf, Math.max(gf, bf));
+        float min = Math.min(rf, Math.min(gf, bf));
+        float delta = max - min;
+        float l = (max + min) / 2f;
+        float h, s;
+        if (max == min) {
+            h = s = 0f;
+        } else {
+            if (max == rf)
+                h = ((gf - bf) / delta) % 6f;
+            else if (max == gf)
+                h = ((bf - rf) / delta) + 2f;
+            else
+                h = ((rf - gf) / delta) + 4f;
+            s = delta / (1f - Math.abs(2f * l - 1f));
+        }
+        h = (h * 60f) % 360f;
+        if (h < 0f)
+            h += 360f;
+        hslOut[offset] = clamp(h, 0f, 360f);
+        hslOut[offset + 1] = clamp(s, 0f, 1f);
+        hslOut[offset + 2] = clamp(l, 0f, 1f);
+    }
+
+    public static void colorToHSL (@ColorInt int color, float[] hslOut){
+        colorToHSL(color, hslOut, 0);
+    }
+
+    /** Converts hue, saturation and lightness to an opaque color. */
+    @ColorInt
+    public static int HSLToColor (float hue, float saturation, float lightness){
+        float c = (1f - Math.abs(2 * lightness - 1f)) * saturation;
+        float m = lightness - 0.5f * c;
+        float x = c * (1f - Math.abs((hue / 60f % 2f) - 1f));
+        int r, g, b;
+        switch ((int)hue / 60) {
+            case 0: r = Math.round(255 * (c + m)); g = Math.round(255 * (x + m)); b = Math.round(255 * m); break;
+            case 1: r = Math.round(255 * (x + m)); g = Math.round(255 * (c + m)); b = Math.round(255 * m); break;
+            case 2: r = Math.round(255 * m); g = Math.round(255 * (c + m)); b = Math.round(255 * (x + m)); break;
+            case 3: r = Math.round(255 * m); g = Math.round(255 * (x + m)); b = Math.round(255 * (c + m)); break;
+            case 4: r = Math.round(255 * (x + m)); g = Math.round(255 * m); b = Math.round(255 * (c + m)); break;
+            case 5:
+            case 6: r = Math.round(255 * (c + m)); g = Math.round(255 * m); b = Math.round(255 * (x + m)); break;
+            default: r = g = b = 0; break;
+        }
+        return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    /** Converts the hue, saturation and lightness triple at the offset to an opaque color. */
+    @ColorInt
+    public static int HSLToColor (float[] hsl, int offset){
+        return HSLToColor(hsl[offset], hsl[offset + 1], hsl[offset + 2]);
+    }
+
+    /** Rounds the way Skia's {@code SkScalarRoundToInt} does. */
+    private static int round (float x){
+        return (int)Math.floor(x + 0.5f);
+    }
+
+    private static float clamp (float x, float min, float max){
+        return x < min ? min : (x > max ? max : x);
+    }
+
+    private static int clamp (int channel){
+        return channel < 0 ? 0 : (channel > 255 ? 255 : channel);
+    }
+}
@@ -139,9 +139,7 @@ public final class CovePrefsUtils {
     public static void setContrastingShadow(TextView textView, float radiusPx){
         ColorStateList colorStateList = textView.getTextColors();
         int enabledColor = colorStateList.getColorForState(new int[]{android.R.attr.state_enabled}, 0xFF808080);
-        float[] hsv = new float[3];
-        Color.colorToHSV(enabledColor, hsv);
-        int contrastColor = hsv[2] > 0.5f ? Color.BLACK : Color.WHITE;
+        int contrastColor = ColorMath.value(enabledColor) > 0.5f ? Color.BLACK : Color.WHITE;
         setShadow(textView, contrastColor, radiusPx);
     }
 
@@ -159,12 +157,23 @@ public final class CovePrefsUtils {
     @SuppressWarnings("WeakerAccess")
     public static class Curve {
 
+        /** The curve of {@link android.view.animation.AccelerateDecelerateInterpolator}, ValueAnimator's default. */
+        public static float accelerateDecelerate (float fraction) {
+            return (float)(Math.cos((fraction + 1) * Math.PI) / 2.0) + 0.5f;
+        }
+
         public static float smoothStep (float fraction) {
             return fraction * fraction * (3 - 2 * fraction);
         }
 
+        /** Same as {@code slowInSlowOut(fraction, 3)}, without {@link Math#pow(double, double)}. */
         public static float slowInSlowOut (float fraction) {
-            return slowInSlowOut(fraction, 3);
+            if (fraction <= 0.5f) {
+                float x = fraction * 2;
+                return x * x / 2;
+            }
+            float x = (fraction - 1) * 2;
+            return x * x * x / 2 + 1;
         }
 
         public static float slowInSlowOut (float fraction, float power){
@@ -173,7 +182,7 @@ public final class CovePrefsUtils {
         }
 
         public static float slowInFastOut (float fraction){
-            return slowInFastOut(fraction, 3);
+            return fraction * fraction * fraction;
         }
 
         public static float slowInFastOut (float fraction, float power){
@@ -181,7 +190,8 @@ public final class CovePrefsUtils {
         }
 
         public static float fastInSlowOut (float fraction){
-            return fastInSlowOut(fraction, 3);
+            float x = fraction - 1;
+            return x * x * x + 1;
         }
 
         public static float fastInSlowOut (float fraction, float power){
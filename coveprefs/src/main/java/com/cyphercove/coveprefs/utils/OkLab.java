@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+/**
+ * Conversions between sRGB colors and Bjorn Ottosson's OKLab / OKLCH perceptual color space. The sRGB transfer
+ * functions and the cube root are read from lookup tables, so whole planes of colors can be converted cheaply.
+ * Thread safe.
+ * <p>
+ * Lightness is in [0, 1], chroma is roughly [0, 0.33] for sRGB colors, and hue is in degrees [0, 360).
+ */
+@RestrictTo(LIBRARY_GROUP)
+public final class OkLab {
+    private OkLab (){
+    }
+
+    private static final int LINEAR_TO_SRGB_SIZE = 4096;
+    private static final int CBRT_SIZE = 1024;
+    /** Below this, the cube root is too steep to interpolate from the table. */
+    static final float CBRT_TABLE_MIN = 8f / CBRT_SIZE;
+    private static final float GAMUT_EPSILON = 1e-4f;
+    private static final float ACHROMATIC_CHROMA = 1e-4f;
+    private static final float MAX_SEARCH_CHROMA = 0.4f;
+    private static final int CHROMA_SEARCH_STEPS = 12;
+
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+    private static final byte[] LINEAR_TO_SRGB = new byte[LINEAR_TO_SRGB_SIZE + 1];
+    private static final float[] CBRT = new float[CBRT_SIZE + 1];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            double c = i / 255.0;
+            SRGB_TO_LINEAR[i] = (float)(c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+        }
+        for (int i = 0; i < LINEAR_TO_SRGB.length; i++) {
+            double l = (double)i / LINEAR_TO_SRGB_SIZE;
+            double c = l <= 0.0031308 ? l * 12.92 : 1.055 * Math.pow(l, 1 / 2.4) - 0.055;
+            LINEAR_TO_SRGB[i] = (byte)Math.round(c * 255);
+        }
+        for (int i = 0; i < CBRT.length; i++) {
+            CBRT[i] = (float)Math.cbrt((double)i / CBRT_SIZE);
+        }
+    }
+
+    /** @return The linear value of an 8-bit sRGB channel. */
+    public static float srgbToLinear (int channel){
+        return SRGB_TO_LINEAR[channel & 0xFF];
+    }
+
+    /** @return The 8-bit sRGB channel for a linear value, which is clamped to [0, 1]. */
+    public static int linearToSrgb (float linear){
+        if (!(linear > 0f))
+            return 0;
+        if (linear >= 1f)
+            return 255;
+        return LINEAR_TO_SRGB[(int)(linear * LINEAR_TO_SRGB_SIZE + 0.5f)] & 0xFF;
+    }
+
+    /** @return The cube root of x, which must be in [0, 1]. */
+    public static float cbrt (float x){
+        if (x < CBRT_TABLE_MIN)
+            return (float)Math.cbrt(x);
+        if (x >= 1f)
+            return 1f;
+        float position = x * CBRT_SIZE;
+        int index = (int)position;
+        float fraction = position - index;
+        return CBRT[index] + (CBRT[index + 1] - CBRT[index]) * fraction;
+    }
+
+    /**
+     * Converts a color to OKLab.
+     * @param color The color. Alpha is ignored.
+     * @param labOut An array to write lightness, a and b into.
+     * @param offset The index in labOut to start writing at.
+     */
+    public static void colorToOklab (@ColorInt int color, float[] labOut, int offset){
+        float r = SRGB_TO_LINEAR[(color >> 16) & 0xFF];
+        float g = SRGB_TO_LINEAR[(color >> 8) & 0xFF];
+        float b = SRGB_TO_LINEAR[color & 0xFF];
+
+        float l = cbrt(0.4122214708f * r + 0.5363325363f * g + 0.0514459929f * b);
+        float m = cbrt(0.2119034982f * r + 0.6806995451f * g + 0.1073969566f * b);
+        float s = cbrt(0.0883024619f * r + 0.2817188376f * g + 0.6299787005f * b);
+
+        labOut[offset] = 0.2104542553f * l + 0.7936177850f * m - 0.0040720468f * s;
+        labOut[offset + 1] = 1.9779984951f * l - 2.4285922050f * m + 0.4505937099f * s;
+        labOut[offset + 2] = 0.0259040371f * l + 0.7827717662f * m - 0.8086757660f * s;
+    }
+
+    /**
+     * Converts a color to OKLCH. Grays get a chroma and hue of exactly 0.
+     * @param color The color. Alpha is ignored.
+     * @param lchOut An array to write lightness, chroma and hue into.
+     * @param offset The index in lchOut to start writing at.
+     */
+    public static void colorToOklch (@ColorInt int color, float[] lchOut, int offset){
+        colorToOklab(color, lchOut, offset);
+        float a = lchOut[offset + 1];
+        float b = lchOut[offset + 2];
+        float chroma = (float)Math.sqrt(a * a + b * b);
+        if (chroma < ACHROMATIC_CHROMA) {
+            lchOut[offset + 1] = 0f;
+            lchOut[offset + 2] = 0f;
+            return;
+        }
+        float hue = (float)Math.toDegrees(Math.atan2(b, a));
+        if (hue < 0f)
+            hue += 360f;
+        lchOut[offset + 1] = chroma;
+        lchOut[offset + 2] = hue >= 360f ? 0f : hue;
+    }
+
+    /**
+     * Converts an OKLab color to an opaque sRGB color. Out of gamut channels are clamped, so the color should be in
+     * gamut for an accurate result.
+     */
+    @ColorInt
+    public static int oklabToColor (float lightness, float a, float b){
+        float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        int red = linearToSrgb(4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s);
+        int green = linearToSrgb(-1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s);
+        int blue = linearToSrgb(-0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s);
+        return 0xFF000000 | (red << 16) | (green << 8) | blue;
+    }
+
+    /**
+     * Converts an OKLCH color to an opaque sRGB color. If it is outside the sRGB gamut, its chroma is reduced until it
+     * fits, keeping its lightness and hue.
+     */
+    @ColorInt
+    public static int oklchToColor (float lightness, float chroma, float hue){
+        double radians = Math.toRadians(hue);
+        float cosHue = (float)Math.cos(radians);
+        float sinHue = (float)Math.sin(radians);
+        if (!isInGamut(lightness, chroma * cosHue, chroma * sinHue))
+            chroma = maxChroma(lightness, cosHue, sinHue);
+        return oklabToColor(lightness, chroma * cosHue, chroma * sinHue);
+    }
+
+    /** @return Whether the OKLab color can be shown in sRGB. */
+    public static boolean isInGamut (float lightness, float a, float b){
+        float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+        float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+        float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        return isUnit(4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s)
+                && isUnit(-1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s)
+                && isUnit(-0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s);
+    }
+
+    /**
+     * Finds the highest chroma that stays in the sRGB gamut at a lightness and hue. The hue is passed as its cosine and
+     * sine so callers converting many colors of one hue only compute them once.
+     */
+    public static float maxChroma (float lightness, float cosHue, float sinHue){
+        if (lightness <= 0f || lightness >= 1f)
+            return 0f;
+        float low = 0f, high = MAX_SEARCH_CHROMA;
+        for (int i = 0; i < CHROMA_SEARCH_STEPS; i++) {
+            float mid = (low + high) * 0.5f;
+            if (isInGamut(lightness, mid * cosHue, mid * sinHue))
+                low = mid;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static boolean isUnit (float x){
+        return x >= -GAMUT_EPSILON && x <= 1f + GAMUT_EPSILON;
+    }
+}
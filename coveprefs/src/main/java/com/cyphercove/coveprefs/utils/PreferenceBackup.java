@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Exports all values of a SharedPreferences store to a compact binary stream, and imports them
+ * back in a single batch. Each value is written with a type tag, so colors, MultiColor Strings,
+ * angles and any other preference values are restored with their original types. The stream ends
+ * with a CRC32 checksum, and an import is only applied if the checksum matches.
+ * <p>
+ * Values of StringPreferences in blob storage mode are exported as their Strings rather than as
+ * their handles, and are stored as blobs again when imported. Blobs that can't be read are left
+ * out of the export.
+ * <p>
+ * The methods do blocking I/O and should not be called on the main thread. Streams are buffered
+ * internally, and are not closed. An import may read past the end of the backup in an
+ * InputStream, so the rest of the stream should not be used afterwards. A FileChannel is left
+ * positioned right after the backup.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PreferenceBackup {
+    private PreferenceBackup() {}
+
+    private static final int MAGIC = 0x43505246; // "CPRF"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte TAG_INT = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_FLOAT = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_STRING_SET = 6;
+    private static final byte TAG_BLOB_STRING = 7;
+
+    /**
+     * Writes all values of the SharedPreferences to the stream.
+     * @param context A Context, used to read StringPreference blobs.
+     * @param sharedPreferences The store to export.
+     * @param outputStream The destination.
+     * @return The number of values written.
+     * @throws IOException If writing to the stream fails.
+     */
+    @SuppressWarnings("unchecked")
+    public static int export (@NonNull Context context, @NonNull SharedPreferences sharedPreferences,
+                              @NonNull OutputStream outputStream) throws IOException {
+        Map<String, ?> all = sharedPreferences.getAll();
+        // Blobs are resolved up front, because unreadable ones are left out of the count.
+        HashMap<String, String> blobs = new HashMap<>();
+        int count = 0;
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String && StringBlobStore.isHandle((String)value)) {
+                String body = StringBlobStore.readValue(context, (String)value);
+                if (body == null)
+                    continue;
+                blobs.put(entry.getKey(), body);
+            }
+            count++;
+        }
+
+        CRC32 crc = new CRC32();
+        BufferedOutputStream bufferedStream = new BufferedOutputStream(outputStream, 16 * 1024);
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bufferedStream, crc));
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(count);
+        for (Map.Entry<String, ?> entry : all.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof String && StringBlobStore.isHandle((String)value)) {
+                String body = blobs.get(entry.getKey());
+                if (body == null)
+                    continue;
+                out.writeByte(TAG_BLOB_STRING);
+                writeString(out, entry.getKey());
+                writeString(out, body);
+            } else if (value instanceof Integer) {
+                out.writeByte(TAG_INT);
+                writeString(out, entry.getKey());
+                out.writeInt((Integer)value);
+            } else if (value instanceof Long) {
+                out.writeByte(TAG_LONG);
+                writeString(out, entry.getKey());
+                out.writeLong((Long)value);
+            } else if (value instanceof Float) {
+                out.writeByte(TAG_FLOAT);
+                writeString(out, entry.getKey());
+                out.writeFloat((Float)value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(TAG_BOOLEAN);
+                writeString(out, entry.getKey());
+                out.writeBoolean((Boolean)value);
+            } else if (value instanceof String) {
+                out.writeByte(TAG_STRING);
+                writeString(out, entry.getKey());
+                writeString(out, (String)value);
+            } else if (value instanceof Set) {
+                Set<String> set = (Set<String>)value;
+                out.writeByte(TAG_STRING_SET);
+                writeString(out, entry.getKey());
+                out.writeInt(set.size());
+                for (String element : set)
+                    writeString(out, element);
+            } else {
+                throw new IOException("Unsupported value type for key " + entry.getKey());
+            }
+        }
+        out.flush();
+        // The checksum itself is written past the checked stream.
+        new DataOutputStream(bufferedStream).writeInt((int)crc.getValue());
+        bufferedStream.flush();
+        return count;
+    }
+
+    /**
+     * Writes all values of the SharedPreferences to a channel, such as a FileChannel.
+     * @see #export(Context, SharedPreferences, OutputStream)
+     */
+    public static int export (@NonNull Context context, @NonNull SharedPreferences sharedPreferences,
+                              @NonNull WritableByteChannel channel) throws IOException {
+        return export(context, sharedPreferences, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Reads values written by {@link #export(Context, SharedPreferences, OutputStream)} and commits
+     * them to the SharedPreferences in a single batch. Nothing is changed unless the whole backup is
+     * read successfully and its checksum matches. The stream may be read past the end of the backup.
+     * @param context A Context, used to store StringPreference blobs.
+     * @param sharedPreferences The store to import into.
+     * @param inputStream The source.
+     * @param clearExisting Whether to remove all existing values that are not in the stream.
+     * @return The number of values imported.
+     * @throws IOException If reading fails, the data is corrupt, or the values cannot be committed.
+     */
+    public static int importInto (@NonNull Context context, @NonNull SharedPreferences sharedPreferences,
+                                  @NonNull InputStream inputStream, boolean clearExisting) throws IOException {
+        return importInto(context, sharedPreferences, bufferedCountingStream(inputStream), clearExisting);
+    }
+
+    /** Wraps the stream in a buffer. What is counted is read from the buffer, not from the stream. */
+    private static CountingInputStream bufferedCountingStream (InputStream inputStream){
+        return new CountingInputStream(new BufferedInputStream(inputStream, 16 * 1024));
+    }
+
+    private static int importInto (Context context, SharedPreferences sharedPreferences,
+                                   CountingInputStream bufferedStream, boolean clearExisting) throws IOException {
+        CRC32 crc = new CRC32();
+        DataInputStream in = new DataInputStream(new CheckedInputStream(bufferedStream, crc));
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a preference backup.");
+        int formatVersion = in.readUnsignedByte();
+        if (formatVersion != FORMAT_VERSION)
+            throw new IOException("Unsupported preference backup version " + formatVersion);
+
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        if (clearExisting)
+            editor.clear();
+        // Blob files are only written once the checksum is verified.
+        ArrayList<String> blobKeysAndBodies = new ArrayList<>();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte tag = in.readByte();
+            String key = readString(in);
+            switch (tag) {
+                case TAG_INT:
+                    editor.putInt(key, in.readInt());
+                    break;
+                case TAG_LONG:
+                    editor.putLong(key, in.readLong());
+                    break;
+                case TAG_FLOAT:
+                    editor.putFloat(key, in.readFloat());
+                    break;
+                case TAG_BOOLEAN:
+                    editor.putBoolean(key, in.readBoolean());
+                    break;
+                case TAG_STRING:
+                    editor.putString(key, readString(in));
+                    break;
+                case TAG_STRING_SET:
+                    int size = in.readInt();
+                    if (size < 0)
+                        throw new IOException("Corrupt preference backup.");
+                    Set<String> set = new HashSet<>();
+                    for (int j = 0; j < size; j++)
+                        set.add(readString(in));
+                    editor.putStringSet(key, set);
+                    break;
+                case TAG_BLOB_STRING:
+                    blobKeysAndBodies.add(key);
+                    blobKeysAndBodies.add(readString(in));
+                    break;
+                default:
+                    throw new IOException("Corrupt preference backup.");
+            }
+        }
+
+        int expectedChecksum = (int)crc.getValue();
+        if (new DataInputStream(bufferedStream).readInt() != expectedChecksum)
+            throw new IOException("Preference backup checksum does not match.");
+
+        // Blob files are written before the handles are committed, so a committed handle always has its file.
+        StringBlobStore blobStore = StringBlobStore.getInstance(context);
+        Map<String, ?> existing = sharedPreferences.getAll();
+        ArrayList<String> previousHandles = new ArrayList<>();
+        ArrayList<String> newHandles = new ArrayList<>();
+        for (int i = 0; i < blobKeysAndBodies.size(); i += 2) {
+            String key = blobKeysAndBodies.get(i);
+            String handle = blobStore.writeNow(key, blobKeysAndBodies.get(i + 1));
+            newHandles.add(handle);
+            editor.putString(key, handle);
+            Object current = existing.get(key);
+            if (current instanceof String && !handle.equals(current))
+                previousHandles.add((String)current);
+        }
+        if (!editor.commit()) {
+            for (String handle : newHandles) {
+                if (!existing.containsValue(handle))
+                    blobStore.discard(handle);
+            }
+            throw new IOException("Failed to commit imported preferences.");
+        }
+        for (String handle : previousHandles)
+            blobStore.discard(handle);
+        return count;
+    }
+
+    /**
+     * Reads values from a channel, such as a FileChannel. A FileChannel is left positioned right
+     * after the backup, even if the import fails.
+     * @see #importInto(Context, SharedPreferences, InputStream, boolean)
+     */
+    public static int importInto (@NonNull Context context, @NonNull SharedPreferences sharedPreferences,
+                                  @NonNull ReadableByteChannel channel, boolean clearExisting) throws IOException {
+        CountingInputStream bufferedStream = bufferedCountingStream(Channels.newInputStream(channel));
+        if (!(channel instanceof FileChannel))
+            return importInto(context, sharedPreferences, bufferedStream, clearExisting);
+        // The buffer may have read further, but the backup ends after what was taken from it.
+        FileChannel fileChannel = (FileChannel)channel;
+        long start = fileChannel.position();
+        try {
+            return importInto(context, sharedPreferences, bufferedStream, clearExisting);
+        } finally {
+            fileChannel.position(start + bufferedStream.count);
+        }
+    }
+
+    private static void writeString (DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream (InputStream in){
+            super(in);
+        }
+
+        @Override
+        public int read () throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read (byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip (long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported (){
+            return false;
+        }
+    }
+
+    private static String readString (DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES)
+            throw new IOException("Corrupt preference backup.");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.Preference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Upgrades persisted preference values when their format changes between versions of an app or
+ * of this library.
+ * <p>
+ * Keys are registered by the type of Preference that owns them, and each {@link ValueMigration}
+ * upgrades the values of one Preference type to a given schema version. The schema version of the
+ * whole SharedPreferences store is recorded under {@link #SCHEMA_VERSION_KEY} in the same commit as
+ * the migrated values, so a store is never left partially migrated and an up-to-date store costs a
+ * single integer read the first time it is checked, and nothing after that.
+ * <p>
+ * Call {@link #migrateInBackground(Runnable)} at startup, or {@link #ensureMigrated()} before the
+ * first read of the values. Both can be used together; the migration only runs once.
+ */
+@SuppressWarnings("WeakerAccess")
+public class PreferenceMigrator {
+
+    private static final String TAG = "PreferenceMigrator";
+
+    /** The key under which the schema version of the store is persisted. */
+    public static final String SCHEMA_VERSION_KEY = "coveprefs_schemaVersion";
+
+    /**
+     * Upgrades a single persisted value.
+     */
+    public interface ValueMigration {
+        /**
+         * @param key The preference key.
+         * @param value The persisted value in the format of the previous schema version.
+         * @return The value in the new format, or null to remove the key. Must be a type
+         * SharedPreferences can store.
+         */
+        @Nullable
+        Object migrate (@NonNull String key, @NonNull Object value);
+    }
+
+    private static class Step {
+        final int version;
+        final Class<? extends Preference> preferenceType;
+        final ValueMigration migration;
+
+        Step (int version, Class<? extends Preference> preferenceType, ValueMigration migration){
+            this.version = version;
+            this.preferenceType = preferenceType;
+            this.migration = migration;
+        }
+    }
+
+    private final SharedPreferences sharedPreferences;
+    private final int schemaVersion;
+    private final HashMap<Class<? extends Preference>, ArrayList<String>> keysByType = new HashMap<>();
+    private final ArrayList<Step> steps = new ArrayList<>();
+    private final Object lock = new Object();
+    private volatile boolean migrated;
+
+    /**
+     * @param sharedPreferences The store to migrate.
+     * @param schemaVersion The current schema version. A store without a recorded version is treated
+     *                      as version 0.
+     */
+    public PreferenceMigrator (@NonNull SharedPreferences sharedPreferences, int schemaVersion){
+        this.sharedPreferences = sharedPreferences;
+        this.schemaVersion = schemaVersion;
+    }
+
+    /**
+     * Registers keys owned by Preferences of the given type.
+     * @param preferenceType The type of Preference, for example {@code MultiColorPreference.class}.
+     * @param keys The keys of the Preferences of that type.
+     */
+    public void addKeys (@NonNull Class<? extends Preference> preferenceType, @NonNull String... keys){
+        ArrayList<String> typeKeys = keysByType.get(preferenceType);
+        if (typeKeys == null){
+            typeKeys = new ArrayList<>();
+            keysByType.put(preferenceType, typeKeys);
+        }
+        typeKeys.addAll(Arrays.asList(keys));
+    }
+
+    /**
+     * Registers a migration that upgrades values of the given Preference type from
+     * {@code version - 1} to {@code version}. Migrations run in order of version, and migrations
+     * with the same version run in the order they were added.
+     * @param version The schema version the migration upgrades to. Must be between 1 and the
+     *                current schema version.
+     * @param preferenceType The type of Preference whose values are migrated.
+     * @param migration The migration.
+     */
+    public void addMigration (int version, @NonNull Class<? extends Preference> preferenceType, @NonNull ValueMigration migration){
+        if (version < 1 || version > schemaVersion)
+            throw new IllegalArgumentException("Migration version " + version + " is outside the schema range 1 to " + schemaVersion);
+        steps.add(new Step(version, preferenceType, migration));
+    }
+
+    /**
+     * @return Whether the store is known to be at the current schema version. False until it has
+     * been checked by {@link #ensureMigrated()} or {@link #migrateInBackground(Runnable)}.
+     */
+    public boolean isMigrated (){
+        return migrated;
+    }
+
+    /**
+     * Migrates the store on the calling thread if it has not been migrated yet. If a background
+     * migration is in progress, waits for it to finish. Returns immediately once the store is
+     * migrated.
+     */
+    public void ensureMigrated (){
+        if (!migrated)
+            migrate(false);
+    }
+
+    /**
+     * Migrates the store on a background thread if it has not been migrated yet, and writes the
+     * result to disk synchronously on that thread. If the write fails, the store is not marked as
+     * migrated, and the next call migrates it again.
+     * @param onComplete Optional callback posted to the main thread when the migration finishes.
+     */
+    public void migrateInBackground (@Nullable final Runnable onComplete){
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        if (migrated){
+            if (onComplete != null)
+                mainHandler.post(onComplete);
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                migrate(true);
+                if (onComplete != null)
+                    mainHandler.post(onComplete);
+            }
+        }, TAG);
+        thread.start();
+    }
+
+    private void migrate (boolean writeSynchronously){
+        synchronized (lock){
+            if (migrated)
+                return;
+            int storedVersion = sharedPreferences.getInt(SCHEMA_VERSION_KEY, 0);
+            if (storedVersion >= schemaVersion){
+                migrated = true;
+                return;
+            }
+
+            ArrayList<Step> pendingSteps = new ArrayList<>();
+            for (Step step : steps){
+                if (step.version > storedVersion)
+                    pendingSteps.add(step);
+            }
+            Collections.sort(pendingSteps, new Comparator<Step>() { // stable, so insertion order is kept
+                @Override
+                public int compare(Step a, Step b) {
+                    return a.version < b.version ? -1 : (a.version == b.version ? 0 : 1);
+                }
+            });
+
+            Map<String, ?> persisted = sharedPreferences.getAll();
+            HashMap<String, Object> changedValues = new HashMap<>();
+            for (Step step : pendingSteps){
+                ArrayList<String> keys = keysByType.get(step.preferenceType);
+                if (keys == null)
+                    continue;
+                for (String key : keys){
+                    Object value = changedValues.containsKey(key) ? changedValues.get(key) : persisted.get(key);
+                    if (value != null)
+                        changedValues.put(key, step.migration.migrate(key, value));
+                }
+            }
+
+            SharedPreferences.Editor editor = sharedPreferences.edit();
+            for (Map.Entry<String, Object> entry : changedValues.entrySet()){
+                putValue(editor, entry.getKey(), entry.getValue());
+            }
+            editor.putInt(SCHEMA_VERSION_KEY, schemaVersion);
+            if (writeSynchronously){
+                if (!editor.commit()){
+                    Log.e(TAG, "Failed to write migrated preferences to disk.");
+                    return;
+                }
+            } else {
+                editor.apply();
+            }
+            migrated = true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putValue (SharedPreferences.Editor editor, String key, Object value){
+        if (value == null)
+            editor.remove(key);
+        else if (value instanceof Integer)
+            editor.putInt(key, (Integer)value);
+        else if (value instanceof String)
+            editor.putString(key, (String)value);
+        else if (value instanceof Boolean)
+            editor.putBoolean(key, (Boolean)value);
+        else if (value instanceof Float)
+            editor.putFloat(key, (Float)value);
+        else if (value instanceof Long)
+            editor.putLong(key, (Long)value);
+        else if (value instanceof Set)
+            editor.putStringSet(key, (Set<String>)value);
+        else
+            throw new IllegalArgumentException("Migrated value for key " + key + " has unsupported type " + value.getClass().getName());
+    }
+}
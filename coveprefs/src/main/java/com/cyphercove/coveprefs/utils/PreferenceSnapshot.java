@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes an immutable, versioned {@link Snapshot} of a declared set of preference values, for
+ * example the values of a ColorPreference, a MultiColorPreference and a RotaryPreference that a
+ * renderer needs to read together.
+ * <p>
+ * Keys are declared with the {@code add...Key} methods and then {@link #register()} starts
+ * tracking the SharedPreferences. Each snapshot is built from a single {@link SharedPreferences#getAll()}
+ * copy, so it never contains a partial mix of an in-flight batch of edits. A new snapshot replaces
+ * the old one atomically, and {@link #getSnapshot()} can be called from any thread with a single
+ * volatile read.
+ */
+@SuppressWarnings("WeakerAccess")
+public class PreferenceSnapshot {
+
+    private static final String TAG = "PreferenceSnapshot";
+
+    private final SharedPreferences sharedPreferences;
+    private final HashMap<String, KeyDeclaration> declarations = new HashMap<>();
+    private volatile Snapshot snapshot;
+    private boolean registered;
+
+    // SharedPreferences only keeps weak references to its listeners.
+    private final SharedPreferences.OnSharedPreferenceChangeListener changeListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                    if (key == null || declarations.containsKey(key))
+                        update();
+                }
+            };
+
+    public PreferenceSnapshot (@NonNull SharedPreferences sharedPreferences){
+        this.sharedPreferences = sharedPreferences;
+    }
+
+    /**
+     * Declares an integer key, such as one belonging to a ColorPreference or RotaryPreference.
+     * @param key The preference key.
+     * @param defaultValue The value to use if the key is not set.
+     */
+    public void addIntKey (@NonNull String key, int defaultValue){
+        declare(key, new KeyDeclaration(Integer.class, defaultValue, null));
+    }
+
+    public void addLongKey (@NonNull String key, long defaultValue){
+        declare(key, new KeyDeclaration(Long.class, defaultValue, null));
+    }
+
+    public void addFloatKey (@NonNull String key, float defaultValue){
+        declare(key, new KeyDeclaration(Float.class, defaultValue, null));
+    }
+
+    public void addBooleanKey (@NonNull String key, boolean defaultValue){
+        declare(key, new KeyDeclaration(Boolean.class, defaultValue, null));
+    }
+
+    public void addStringKey (@NonNull String key, @Nullable String defaultValue){
+        declare(key, new KeyDeclaration(String.class, defaultValue, null));
+    }
+
+    /**
+     * Declares a key belonging to a MultiColorPreference. The value is parsed once per snapshot.
+     * @param key The preference key.
+     * @param definition The definition used by the MultiColorPreference.
+     * @param defaultValue The preference value String to use if the key is not set or cannot be parsed.
+     */
+    public void addMultiColorKey (@NonNull String key, @NonNull MultiColor.Definition definition, @NonNull String defaultValue){
+        declare(key, new KeyDeclaration(MultiColor.class, defaultValue, definition));
+    }
+
+    private void declare (String key, KeyDeclaration declaration){
+        if (registered)
+            throw new IllegalStateException("Keys must be declared before the PreferenceSnapshot is registered.");
+        declarations.put(key, declaration);
+    }
+
+    /**
+     * Builds the first snapshot and starts listening for changes to the declared keys. Must be called
+     * on the main thread, where SharedPreferences delivers change notifications.
+     */
+    public void register (){
+        if (registered)
+            return;
+        registered = true;
+        sharedPreferences.registerOnSharedPreferenceChangeListener(changeListener);
+        update();
+    }
+
+    /**
+     * Stops listening for changes. The last snapshot remains available.
+     */
+    public void unregister (){
+        if (!registered)
+            return;
+        registered = false;
+        sharedPreferences.unregisterOnSharedPreferenceChangeListener(changeListener);
+    }
+
+    /**
+     * @return The latest snapshot, or null if {@link #register()} has not been called yet.
+     */
+    @Nullable
+    public Snapshot getSnapshot (){
+        return snapshot;
+    }
+
+    private void update (){
+        Map<String, ?> all = sharedPreferences.getAll();
+        HashMap<String, Object> values = new HashMap<>(declarations.size() * 2);
+        for (Map.Entry<String, KeyDeclaration> entry : declarations.entrySet()) {
+            String key = entry.getKey();
+            values.put(key, entry.getValue().resolve(key, all.get(key)));
+        }
+        Snapshot previous = snapshot;
+        if (previous != null && previous.values.equals(values))
+            return; // A batch notifies once per key, but the first notification already saw all of it.
+        snapshot = new Snapshot(previous == null ? 0 : previous.version + 1, values);
+    }
+
+    private static class KeyDeclaration {
+        final Class<?> type;
+        final Object defaultValue;
+        final MultiColor.Definition definition;
+
+        KeyDeclaration (Class<?> type, Object defaultValue, MultiColor.Definition definition){
+            this.type = type;
+            this.defaultValue = defaultValue;
+            this.definition = definition;
+        }
+
+        Object resolve (String key, Object value){
+            if (type == MultiColor.class){
+                String preferenceValue = value instanceof String ? (String)value : (String)defaultValue;
+                try {
+                    return new ImmutableMultiColor(definition.getValue(preferenceValue));
+                } catch (IllegalArgumentException e){
+                    Log.e(TAG, "Could not parse MultiColor value for key " + key, e);
+                    return new ImmutableMultiColor(definition.getValue((String)defaultValue));
+                }
+            }
+            return type.isInstance(value) ? value : defaultValue;
+        }
+    }
+
+    /** Holds a parsed MultiColor with value equality, so it is never handed out for modification. */
+    private static class ImmutableMultiColor {
+        final MultiColor multiColor;
+        final String preferenceValue;
+
+        ImmutableMultiColor (MultiColor multiColor){
+            this.multiColor = multiColor;
+            this.preferenceValue = multiColor.toPreferenceValue();
+        }
+
+        @Override
+        public boolean equals (Object o){
+            return o instanceof ImmutableMultiColor && ((ImmutableMultiColor)o).preferenceValue.equals(preferenceValue);
+        }
+
+        @Override
+        public int hashCode (){
+            return preferenceValue.hashCode();
+        }
+    }
+
+    /**
+     * An immutable set of values for the declared keys, as they were at one point in time.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final HashMap<String, Object> values;
+
+        Snapshot (long version, HashMap<String, Object> values){
+            this.version = version;
+            this.values = values;
+        }
+
+        /**
+         * @return A number that increases each time a snapshot with different values is published,
+         * so a reader can cheaply tell whether anything changed since its last read.
+         */
+        public long getVersion (){
+            return version;
+        }
+
+        public int getInt (@NonNull String key){
+            return (Integer)getDeclared(key);
+        }
+
+        public long getLong (@NonNull String key){
+            return (Long)getDeclared(key);
+        }
+
+        public float getFloat (@NonNull String key){
+            return (Float)getDeclared(key);
+        }
+
+        public boolean getBoolean (@NonNull String key){
+            return (Boolean)getDeclared(key);
+        }
+
+        @Nullable
+        public String getString (@NonNull String key){
+            return (String)getDeclared(key);
+        }
+
+        /**
+         * @param key A key declared with {@link #addMultiColorKey(String, MultiColor.Definition, String)}.
+         * @return A new copy of the MultiColor, which the caller is free to modify.
+         */
+        @NonNull
+        public MultiColor getMultiColor (@NonNull String key){
+            return new MultiColor(((ImmutableMultiColor)getDeclared(key)).multiColor);
+        }
+
+        /**
+         * Copies the color values of a MultiColor key without allocating.
+         * @param key A key declared with {@link #addMultiColorKey(String, MultiColor.Definition, String)}.
+         * @param out The array the color values are copied into. Colors that don't fit are skipped.
+         * @return The MultiColor type.
+         */
+        public int getMultiColorValues (@NonNull String key, @NonNull int[] out){
+            MultiColor multiColor = ((ImmutableMultiColor)getDeclared(key)).multiColor;
+            int[] values = multiColor.getValues();
+            System.arraycopy(values, 0, out, 0, Math.min(values.length, out.length));
+            return multiColor.getType();
+        }
+
+        private Object getDeclared (String key){
+            if (!values.containsKey(key))
+                throw new IllegalArgumentException("The key " + key + " was not declared for this snapshot.");
+            return values.get(key);
+        }
+    }
+}
@@ -19,15 +19,57 @@ import androidx.annotation.IdRes;
 import androidx.preference.PreferenceViewHolder;
 import android.view.View;
 
+import com.cyphercove.coveprefs.R;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Wraps a PreferenceViewHolder as an AbsViewHolder. Use {@link #of(PreferenceViewHolder)} when binding, so one
+ * wrapper is reused for the life of the item view. The wrapper keeps a direct reference to the preference widget
+ * so repeated binds don't look it up again, and a weak reference to itself, so a preference can track the row it
+ * was bound to without allocating on each bind.
+ */
 public class PreferenceViewHolderWrapper implements AbsViewHolder {
     final PreferenceViewHolder viewHolder;
+    private final WeakReference<PreferenceViewHolderWrapper> weakReference = new WeakReference<>(this);
+    private View widget;
+    private boolean widgetResolved;
 
     public PreferenceViewHolderWrapper(PreferenceViewHolder viewHolder){
         this.viewHolder = viewHolder;
     }
 
+    /**
+     * @param viewHolder A view holder being bound.
+     * @return The wrapper cached on the holder's item view, which is created on the first bind.
+     */
+    public static PreferenceViewHolderWrapper of(PreferenceViewHolder viewHolder){
+        Object tag = viewHolder.itemView.getTag(R.id.coveprefs_tag_viewHolderWrapper);
+        if (tag instanceof PreferenceViewHolderWrapper && ((PreferenceViewHolderWrapper) tag).viewHolder == viewHolder)
+            return (PreferenceViewHolderWrapper) tag;
+        PreferenceViewHolderWrapper wrapper = new PreferenceViewHolderWrapper(viewHolder);
+        viewHolder.itemView.setTag(R.id.coveprefs_tag_viewHolderWrapper, wrapper);
+        return wrapper;
+    }
+
+    public PreferenceViewHolder getViewHolder() {
+        return viewHolder;
+    }
+
+    /** @return A weak reference to this wrapper, which is the same object for the life of the wrapper. */
+    public WeakReference<PreferenceViewHolderWrapper> getWeakReference() {
+        return weakReference;
+    }
+
     @Override
     public View findViewById(@IdRes int id) {
+        if (id == R.id.coveprefs_widget) {
+            if (!widgetResolved) {
+                widget = viewHolder.findViewById(id);
+                widgetResolved = true;
+            }
+            return widget;
+        }
         return viewHolder.findViewById(id);
     }
 
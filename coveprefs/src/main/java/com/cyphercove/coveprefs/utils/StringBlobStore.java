@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AtomicFile;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP;
+
+/**
+ * Stores large String preference values in their own files, so the SharedPreferences file only
+ * holds a short handle. Used by {@link com.cyphercove.coveprefs.StringPreference} in blob storage
+ * mode. The handle contains a checksum of the body, so it changes whenever the body changes and
+ * preference change listeners are still notified.
+ * <p>
+ * Each body is written atomically to a file named after its handle, on a background thread. The
+ * new handle is only persisted once its file has been written, and the file of the previous handle
+ * is only deleted once the new handle has been persisted, so a persisted handle always has a file
+ * even if the process dies partway through. Until the new handle is persisted, the previous value
+ * is the one stored. A handle whose file is missing or doesn't match its checksum resolves to null.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StringBlobStore {
+
+    private static final String TAG = "StringBlobStore";
+    private static final String HANDLE_PREFIX = "coveprefs-blob:";
+    private static final String DIRECTORY_NAME = "coveprefs_blobs";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int CACHE_SIZE_CHARS = 256 * 1024;
+
+    private static StringBlobStore instance;
+
+    /** Persists a handle once the file of its body has been written. */
+    @RestrictTo(LIBRARY_GROUP)
+    public interface HandlePersister {
+        /**
+         * Called on the store's background thread. Should persist the handle before returning.
+         * @param handle The handle whose file has been written.
+         * @return Whether the handle was persisted, so the file of the previous handle can be deleted.
+         */
+        boolean persistHandle (@NonNull String handle);
+    }
+
+    private final File directory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, TAG);
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final ConcurrentHashMap<String, String> pendingWrites = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> latestWritesByKey = new ConcurrentHashMap<>();
+    private final HashMap<String, String> persistedHandlesByKey = new HashMap<>(); // Only used on the executor.
+    private final Set<String> unreadableHandles = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, String> loadedBodies = new LruCache<String, String>(CACHE_SIZE_CHARS) {
+        @Override
+        protected int sizeOf(String key, String value) {
+            return value.length();
+        }
+    };
+
+    private StringBlobStore (Context context){
+        directory = new File(context.getFilesDir(), DIRECTORY_NAME);
+    }
+
+    @RestrictTo(LIBRARY_GROUP)
+    public static synchronized StringBlobStore getInstance (Context context){
+        if (instance == null)
+            instance = new StringBlobStore(context.getApplicationContext());
+        return instance;
+    }
+
+    /**
+     * Resolves a value that was persisted by a StringPreference. Use this to read the String from
+     * SharedPreferences when the preference uses blob storage. This may read from disk, so it
+     * should not be called on the main thread if the value might not have been loaded yet.
+     *
+     * @param context A Context.
+     * @param persistedValue The value read from SharedPreferences.
+     * @return The stored String, which is {@code persistedValue} itself if it is not a blob
+     * handle, or null if the blob could not be read.
+     */
+    @Nullable
+    public static String readValue (@NonNull Context context, @Nullable String persistedValue){
+        if (!isHandle(persistedValue))
+            return persistedValue;
+        return getInstance(context).read(persistedValue);
+    }
+
+    /**
+     * @param value A persisted preference value.
+     * @return Whether the value is a blob handle rather than a literal String.
+     */
+    public static boolean isHandle (@Nullable String value){
+        return value != null && value.startsWith(HANDLE_PREFIX);
+    }
+
+    /**
+     * Stores a body for the given key in the background, and then has the persister persist its
+     * handle. Nothing is written if {@code currentHandle} already holds the same body. If another
+     * body is written for the key before this one's file is written, this one is dropped.
+     *
+     * @param key The preference key.
+     * @param body The String to store.
+     * @param currentHandle The handle currently persisted for the key, or null.
+     * @param persister Persists the handle once the file is written.
+     * @return The handle for the body.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    @NonNull
+    public String write (@NonNull final String key, @NonNull String body, @Nullable String currentHandle,
+                         @NonNull final HandlePersister persister){
+        final byte[] bytes = body.getBytes(UTF_8);
+        final String handle = handleFor(key, bytes);
+        // With a write in flight, the current handle may be about to change, so queue this one after it.
+        if (handle.equals(currentHandle) && !latestWritesByKey.containsKey(key) && body.equals(knownBody(currentHandle)))
+            return handle;
+        loadedBodies.put(handle, body);
+        unreadableHandles.remove(handle);
+
+        final String callerPreviousHandle = isHandle(currentHandle) ? currentHandle : null;
+        final Object writeToken = new Object();
+        pendingWrites.put(handle, body);
+        latestWritesByKey.put(key, writeToken);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String fileName = fileNameForHandle(handle);
+                boolean written = writeFile(fileName, bytes);
+                pendingWrites.remove(handle);
+                if (!written) {
+                    latestWritesByKey.remove(key, writeToken);
+                    return;
+                }
+                if (latestWritesByKey.get(key) != writeToken) {
+                    // Superseded by a newer write for the key, so this handle is never persisted.
+                    if (!fileName.equals(fileNameOrNull(callerPreviousHandle))
+                            && !fileName.equals(fileNameOrNull(persistedHandlesByKey.get(key))))
+                        new AtomicFile(new File(directory, fileName)).delete();
+                    return;
+                }
+                boolean persisted = persister.persistHandle(handle);
+                latestWritesByKey.remove(key, writeToken); // Only once the persisted handle is up to date.
+                if (persisted) {
+                    // The caller's handle is out of date if an earlier write was persisted after it was read.
+                    String earlierHandle = persistedHandlesByKey.put(key, handle);
+                    deleteUnlessFile(callerPreviousHandle, fileName);
+                    deleteUnlessFile(earlierHandle, fileName);
+                }
+            }
+        });
+        return handle;
+    }
+
+    /**
+     * Stores a body for the given key on the calling thread, for callers that persist the handle
+     * themselves right after. Once the handle is persisted, the caller should {@link #discard(String)}
+     * the previous handle.
+     *
+     * @param key The preference key.
+     * @param body The String to store.
+     * @return The handle for the body.
+     * @throws IOException If the file could not be written.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    @NonNull
+    public String writeNow (@NonNull String key, @NonNull String body) throws IOException {
+        byte[] bytes = body.getBytes(UTF_8);
+        String handle = handleFor(key, bytes);
+        if (!writeFile(fileNameForHandle(handle), bytes))
+            throw new IOException("Failed to write blob for key " + key);
+        loadedBodies.put(handle, body);
+        unreadableHandles.remove(handle);
+        return handle;
+    }
+
+    /**
+     * Deletes the file of a handle that is no longer persisted, in the background after any
+     * pending writes.
+     * @param handle A blob handle, or null.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public void discard (@Nullable String handle){
+        if (!isHandle(handle))
+            return;
+        final String fileName = fileNameForHandle(handle);
+        if (fileName == null)
+            return;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                new AtomicFile(new File(directory, fileName)).delete();
+            }
+        });
+    }
+
+    @Nullable
+    private static String fileNameOrNull (@Nullable String handle){
+        return handle != null ? fileNameForHandle(handle) : null;
+    }
+
+    /** Deletes the file of the handle, if it has one and it isn't the given file. */
+    private void deleteUnlessFile (@Nullable String handle, String keptFileName){
+        String fileName = fileNameOrNull(handle);
+        if (fileName != null && !fileName.equals(keptFileName))
+            new AtomicFile(new File(directory, fileName)).delete();
+    }
+
+    /** @return The body of the handle if it is in memory, without reading from disk. */
+    @Nullable
+    private String knownBody (String handle){
+        String body = pendingWrites.get(handle);
+        return body != null ? body : loadedBodies.get(handle);
+    }
+
+    /**
+     * @param handle A blob handle.
+     * @return Whether {@link #read(String)} can resolve the handle without reading from disk,
+     * because its body is in memory or it is known to be unreadable.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public boolean isLoaded (@NonNull String handle){
+        return pendingWrites.containsKey(handle) || loadedBodies.get(handle) != null
+                || unreadableHandles.contains(handle);
+    }
+
+    /**
+     * Loads the body for the handle in the background, so a later {@link #read(String)} is served
+     * from memory.
+     * @param handle A blob handle.
+     * @param onLoaded Run on the main thread once {@link #isLoaded(String)} is true for the handle,
+     *                 or null.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    public void prefetch (@NonNull final String handle, @Nullable final Runnable onLoaded){
+        if (isLoaded(handle)) {
+            if (onLoaded != null)
+                mainHandler.post(onLoaded);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                read(handle);
+                if (onLoaded != null)
+                    mainHandler.post(onLoaded);
+            }
+        });
+    }
+
+    /**
+     * @param handle A blob handle.
+     * @return The body for the handle, or null if its file does not exist, cannot be read, or
+     * does not match the handle's checksum.
+     */
+    @RestrictTo(LIBRARY_GROUP)
+    @Nullable
+    public String read (@NonNull String handle){
+        String body = pendingWrites.get(handle);
+        if (body != null)
+            return body;
+        body = loadedBodies.get(handle);
+        if (body != null || unreadableHandles.contains(handle))
+            return body;
+
+        String fileName = fileNameForHandle(handle);
+        if (fileName == null) {
+            Log.e(TAG, "Malformed blob handle " + handle);
+            unreadableHandles.add(handle);
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = new AtomicFile(new File(directory, fileName)).readFully();
+        } catch (FileNotFoundException e) {
+            Log.w(TAG, "Blob " + fileName + " is missing. It may not have finished saving.");
+            unreadableHandles.add(handle);
+            return null;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read blob " + fileName, e);
+            return null;
+        }
+        if (!handle.endsWith(":" + checksumOf(bytes))) {
+            Log.e(TAG, "Blob " + fileName + " does not match its handle.");
+            unreadableHandles.add(handle);
+            return null;
+        }
+        body = new String(bytes, UTF_8);
+        loadedBodies.put(handle, body);
+        return body;
+    }
+
+    /** @return Whether the file was written. */
+    private boolean writeFile (String fileName, byte[] bytes){
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Failed to create blob directory.");
+            return false;
+        }
+        AtomicFile file = new AtomicFile(new File(directory, fileName));
+        FileOutputStream stream = null;
+        try {
+            stream = file.startWrite();
+            stream.write(bytes);
+            file.finishWrite(stream);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write blob " + fileName, e);
+            if (stream != null)
+                file.failWrite(stream);
+            return false;
+        }
+    }
+
+    /** @return The name of the file holding the handle's body, or null if the handle is malformed. */
+    @Nullable
+    private static String fileNameForHandle (String handle){
+        int checksumSeparator = handle.lastIndexOf(':');
+        if (checksumSeparator <= HANDLE_PREFIX.length() || checksumSeparator == handle.length() - 1)
+            return null;
+        return handle.substring(HANDLE_PREFIX.length(), checksumSeparator) + "_" + handle.substring(checksumSeparator + 1);
+    }
+
+    private static String handleFor (String key, byte[] bytes){
+        return HANDLE_PREFIX + fileNameForKey(key) + ":" + checksumOf(bytes);
+    }
+
+    private static String fileNameForKey (String key){
+        try {
+            return "blob_" + URLEncoder.encode(key, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e); // UTF-8 is always supported
+        }
+    }
+
+    private static String checksumOf (byte[] bytes){
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return Long.toHexString(crc.getValue());
+    }
+}
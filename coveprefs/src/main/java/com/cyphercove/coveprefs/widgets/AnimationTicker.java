@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.os.Build;
+import android.provider.Settings;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Drives all running widget animations from one Choreographer frame callback, instead of one ValueAnimator per view.
+ * Animation state is kept in pooled entries, so starting an animation doesn't allocate once the pool is warm. Must only
+ * be used from the main thread.
+ * <p>
+ * Targets receive the linear fraction of the animation's duration, and apply their own easing. Durations are scaled by
+ * the system animator duration scale, like ValueAnimator does.
+ */
+final class AnimationTicker implements Choreographer.FrameCallback {
+
+    interface Target {
+        /** @param fraction The linear elapsed fraction, [0, 1]. Always called with 1 before the animation ends. */
+        void onAnimationUpdate (float fraction);
+
+        /** Called after the last update, unless the animation was canceled. */
+        void onAnimationEnd ();
+    }
+
+    private static final class Entry {
+        Target target;
+        long durationNanos;
+        long startTimeNanos;
+    }
+
+    private static final AnimationTicker INSTANCE = new AnimationTicker();
+
+    private final ArrayList<Entry> active = new ArrayList<>();
+    private final ArrayList<Entry> pool = new ArrayList<>();
+    private boolean frameScheduled;
+    private boolean ticking;
+
+    private AnimationTicker (){
+    }
+
+    /**
+     * Starts animating the target, restarting it if it is already running.
+     * @param context Used to read the animator duration scale.
+     */
+    static void start (Context context, Target target, long durationMillis){
+        INSTANCE.startInternal(target, (long)(durationMillis * getDurationScale(context) * 1000000L));
+    }
+
+    /** Stops the target's animation where it is, without calling {@link Target#onAnimationEnd()}. */
+    static void cancel (Target target){
+        Entry entry = INSTANCE.find(target);
+        if (entry != null)
+            INSTANCE.remove(entry);
+    }
+
+    /** Jumps the target's animation to its end, calling {@link Target#onAnimationEnd()}. */
+    static void end (Target target){
+        Entry entry = INSTANCE.find(target);
+        if (entry != null) {
+            INSTANCE.remove(entry);
+            target.onAnimationUpdate(1f);
+            target.onAnimationEnd();
+        }
+    }
+
+    static boolean isRunning (Target target){
+        return INSTANCE.find(target) != null;
+    }
+
+    private void startInternal (Target target, long durationNanos){
+        if (durationNanos <= 0) {
+            cancel(target);
+            target.onAnimationUpdate(1f);
+            target.onAnimationEnd();
+            return;
+        }
+        Entry entry = find(target);
+        if (entry == null) {
+            entry = pool.isEmpty() ? new Entry() : pool.remove(pool.size() - 1);
+            entry.target = target;
+            active.add(entry);
+        }
+        entry.durationNanos = durationNanos;
+        entry.startTimeNanos = -1; // Set from the first frame, like ValueAnimator
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private Entry find (Target target){
+        for (int i = 0, n = active.size(); i < n; i++) {
+            Entry entry = active.get(i);
+            if (entry.target == target)
+                return entry;
+        }
+        return null;
+    }
+
+    /** While ticking, entries are only marked removed, and are cleared out after the frame. */
+    private void remove (Entry entry){
+        entry.target = null;
+        if (!ticking) {
+            active.remove(entry);
+            pool.add(entry);
+        }
+    }
+
+    @Override
+    public void doFrame (long frameTimeNanos){
+        frameScheduled = false;
+        ticking = true;
+        // Animations started by a callback during this frame begin on the next one.
+        for (int i = 0, n = active.size(); i < n; i++) {
+            Entry entry = active.get(i);
+            Target target = entry.target;
+            if (target == null)
+                continue;
+            if (entry.startTimeNanos < 0)
+                entry.startTimeNanos = frameTimeNanos;
+            float fraction = Math.min(1f, (float)(frameTimeNanos - entry.startTimeNanos) / entry.durationNanos);
+            if (fraction >= 1f)
+                entry.target = null;
+            target.onAnimationUpdate(fraction);
+            if (fraction >= 1f)
+                target.onAnimationEnd();
+        }
+        ticking = false;
+        for (int i = active.size() - 1; i >= 0; i--) {
+            Entry entry = active.get(i);
+            if (entry.target == null) {
+                active.remove(i);
+                pool.add(entry);
+            }
+        }
+        if (!active.isEmpty() && !frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private static float getDurationScale (Context context){
+        if (Build.VERSION.SDK_INT >= 26)
+            return ValueAnimator.getDurationScale();
+        return Settings.Global.getFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+    }
+}
@@ -38,6 +38,9 @@ import java.util.HashMap;
  */
 public class ColorCacheView extends FrameLayout {
     private HashMap<Button, Integer> buttonsToColors = new HashMap<>();
+    private final ArrayList<Integer> shownColors = new ArrayList<>();
+    private final LinearLayout root;
+    private final LinearLayout.LayoutParams buttonLayoutParams;
     private OnColorSelectedListener listener;
 
     interface OnColorSelectedListener {
@@ -59,46 +62,56 @@ public class ColorCacheView extends FrameLayout {
                 Context.LAYOUT_INFLATER_SERVICE);
         inflater.inflate(R.layout.coveprefs_color_cache_view, this);
 
-        LinearLayout root = findViewById(R.id.coveprefs_colorcache_container);
+        root = findViewById(R.id.coveprefs_colorcache_container);
         CovePrefsUtils.clearAncestorOutlineClipping(root, this);
 
         Resources resources = getResources();
         final int buttonWidth = resources.getDimensionPixelSize(R.dimen.coveprefs_recent_color_button_width);
+        buttonLayoutParams = new LinearLayout.LayoutParams(buttonWidth, LayoutParams.WRAP_CONTENT);
 
-        LinearLayout.LayoutParams buttonLayoutParams = new LinearLayout.LayoutParams(context, attrs){
-            {
-                height = WRAP_CONTENT;
-                width = buttonWidth;
+        populate();
+    }
+
+    private final OnClickListener onClickListener = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            Button button = (Button)v;
+            Integer color = buttonsToColors.get(button);
+            if (listener != null && color != null){
+                listener.onColorChanged(button, color, (float)(v.getWidth() / 2), (float)(v.getHeight() / 2));
             }
-        };
+        }
+    };
 
+    private void populate (){
         ArrayList<Integer> colors = ColorCache.getCachedColors(getContext());
+        shownColors.clear();
+        shownColors.addAll(colors);
         buttonsToColors.clear();
-        final OnClickListener onClickListener = new OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Button button = (Button)v;
-                Integer color = buttonsToColors.get(button);
-                if (listener != null && color != null){
-                    listener.onColorChanged(button, color, (float)(v.getWidth() / 2), (float)(v.getHeight() / 2));
-                }
-            }
-        };
-
-        if (colors.size() > 0) {
-            for (Integer color : colors){
-                color |= 0xFF000000;
-                AppCompatButton button = new AppCompatButton(getContext(), attrs, android.R.attr.buttonStyle);
-                ViewCompat.setBackgroundTintList(button, ColorStateList.valueOf(color));
-                button.setLayoutParams(buttonLayoutParams);
-                button.setOnClickListener(onClickListener);
-                button.setFocusable(true);
-                buttonsToColors.put(button, color);
-                root.addView(button);
-            }
+        root.removeAllViews();
+
+        for (Integer color : colors){
+            color |= 0xFF000000;
+            AppCompatButton button = new AppCompatButton(getContext(), null, android.R.attr.buttonStyle);
+            ViewCompat.setBackgroundTintList(button, ColorStateList.valueOf(color));
+            button.setLayoutParams(buttonLayoutParams);
+            button.setOnClickListener(onClickListener);
+            button.setFocusable(true);
+            button.setEnabled(isEnabled());
+            button.setAlpha(isEnabled() ? 1 : .3f);
+            buttonsToColors.put(button, color);
+            root.addView(button);
         }
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // The view may have been created ahead of time, before the most recent colors were picked.
+        if (!shownColors.equals(ColorCache.getCachedColors(getContext())))
+            populate();
+    }
+
     @Override
     public void setEnabled (boolean enabled){
         super.setEnabled(enabled);
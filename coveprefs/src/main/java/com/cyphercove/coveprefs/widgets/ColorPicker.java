@@ -16,20 +16,15 @@
 package com.cyphercove.coveprefs.widgets;
 
 import android.content.Context;
-import android.graphics.Color;
-import android.text.*;
 import android.util.AttributeSet;
-import android.view.KeyEvent;
-import android.view.LayoutInflater;
 import android.view.View;
-import android.view.inputmethod.EditorInfo;
-import android.view.inputmethod.InputMethodManager;
 import android.widget.*;
 
 import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.cyphercove.coveprefs.R;
-import com.cyphercove.coveprefs.utils.CovePrefsUtils;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -42,7 +37,7 @@ public class ColorPicker extends FrameLayout {
     // <attr name="coveprefs_colorPickerWidgets">
     @Retention(RetentionPolicy.SOURCE)
     @IntDef(
-            value = {WIDGET_HSV_PICKER, WIDGET_HEX_TEXT_EDIT, WIDGET_RECENTLY_PICKED},
+            value = {WIDGET_HSV_PICKER, WIDGET_HEX_TEXT_EDIT, WIDGET_RECENTLY_PICKED, WIDGET_OKLCH_PICKER},
             flag = true
     )
     public @interface Widgets {
@@ -51,6 +46,9 @@ public class ColorPicker extends FrameLayout {
     public static final int WIDGET_HSV_PICKER = 1;
     public static final int WIDGET_HEX_TEXT_EDIT = 1 << 1;
     public static final int WIDGET_RECENTLY_PICKED = 1 << 2;
+    /** A perceptual OKLCH picker, with a hue strip and a lightness/chroma plane. Shown instead of the HSV picker if
+     * both are set. */
+    public static final int WIDGET_OKLCH_PICKER = 1 << 3;
 
     public interface OnColorChangedListener {
         void onColorChanged(int newColor);
@@ -58,9 +56,11 @@ public class ColorPicker extends FrameLayout {
     private HSVSelectorView hsvView;
     private View hexHashMark;
     private EditText hexEditText;
-    private boolean hexEditTextWatcherDisabled;
+    private HexColorField hexField;
     private ColorSwatch colorSwatch;
     private ColorCacheView colorCacheView;
+    private HorizontalScrollView widgetsScroller;
+    private final ViewOffsetCache viewOffsets = new ViewOffsetCache(this);
     private OnColorChangedListener listener;
     private int currentColor;
     private int widgets = WIDGET_HSV_PICKER | WIDGET_HEX_TEXT_EDIT | WIDGET_RECENTLY_PICKED;
@@ -76,95 +76,50 @@ public class ColorPicker extends FrameLayout {
     public ColorPicker(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        final LayoutInflater inflater = (LayoutInflater) context.getSystemService(
-                Context.LAYOUT_INFLATER_SERVICE);
+        boolean inflateLayout = ResolvedStyles.colorPicker(context, attrs, defStyleAttr).inflateLayout;
 
-        inflater.inflate(R.layout.coveprefs_color_picker, this);
+        ColorPickerLayout layout = ColorPickerLayout.create(this, false, inflateLayout);
 
-        colorSwatch = findViewById(R.id.coveprefs_single_swatch);
-        colorSwatch.setVisibility(View.VISIBLE);
+        colorSwatch = layout.singleSwatch;
         colorSwatch.setFocusableInTouchMode(true); // Allow touch to unfocus the hexEditText so keyboard closes
 
-        hsvView = findViewById(R.id.coveprefs_hsv);
+        hsvView = layout.hsvView;
         HSVSelectorView.OnColorChangedListener onHSVColorSelectedListener = new HSVSelectorView.OnColorChangedListener() {
             @Override
             public void onColorChanged (HSVSelectorView view, int newColor, boolean isFromTouchDown, float localX, float localY) {
                 setColorInternal(newColor, true, false, isFromTouchDown,
-                        CovePrefsUtils.getRelativeX(view, ColorPicker.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, ColorPicker.this) + localY);
+                        viewOffsets.getRelativeX(view) + localX,
+                        viewOffsets.getRelativeY(view) + localY);
             }
         };
         hsvView.setOnColorChangedListener(onHSVColorSelectedListener);
         hsvView.setFocusableInTouchMode(true); // Allow touch to unfocus the hexEditText so keyboard closes
-        CovePrefsUtils.clearAncestorOutlineClipping(hsvView, this);
 
-        hexHashMark = findViewById(R.id.coveprefs_hex_hashmark);
-        hexEditText = findViewById(R.id.coveprefs_hex);
-        InputFilter hexInputFilter = new InputFilter() {
-            // Rejects changes that insert non-hex digits.
+        hexHashMark = layout.hexHashMark;
+        hexEditText = layout.hexEditText;
+        hexField = new HexColorField(hexEditText, new HexColorField.Listener() {
             @Override
-            public CharSequence filter (CharSequence source, int start, int end, Spanned dest, int dstart, int dend) {
-                for (int i = start; i < end; i++) {
-                    if (Character.digit(source.charAt(i), 16) == -1) {
-                        return "";
-                    }
-                }
-                return null;
-            }
-        };
-        InputFilter[] inputFilters = {new InputFilter.LengthFilter(6), hexInputFilter, new InputFilter.AllCaps()};
-        hexEditText.setFilters(inputFilters);
-        hexEditText.setInputType(InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS | EditorInfo.IME_FLAG_NO_FULLSCREEN);
-        hexEditText.setSingleLine();
-        hexEditText.setImeOptions(EditorInfo.IME_ACTION_DONE);
-        hexEditText.setOnFocusChangeListener(new OnFocusChangeListener() { // auto-hide keyboard when focus lost
-            public void onFocusChange(View v, boolean hasFocus) {
-                if (v == hexEditText) {
-                    if (!hasFocus)
-                        ((InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE))
-                                .hideSoftInputFromWindow(hexEditText.getWindowToken(), 0);
-                }
-            }
-        });
-        hexEditText.addTextChangedListener(new TextWatcher(){
-            @Override
-            public void afterTextChanged(Editable s) {
-                if (hexEditTextWatcherDisabled)
-                    return;
-                if (s.length() == 6){
-                    int color = Color.parseColor("#" + s.toString());
-                    setColorInternal(color, false, true, true,
-                            CovePrefsUtils.getRelativeX(hexEditText, ColorPicker.this) + hexEditText.getWidth(),
-                            CovePrefsUtils.getRelativeY(hexEditText, ColorPicker.this) + (float)(hexEditText.getHeight() / 2));
-                }
-            }
-            public void beforeTextChanged(CharSequence s, int start, int count, int after){}
-            public void onTextChanged(CharSequence s, int start, int before, int count){}
-        });
-        hexEditText.setOnEditorActionListener(new TextView.OnEditorActionListener() {
-            @Override
-            public boolean onEditorAction(TextView v, int actionId, KeyEvent event) {
-                // Restore shown value if invalid value entered
-                if ((actionId == EditorInfo.IME_ACTION_DONE && v.getText().length() != 6)) {
-                    setHexEditTextColorWithoutPropagation(currentColor);
-                }
-                return false; // allow default keyboard close action
+            public void onHexColorEntered (int color) {
+                setColorInternal(color, false, true, true,
+                        viewOffsets.getRelativeX(hexEditText) + hexEditText.getWidth(),
+                        viewOffsets.getRelativeY(hexEditText) + (float)(hexEditText.getHeight() / 2));
             }
         });
 
-        colorCacheView = findViewById(R.id.coveprefs_colorcache);
+        colorCacheView = layout.colorCacheView;
         // avoid allowing focus jump back to EditText when buttons are pressed
         ColorCacheView.OnColorSelectedListener onColorCacheSelectedListener = new ColorCacheView.OnColorSelectedListener() {
             @Override
             public void onColorChanged (Button view, int newColor, float localX, float localY) {
                 setColorInternal(newColor, false, false, true,
-                        CovePrefsUtils.getRelativeX(view, ColorPicker.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, ColorPicker.this) + localY);
+                        viewOffsets.getRelativeX(view) + localX,
+                        viewOffsets.getRelativeY(view) + localY);
                 hsvView.requestFocus(); // avoid allowing focus jump back to EditText when buttons are pressed
             }
         };
         colorCacheView.setOnColorSelectedListener(onColorCacheSelectedListener);
-        CovePrefsUtils.clearAncestorOutlineClipping(colorCacheView, this);
+
+        widgetsScroller = layout.widgetsScroller;
     }
 
     @Widgets
@@ -177,23 +132,58 @@ public class ColorPicker extends FrameLayout {
         boolean hsv = (widgets & WIDGET_HSV_PICKER) != 0;
         boolean hex = (widgets & WIDGET_HEX_TEXT_EDIT) != 0;
         boolean recent = (widgets & WIDGET_RECENTLY_PICKED) != 0;
+        boolean oklch = (widgets & WIDGET_OKLCH_PICKER) != 0;
 
-        hsvView.setVisibility(hsv ? VISIBLE : GONE);
+        hsvView.setPerceptual(oklch);
+        hsvView.setVisibility(hsv || oklch ? VISIBLE : GONE);
         hexHashMark.setVisibility(hex ? VISIBLE : GONE);
         hexEditText.setVisibility(hex ? VISIBLE : GONE);
         colorCacheView.setVisibility(recent ? VISIBLE : GONE);
     }
 
-    private void setHexEditTextColorWithoutPropagation (int color){
-        hexEditTextWatcherDisabled = true;
-        hexEditText.setText(String.format("%06X", (0xFFFFFF & color)));
-        hexEditTextWatcherDisabled = false;
-    }
-
     public void setColor (int color) {
         setColorInternal(color, false,  false, false, 0, 0);
     }
 
+    /**
+     * Sets the color without notifying the listener, and puts the widgets back in a state saved with
+     * {@link #getPickerState()}.
+     * @param color The color, which should be the color the picker had when the state was saved.
+     * @param state The saved state, or null to set the color normally.
+     */
+    public void setColor (int color, @Nullable ColorPickerState state) {
+        if (state == null) {
+            setColor(color);
+            return;
+        }
+        currentColor = color;
+        colorSwatch.setColor(color | 0xff000000);
+        hsvView.setHSV(state.hue, state.saturation, state.value);
+        hexField.setColor(color);
+        restoreWidgetsScroll(widgetsScroller, state.widgetsScrollX);
+    }
+
+    /**
+     * @return The state of the picker that can't be derived from its color.
+     */
+    @NonNull
+    public ColorPickerState getPickerState () {
+        float[] hsv = new float[3];
+        hsvView.getHSV(hsv);
+        return new ColorPickerState(hsv[0], hsv[1], hsv[2], 0, 0, widgetsScroller.getScrollX());
+    }
+
+    static void restoreWidgetsScroll (final HorizontalScrollView scroller, final int scrollX) {
+        if (scrollX == 0)
+            return;
+        scroller.post(new Runnable() { // The scroll range isn't known until after layout.
+            @Override
+            public void run() {
+                scroller.scrollTo(scrollX, 0);
+            }
+        });
+    }
+
     private void setColorInternal(int color, boolean isFromHSV, boolean isFromHex, boolean animated, float animationCenterX, float animationCenterY) {
         if (currentColor == color) {
             return;
@@ -203,8 +193,8 @@ public class ColorPicker extends FrameLayout {
 
         if (animated)
             colorSwatch.setColorAnimated(
-                    animationCenterX - CovePrefsUtils.getRelativeX(colorSwatch, this),
-                    animationCenterY - CovePrefsUtils.getRelativeY(colorSwatch, this),
+                    animationCenterX - viewOffsets.getRelativeX(colorSwatch),
+                    animationCenterY - viewOffsets.getRelativeY(colorSwatch),
                     color | 0xff000000);
         else
             colorSwatch.setColor(color | 0xff000000);
@@ -212,7 +202,7 @@ public class ColorPicker extends FrameLayout {
         if (!isFromHSV)
             hsvView.setColor(color, animated);
         if (!isFromHex)
-            setHexEditTextColorWithoutPropagation(color);
+            hexField.setColor(color);
 
         if (listener != null){
             listener.onColorChanged(color);
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.animation.LayoutTransition;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.HorizontalScrollView;
+import android.widget.ImageButton;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.widget.AppCompatEditText;
+import androidx.appcompat.widget.AppCompatImageButton;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.widget.TextViewCompat;
+import androidx.viewpager.widget.ViewPager;
+
+import com.cyphercove.coveprefs.R;
+import com.cyphercove.coveprefs.utils.CovePrefsUtils;
+
+import static android.view.ViewGroup.LayoutParams.MATCH_PARENT;
+import static android.view.ViewGroup.LayoutParams.WRAP_CONTENT;
+
+/**
+ * The views of a {@link ColorPicker} or {@link MultiColorPicker}. By default they are built in code, which
+ * produces the hierarchy of {@code coveprefs_color_picker.xml} with the same IDs, minus the views only used by
+ * the other picker type and the intermediate containers that only held margins. Keep the two in sync. If the
+ * {@code coveprefs_inflateColorPickerLayout} attribute is set, the layout resource is inflated instead, so
+ * an app that overrides it keeps its customized layout.
+ */
+final class ColorPickerLayout {
+
+    View header; // The single swatch, or the multicolor header holding the pager and buttons.
+    ColorSwatch singleSwatch;
+    ViewPager headerViewPager;
+    ImageButton prevButton, nextButton;
+    HSVSelectorView hsvView;
+    TextView hexHashMark;
+    EditText hexEditText;
+    ColorCacheView colorCacheView;
+    HorizontalScrollView widgetsScroller;
+
+    private ColorPickerLayout (){
+    }
+
+    /**
+     * Creates the views and adds them to the picker.
+     * @param picker The ColorPicker or MultiColorPicker.
+     * @param multiColor Whether the picker is a MultiColorPicker.
+     * @param inflate Whether to inflate the layout resource instead of building the views in code.
+     */
+    static ColorPickerLayout create (FrameLayout picker, boolean multiColor, boolean inflate){
+        ColorPickerLayout layout = new ColorPickerLayout();
+        if (inflate)
+            layout.inflate(picker, multiColor);
+        else
+            layout.build(picker, multiColor);
+        return layout;
+    }
+
+    private void inflate (FrameLayout picker, boolean multiColor){
+        LayoutInflater.from(picker.getContext()).inflate(R.layout.coveprefs_color_picker, picker);
+        singleSwatch = picker.findViewById(R.id.coveprefs_single_swatch);
+        View multiColorHeader = picker.findViewById(R.id.coveprefs_multicolor_header);
+        if (multiColor){
+            singleSwatch.setVisibility(View.GONE);
+            singleSwatch = null;
+            multiColorHeader.setVisibility(View.VISIBLE);
+            header = multiColorHeader;
+        } else {
+            singleSwatch.setVisibility(View.VISIBLE);
+            multiColorHeader.setVisibility(View.GONE);
+            header = singleSwatch;
+        }
+        headerViewPager = picker.findViewById(R.id.coveprefs_pager_swatch);
+        prevButton = picker.findViewById(R.id.coveprefs_prev);
+        nextButton = picker.findViewById(R.id.coveprefs_next);
+        hsvView = picker.findViewById(R.id.coveprefs_hsv);
+        hexHashMark = picker.findViewById(R.id.coveprefs_hex_hashmark);
+        hexEditText = picker.findViewById(R.id.coveprefs_hex);
+        colorCacheView = picker.findViewById(R.id.coveprefs_colorcache);
+        widgetsScroller = picker.findViewById(R.id.coveprefs_widgets_scroller);
+        CovePrefsUtils.clearAncestorOutlineClipping(hsvView, picker);
+        CovePrefsUtils.clearAncestorOutlineClipping(colorCacheView, picker);
+    }
+
+    private void build (FrameLayout picker, boolean multiColor){
+        Context context = picker.getContext();
+        Resources resources = context.getResources();
+        boolean landscape = resources.getConfiguration().orientation == Configuration.ORIENTATION_LANDSCAPE;
+        int margin = resources.getDimensionPixelSize(R.dimen.coveprefs_colorpicker_margin);
+
+        LinearLayout root = new LinearLayout(context);
+        root.setOrientation(landscape ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+        clearClipping(root);
+        picker.addView(root, new FrameLayout.LayoutParams(MATCH_PARENT, landscape ? WRAP_CONTENT : MATCH_PARENT));
+
+        header = multiColor ? buildMultiColorHeader(context, landscape) : buildSingleSwatch(context);
+        LinearLayout.LayoutParams headerParams;
+        if (landscape){
+            // The header replaces the lead column. The elevation lets animating views pass behind it, and
+            // it casts no shadow because it has no background.
+            headerParams = new LinearLayout.LayoutParams(
+                    resources.getDimensionPixelSize(R.dimen.coveprefs_colorpicker_lead_column_width), MATCH_PARENT);
+            if (Build.VERSION.SDK_INT >= 21)
+                header.setElevation(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 10, resources.getDisplayMetrics()));
+        } else {
+            headerParams = new LinearLayout.LayoutParams(MATCH_PARENT,
+                    resources.getDimensionPixelSize(R.dimen.coveprefs_colorpicker_header_height));
+            headerParams.bottomMargin = margin;
+        }
+        root.addView(header, headerParams);
+
+        LinearLayout column;
+        if (landscape){
+            column = new LinearLayout(context);
+            column.setOrientation(LinearLayout.VERTICAL);
+            column.setPadding(0, margin, 0, 0);
+            clearClipping(column);
+            LinearLayout.LayoutParams columnParams = new LinearLayout.LayoutParams(0, WRAP_CONTENT);
+            columnParams.weight = 1;
+            root.addView(column, columnParams);
+        } else {
+            column = root;
+        }
+
+        TextView messageView = new AppCompatTextView(context);
+        messageView.setId(android.R.id.message);
+        TextViewCompat.setTextAppearance(messageView, androidx.appcompat.R.style.TextAppearance_AppCompat_Small);
+        messageView.setGravity(Gravity.CENTER);
+        int dialogPadding = resolveDimension(context, androidx.appcompat.R.attr.dialogPreferredPadding);
+        LinearLayout.LayoutParams messageParams = new LinearLayout.LayoutParams(MATCH_PARENT, WRAP_CONTENT);
+        messageParams.leftMargin = messageParams.rightMargin = dialogPadding;
+        column.addView(messageView, messageParams);
+
+        hsvView = new HSVSelectorView(context);
+        hsvView.setId(R.id.coveprefs_hsv);
+        LinearLayout.LayoutParams hsvParams = new LinearLayout.LayoutParams(MATCH_PARENT, landscape ? 0 : WRAP_CONTENT);
+        if (landscape)
+            hsvParams.weight = 1;
+        hsvParams.leftMargin = hsvParams.rightMargin = margin;
+        column.addView(hsvView, hsvParams);
+
+        widgetsScroller = new HorizontalScrollView(context);
+        widgetsScroller.setId(R.id.coveprefs_widgets_scroller);
+        widgetsScroller.setHorizontalScrollBarEnabled(false);
+        widgetsScroller.setOverScrollMode(View.OVER_SCROLL_NEVER);
+        clearClipping(widgetsScroller);
+        column.addView(widgetsScroller, new LinearLayout.LayoutParams(landscape ? MATCH_PARENT : WRAP_CONTENT, WRAP_CONTENT));
+
+        LinearLayout widgetsRow = new LinearLayout(context);
+        widgetsRow.setGravity(Gravity.CENTER_VERTICAL);
+        widgetsRow.setPadding(margin, 0, margin, 0);
+        clearClipping(widgetsRow);
+        widgetsScroller.addView(widgetsRow, new FrameLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT));
+
+        hexHashMark = new AppCompatTextView(context);
+        hexHashMark.setId(R.id.coveprefs_hex_hashmark);
+        hexHashMark.setText(R.string.coveprefs_hashmark);
+        widgetsRow.addView(hexHashMark, new LinearLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT));
+
+        hexEditText = new AppCompatEditText(context);
+        hexEditText.setId(R.id.coveprefs_hex);
+        widgetsRow.addView(hexEditText, new LinearLayout.LayoutParams(
+                resources.getDimensionPixelSize(R.dimen.coveprefs_hex_textedit_width), WRAP_CONTENT));
+
+        colorCacheView = new ColorCacheView(context);
+        colorCacheView.setId(R.id.coveprefs_colorcache);
+        widgetsRow.addView(colorCacheView, new LinearLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT));
+
+        // The button bar is themed through style attributes and uses appcompat's ButtonBarLayout, so it
+        // stays a layout resource.
+        View buttonBar = LayoutInflater.from(context).inflate(R.layout.coveprefs_alert_dialog_button_bar, column, false);
+        column.addView(buttonBar, new LinearLayout.LayoutParams(MATCH_PARENT, WRAP_CONTENT));
+    }
+
+    private View buildSingleSwatch (Context context){
+        singleSwatch = new ColorSwatch(context);
+        singleSwatch.setId(R.id.coveprefs_single_swatch);
+        return singleSwatch;
+    }
+
+    // In portrait, the buttons get their own FrameLayout as in the layout resource, so showing and hiding them
+    // is animated without animating the pager. In landscape, they share the pager's FrameLayout.
+    private ViewGroup buildMultiColorHeader (Context context, boolean landscape){
+        FrameLayout multiColorHeader = new FrameLayout(context);
+        multiColorHeader.setId(R.id.coveprefs_multicolor_header);
+
+        headerViewPager = new ViewPager(context);
+        headerViewPager.setId(R.id.coveprefs_pager_swatch);
+        multiColorHeader.addView(headerViewPager, new FrameLayout.LayoutParams(MATCH_PARENT, MATCH_PARENT));
+
+        FrameLayout buttonFrame;
+        if (landscape){
+            buttonFrame = multiColorHeader;
+        } else {
+            buttonFrame = new FrameLayout(context);
+            buttonFrame.setLayoutTransition(new LayoutTransition());
+            multiColorHeader.addView(buttonFrame, new FrameLayout.LayoutParams(MATCH_PARENT, MATCH_PARENT));
+        }
+        int verticalGravity = landscape ? Gravity.TOP : Gravity.CENTER_VERTICAL;
+        prevButton = buildHeaderButton(context, R.id.coveprefs_prev, R.drawable.coveprefs_ic_chevron_start, landscape);
+        prevButton.setNextFocusForwardId(R.id.coveprefs_next);
+        buttonFrame.addView(prevButton, new FrameLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT,
+                Gravity.LEFT | verticalGravity));
+        nextButton = buildHeaderButton(context, R.id.coveprefs_next, R.drawable.coveprefs_ic_chevron_end, landscape);
+        nextButton.setNextFocusForwardId(R.id.coveprefs_prev);
+        buttonFrame.addView(nextButton, new FrameLayout.LayoutParams(WRAP_CONTENT, WRAP_CONTENT,
+                Gravity.RIGHT | verticalGravity));
+        return multiColorHeader;
+    }
+
+    private static ImageButton buildHeaderButton (Context context, int id, int drawableId, boolean landscape){
+        ImageButton button = new AppCompatImageButton(context);
+        button.setId(id);
+        button.setImageResource(drawableId);
+        TypedValue typedValue = new TypedValue();
+        if (context.getTheme().resolveAttribute(androidx.appcompat.R.attr.selectableItemBackgroundBorderless, typedValue, true))
+            button.setBackgroundResource(typedValue.resourceId);
+        int minSize = (int)TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 48, context.getResources().getDisplayMetrics());
+        button.setMinimumWidth(minSize);
+        button.setMinimumHeight(minSize);
+        if (!landscape)
+            button.setVisibility(View.GONE);
+        return button;
+    }
+
+    private static int resolveDimension (Context context, int attr){
+        TypedValue typedValue = new TypedValue();
+        if (!context.getTheme().resolveAttribute(attr, typedValue, true))
+            return 0;
+        return TypedValue.complexToDimensionPixelSize(typedValue.data, context.getResources().getDisplayMetrics());
+    }
+
+    // Equivalent to CovePrefsUtils.clearAncestorOutlineClipping() for the containers of the HSV selector
+    // and recent colors, applied as they are built.
+    private static void clearClipping (ViewGroup viewGroup){
+        if (Build.VERSION.SDK_INT < 21)
+            return;
+        viewGroup.setClipChildren(false);
+        viewGroup.setClipToPadding(false);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * The state of a {@link ColorPicker} or {@link MultiColorPicker} that can't be derived from its
+ * color value: the exact HSV selection, which is ambiguous for greys, the active color slot and
+ * header page of a MultiColorPicker, and the scroll position of the recent colors.
+ */
+public class ColorPickerState implements Parcelable {
+    final float hue, saturation, value;
+    final int activeIndex;
+    final int page;
+    final int widgetsScrollX;
+
+    ColorPickerState (float hue, float saturation, float value, int activeIndex, int page, int widgetsScrollX){
+        this.hue = hue;
+        this.saturation = saturation;
+        this.value = value;
+        this.activeIndex = activeIndex;
+        this.page = page;
+        this.widgetsScrollX = widgetsScrollX;
+    }
+
+    ColorPickerState (Parcel source){
+        hue = source.readFloat();
+        saturation = source.readFloat();
+        value = source.readFloat();
+        activeIndex = source.readInt();
+        page = source.readInt();
+        widgetsScrollX = source.readInt();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeFloat(hue);
+        dest.writeFloat(saturation);
+        dest.writeFloat(value);
+        dest.writeInt(activeIndex);
+        dest.writeInt(page);
+        dest.writeInt(widgetsScrollX);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Parcelable.Creator<ColorPickerState> CREATOR =
+            new Parcelable.Creator<ColorPickerState>() {
+
+                public ColorPickerState createFromParcel(Parcel in) {
+                    return new ColorPickerState(in);
+                }
+
+                public ColorPickerState[] newArray(int size) {
+                    return new ColorPickerState[size];
+                }
+            };
+}
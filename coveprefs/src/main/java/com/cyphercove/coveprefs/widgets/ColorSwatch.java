@@ -15,13 +15,12 @@
  */
 package com.cyphercove.coveprefs.widgets;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.AttributeSet;
 import android.view.View;
+import com.cyphercove.coveprefs.utils.CovePrefsUtils;
 
 /**
  */
@@ -32,9 +31,8 @@ public class ColorSwatch extends View {
     private int color = 0xFFFF0000;
     private int nextColor = color; // start at same value to indicate no animation occurring
 
-    private float centerX, centerY, radius;
+    private float centerX, centerY, radius, targetRadius;
     private Paint colorPaint, nextColorPaint;
-    ValueAnimator valueAnimator;
 
     public ColorSwatch(Context context) {
         this(context, null);
@@ -47,16 +45,6 @@ public class ColorSwatch extends View {
     public ColorSwatch(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        valueAnimator = new ValueAnimator();
-        ValueAnimator.AnimatorUpdateListener animatorUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate (ValueAnimator animation) {
-                radius = (float) valueAnimator.getAnimatedValue();
-                invalidate();
-            }
-        };
-        valueAnimator.addUpdateListener(animatorUpdateListener);
-        valueAnimator.addListener(animatorListener);
         colorPaint = new Paint();
         colorPaint.setStyle(Paint.Style.FILL);
         nextColorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -91,23 +79,12 @@ public class ColorSwatch extends View {
         this.centerY = centerY;
 
         //Check four corners to find radius needed to fully cover view
-        double greatestDst2 = centerX * centerX + centerY * centerY;
-        double dst2 = Math.pow(centerX - getWidth(), 2) + centerY * centerY;
-        if (dst2 > greatestDst2){
-            greatestDst2 = dst2;
-        }
-        dst2 = centerX * centerX + Math.pow(centerY - getHeight(), 2);
-        if (dst2 > greatestDst2){
-            greatestDst2 = dst2;
-        }
-        dst2 = Math.pow(centerX - getWidth(), 2) + Math.pow(centerY - getHeight(), 2);
-        if (dst2 > greatestDst2){
-            greatestDst2 = dst2;
-        }
+        float farX = Math.max(centerX, getWidth() - centerX);
+        float farY = Math.max(centerY, getHeight() - centerY);
+        targetRadius = (float)Math.sqrt(farX * farX + farY * farY);
 
-        valueAnimator.setFloatValues(0, (float)Math.sqrt(greatestDst2));
-        valueAnimator.setDuration(ANIMATION_DURATION);
-        valueAnimator.start();
+        radius = 0;
+        AnimationTicker.start(getContext(), animationTarget, ANIMATION_DURATION);
     }
 
     @Override
@@ -122,27 +99,18 @@ public class ColorSwatch extends View {
         }
     }
 
-    Animator.AnimatorListener animatorListener = new Animator.AnimatorListener() {
+    private final AnimationTicker.Target animationTarget = new AnimationTicker.Target() {
         @Override
-        public void onAnimationStart(Animator animation) {
-
+        public void onAnimationUpdate(float fraction) {
+            radius = CovePrefsUtils.Curve.accelerateDecelerate(fraction) * targetRadius;
+            invalidate();
         }
 
         @Override
-        public void onAnimationEnd(Animator animation) {
+        public void onAnimationEnd() {
             color = nextColor;
             invalidate();
         }
-
-        @Override
-        public void onAnimationCancel(Animator animation) {
-
-        }
-
-        @Override
-        public void onAnimationRepeat(Animator animation) {
-
-        }
     };
 
     private static int withDisabledAlpha(int color) {
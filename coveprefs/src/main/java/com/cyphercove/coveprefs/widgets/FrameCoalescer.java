@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.view.Choreographer;
+
+/**
+ * Runs an action at most once per display frame, no matter how many times it is scheduled before that frame. Must
+ * only be used from the main thread.
+ */
+final class FrameCoalescer implements Choreographer.FrameCallback {
+    private final Runnable action;
+    private boolean scheduled;
+
+    FrameCoalescer (Runnable action){
+        this.action = action;
+    }
+
+    /** Runs the action on the next frame, unless it is already scheduled. */
+    void schedule (){
+        if (!scheduled) {
+            scheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /** Drops a scheduled run of the action. */
+    void cancel (){
+        if (scheduled) {
+            scheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame (long frameTimeNanos){
+        scheduled = false;
+        action.run();
+    }
+}
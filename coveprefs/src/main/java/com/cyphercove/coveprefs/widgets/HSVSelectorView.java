@@ -15,19 +15,20 @@
  */
 package com.cyphercove.coveprefs.widgets;
 
-import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.*;
 import android.os.Build;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewOutlineProvider;
 import android.widget.FrameLayout;
 import com.cyphercove.coveprefs.R;
+import com.cyphercove.coveprefs.utils.ColorMath;
 import com.cyphercove.coveprefs.utils.CovePrefsUtils;
+import com.cyphercove.coveprefs.utils.OkLab;
 
 public class HSVSelectorView extends FrameLayout {
     private static final long ANIMATION_DURATION = 300;
@@ -38,11 +39,23 @@ public class HSVSelectorView extends FrameLayout {
 
     OnColorChangedListener mListener;
 
+    /** Hue, saturation and value, or in OKLCH mode, hue, chroma fraction and lightness. */
     private float[] hsvSelected = {0f, 0f, 0f};
+    private final float[] oklchScratch = new float[3];
+    private boolean perceptual;
     private float[] hsvOld = {0f, 0f, 0f}, hsvAnimationOut = {0f, 0f, 0f};
-    private ValueAnimator valueAnimator;
+    private final AnimationTicker.Target animationTarget;
     private SaturationValueSelectorView svView;
     private HueSelectorView hueView;
+    private final ViewOffsetCache viewOffsets = new ViewOffsetCache(this);
+    private float pendingMoveX, pendingMoveY;
+    private final FrameCoalescer moveCoalescer = new FrameCoalescer(new Runnable() {
+        @Override
+        public void run() {
+            if (mListener != null)
+                mListener.onColorChanged(HSVSelectorView.this, getColor(), false, pendingMoveX, pendingMoveY);
+        }
+    });
 
     public HSVSelectorView(Context context) {
         this(context, null);
@@ -56,21 +69,16 @@ public class HSVSelectorView extends FrameLayout {
         super(context, attrs, defStyleAttr);
 
         if (isInEditMode()) {
-            Color.colorToHSV(0xFF45FAA6, hsvSelected);
+            ColorMath.colorToHSV(0xFF45FAA6, hsvSelected);
         }
 
-        final TypedArray a = context.obtainStyledAttributes(attrs,
-                R.styleable.CovePrefs_ColorPicker, defStyleAttr, R.style.CovePrefsColorPicker);
-        final int cornerRadii = a.getDimensionPixelSize(R.styleable.CovePrefs_ColorPicker_coveprefs_colorPickerCornerRadii, 1);
-        a.recycle();
+        final int cornerRadii = ResolvedStyles.colorPicker(context, attrs, defStyleAttr).cornerRadii;
 
-        valueAnimator = new ValueAnimator();
-        // animate SVView's hue in opposite direction, shortest path
-        // animate SVView's hue in opposite direction, shortest path
-        ValueAnimator.AnimatorUpdateListener animatorUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
+        animationTarget = new AnimationTicker.Target() {
             @Override
-            public void onAnimationUpdate (ValueAnimator animation) {
-                float fraction = CovePrefsUtils.Curve.slowInSlowOut(valueAnimator.getAnimatedFraction());
+            public void onAnimationUpdate (float fraction) {
+                // slowInSlowOut on top of the accelerate/decelerate curve ValueAnimator used to apply
+                fraction = CovePrefsUtils.Curve.slowInSlowOut(CovePrefsUtils.Curve.accelerateDecelerate(fraction));
 
                 for (int i = 0; i < hsvOld.length; i++) {
                     hsvAnimationOut[i] = fraction * (hsvSelected[i] - hsvOld[i]) + hsvOld[i];
@@ -83,9 +91,11 @@ public class HSVSelectorView extends FrameLayout {
                 else
                     toViews(hsvAnimationOut);
             }
+
+            @Override
+            public void onAnimationEnd () {
+            }
         };
-        valueAnimator.addUpdateListener(animatorUpdateListener);
-        valueAnimator.setFloatValues(0, 1); // arbitrary, only using animation fraction
 
         final LayoutInflater inflater = (LayoutInflater) context.getSystemService(
                 Context.LAYOUT_INFLATER_SERVICE);
@@ -96,7 +106,7 @@ public class HSVSelectorView extends FrameLayout {
         svView = findViewById(R.id.coveprefs_saturationValueSelector);
         svView.setOnSaturationValueChangedListener(onSaturationValueChangedListener);
 
-        if (Build.VERSION.SDK_INT > 21) {
+        if (Build.VERSION.SDK_INT >= 21) {
             applyOutlineProviders(cornerRadii);
         }
 
@@ -115,6 +125,9 @@ public class HSVSelectorView extends FrameLayout {
         };
         hueView.setOutlineProvider(viewOutlineProvider);
         svView.setOutlineProvider(viewOutlineProvider);
+        // Clipping to a round rect outline is done by the renderer, which is much cheaper than clipPath in onDraw.
+        hueView.setClipToOutline(true);
+        svView.setClipToOutline(true);
         CovePrefsUtils.clearAncestorOutlineClipping(hueView, this);
         CovePrefsUtils.clearAncestorOutlineClipping(svView, this);
     }
@@ -136,7 +149,35 @@ public class HSVSelectorView extends FrameLayout {
     }
 
     public int getColor() {
-        return Color.HSVToColor(hsvSelected);
+        if (perceptual)
+            return OkLab.oklchToColor(hsvSelected[2], hsvSelected[1] * OklchPlanes.CHROMA_RANGE, hsvSelected[0]);
+        return ColorMath.HSVToColor(hsvSelected, 0);
+    }
+
+    /**
+     * Sets whether the selectors pick from OKLCH lightness, chroma and hue instead of HSV. The current color is kept.
+     * In OKLCH mode, the values of {@link #getHSV(float[])} and {@link #setHSV(float, float, float)} are hue, the
+     * fraction of {@link OklchPlanes#CHROMA_RANGE}, and lightness.
+     */
+    void setPerceptual(boolean perceptual) {
+        if (this.perceptual == perceptual)
+            return;
+        int color = getColor();
+        this.perceptual = perceptual;
+        hueView.setPerceptual(perceptual);
+        svView.setPerceptual(perceptual);
+        setColor(color, false);
+    }
+
+    private void colorToSelection(int color, float[] out) {
+        if (perceptual) {
+            OkLab.colorToOklch(color, oklchScratch, 0);
+            out[0] = oklchScratch[2];
+            out[1] = Math.min(1f, oklchScratch[1] / OklchPlanes.CHROMA_RANGE);
+            out[2] = oklchScratch[0];
+        } else {
+            ColorMath.colorToHSV(color, out);
+        }
     }
 
     /**
@@ -145,9 +186,9 @@ public class HSVSelectorView extends FrameLayout {
      * @param animated Whether to animate the color change.
      */
     public void setColor(int color, boolean animated) {
-        boolean wasAnimating = valueAnimator.isRunning();
+        boolean wasAnimating = AnimationTicker.isRunning(animationTarget);
         if (wasAnimating) {
-            valueAnimator.cancel();
+            AnimationTicker.cancel(animationTarget);
         }
         if (animated) {
             for (int i = 0; i < hsvOld.length; i++) {
@@ -156,15 +197,14 @@ public class HSVSelectorView extends FrameLayout {
                 else
                     hsvOld[i] = hsvAnimationOut[i] = hsvSelected[i];
             }
-            Color.colorToHSV(color, hsvSelected);
+            colorToSelection(color, hsvSelected);
             if (hsvSelected[1] == 0)
                 hsvSelected[0] = hsvOld[0];
             toViews(hsvOld);
-            valueAnimator.setDuration(ANIMATION_DURATION);
-            valueAnimator.start();
+            AnimationTicker.start(getContext(), animationTarget, ANIMATION_DURATION);
         } else {
             float oldHue = hsvSelected[0];
-            Color.colorToHSV(color, hsvSelected);
+            colorToSelection(color, hsvSelected);
             if (hsvSelected[1] == 0)
                 hsvSelected[0] = oldHue;
             toViews(hsvSelected);
@@ -172,6 +212,26 @@ public class HSVSelectorView extends FrameLayout {
         invalidate();
     }
 
+    /**
+     * Copies the exact selected hue, saturation and value, which can't always be recovered from the color.
+     * @param out An array of at least length 3 to copy the values into.
+     */
+    void getHSV(float[] out) {
+        System.arraycopy(hsvSelected, 0, out, 0, 3);
+    }
+
+    /**
+     * Sets the exact selection without animation, without triggering the listener callback.
+     */
+    void setHSV(float hue, float saturation, float value) {
+        AnimationTicker.cancel(animationTarget);
+        hsvSelected[0] = hue;
+        hsvSelected[1] = saturation;
+        hsvSelected[2] = value;
+        toViews(hsvSelected);
+        invalidate();
+    }
+
     private void toViews(float[] hsv) {
         hueView.setHue(hsv[0]);
         svView.setColor(hsv[0], hsv[1], hsv[2]);
@@ -189,27 +249,45 @@ public class HSVSelectorView extends FrameLayout {
         this.mListener = listener;
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        moveCoalescer.cancel();
+    }
+
+    /**
+     * Notifies the listener of a touch on one of the selectors. Moves are coalesced and dispatched at most once per
+     * frame, since input can arrive faster than the display refreshes and each dispatch updates the whole picker. Other
+     * actions are dispatched immediately, replacing any pending move.
+     */
+    private void dispatchColorChanged(View view, int action, float localX, float localY) {
+        if (mListener == null)
+            return;
+        pendingMoveX = viewOffsets.getRelativeX(view) + localX;
+        pendingMoveY = viewOffsets.getRelativeY(view) + localY;
+        if (action == MotionEvent.ACTION_MOVE) {
+            moveCoalescer.schedule();
+        } else {
+            moveCoalescer.cancel();
+            mListener.onColorChanged(this, getColor(), action == MotionEvent.ACTION_DOWN, pendingMoveX, pendingMoveY);
+        }
+    }
+
     HueSelectorView.OnHueChangedListener onHueChangedListener = new HueSelectorView.OnHueChangedListener() {
         @Override
-        public void onHueChanged(HueSelectorView view, float newHue, boolean isFromTouchDown, float localX, float localY) {
+        public void onHueChanged(HueSelectorView view, float newHue, int action, float localX, float localY) {
             hsvSelected[0] = newHue;
             svView.setHue(newHue);
-            if (mListener != null)
-                mListener.onColorChanged(HSVSelectorView.this, getColor(), isFromTouchDown,
-                        CovePrefsUtils.getRelativeX(view, HSVSelectorView.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, HSVSelectorView.this) + localY);
+            dispatchColorChanged(view, action, localX, localY);
         }
     };
 
     SaturationValueSelectorView.OnSaturationValueChangedListener onSaturationValueChangedListener = new SaturationValueSelectorView.OnSaturationValueChangedListener() {
         @Override
-        public void onSaturationValueChanged(SaturationValueSelectorView view, float newSaturation, float newValue, boolean isFromTouchDown, int localX, int localY) {
+        public void onSaturationValueChanged(SaturationValueSelectorView view, float newSaturation, float newValue, int action, int localX, int localY) {
             hsvSelected[1] = newSaturation;
             hsvSelected[2] = newValue;
-            if (mListener != null)
-                mListener.onColorChanged(HSVSelectorView.this, getColor(), isFromTouchDown,
-                        CovePrefsUtils.getRelativeX(view, HSVSelectorView.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, HSVSelectorView.this) + localY);
+            dispatchColorChanged(view, action, localX, localY);
         }
     };
 
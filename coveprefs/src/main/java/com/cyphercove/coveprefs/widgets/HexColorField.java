@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.InputFilter;
+import android.text.InputType;
+import android.text.Spanned;
+import android.text.TextWatcher;
+import android.view.KeyEvent;
+import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputMethodManager;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import java.nio.CharBuffer;
+import java.util.Locale;
+
+/**
+ * Manages the hex color EditText of the color pickers. Colors are shown as six RGB digits. Six digits, or eight
+ * ARGB digits, can be entered; the alpha of entered colors is ignored since the pickers only use opaque colors.
+ * Eight digits are applied as soon as they are typed. Six digits could be the start of an ARGB color, so they are
+ * applied when the IME's done action is used or the field loses focus.
+ * <p>
+ * Showing a color formats it into a reused buffer and replaces the EditText's contents in place, and entered text is
+ * parsed by hand, so updating the field while dragging a selector doesn't allocate.
+ */
+final class HexColorField implements TextWatcher, InputFilter, TextView.OnEditorActionListener,
+        View.OnFocusChangeListener {
+
+    interface Listener {
+        /** Called when a complete color is entered. The color is opaque. */
+        void onHexColorEntered (int color);
+    }
+
+    private static final char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+    private static final int RGB_DIGITS = 6;
+    private static final int ARGB_DIGITS = 8;
+
+    private final EditText editText;
+    private final Listener listener;
+    private final char[] digits = new char[RGB_DIGITS];
+    private final CharBuffer digitsSequence = CharBuffer.wrap(digits);
+    private boolean watcherDisabled;
+    private int shownColor;
+
+    HexColorField (EditText editText, Listener listener){
+        this.editText = editText;
+        this.listener = listener;
+        editText.setFilters(new InputFilter[]{new InputFilter.LengthFilter(ARGB_DIGITS), this});
+        editText.setInputType(InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS | EditorInfo.IME_FLAG_NO_FULLSCREEN);
+        editText.setSingleLine();
+        editText.setImeOptions(EditorInfo.IME_ACTION_DONE);
+        editText.setOnFocusChangeListener(this);
+        editText.addTextChangedListener(this);
+        editText.setOnEditorActionListener(this);
+    }
+
+    /** Shows the color, without notifying the listener. */
+    void setColor (int color){
+        shownColor = color;
+        int rgb = color;
+        for (int i = RGB_DIGITS - 1; i >= 0; i--) {
+            digits[i] = HEX_DIGITS[rgb & 0xF];
+            rgb >>>= 4;
+        }
+        Editable text = editText.getText();
+        if (isShowingDigits(text))
+            return;
+        watcherDisabled = true;
+        text.replace(0, text.length(), digitsSequence);
+        watcherDisabled = false;
+    }
+
+    private boolean isShowingDigits (CharSequence text){
+        if (text.length() != RGB_DIGITS)
+            return false;
+        for (int i = 0; i < RGB_DIGITS; i++) {
+            if (text.charAt(i) != digits[i])
+                return false;
+        }
+        return true;
+    }
+
+    /** @return The color in the text, or 0 if it isn't a complete color. Opaque colors are never 0. */
+    private static int parse (CharSequence text){
+        int length = text.length();
+        if (length != RGB_DIGITS && length != ARGB_DIGITS)
+            return 0;
+        int color = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0)
+                return 0;
+            color = (color << 4) | digit;
+        }
+        return color | 0xFF000000;
+    }
+
+    /** Rejects changes that insert non-hex digits, and capitalizes letters. */
+    @Override
+    public CharSequence filter (CharSequence source, int start, int end, Spanned dest, int dstart, int dend){
+        boolean hasLowerCase = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (Character.digit(c, 16) == -1)
+                return "";
+            if (c >= 'a')
+                hasLowerCase = true;
+        }
+        if (!hasLowerCase)
+            return null;
+        return source.subSequence(start, end).toString().toUpperCase(Locale.US);
+    }
+
+    @Override
+    public void afterTextChanged (Editable s){
+        if (watcherDisabled || s.length() != ARGB_DIGITS)
+            return;
+        int color = parse(s);
+        if (color != 0) {
+            shownColor = color;
+            listener.onHexColorEntered(color);
+        }
+    }
+
+    @Override
+    public void beforeTextChanged (CharSequence s, int start, int count, int after){
+    }
+
+    @Override
+    public void onTextChanged (CharSequence s, int start, int before, int count){
+    }
+
+    @Override
+    public boolean onEditorAction (TextView v, int actionId, KeyEvent event){
+        if (actionId == EditorInfo.IME_ACTION_DONE)
+            applyEntry();
+        return false; // allow default keyboard close action
+    }
+
+    @Override
+    public void onFocusChange (View v, boolean hasFocus){
+        if (!hasFocus) {
+            applyEntry();
+            // auto-hide keyboard when focus lost
+            ((InputMethodManager)v.getContext().getSystemService(Context.INPUT_METHOD_SERVICE))
+                    .hideSoftInputFromWindow(v.getWindowToken(), 0);
+        }
+    }
+
+    /**
+     * Notifies the listener of the entered color if it is complete and not already shown. Then shows the color as six
+     * digits, which restores the shown color if the entry was invalid.
+     */
+    private void applyEntry (){
+        int color = parse(editText.getText());
+        if (color != 0 && color != shownColor) {
+            shownColor = color;
+            listener.onHexColorEntered(color);
+        }
+        setColor(shownColor);
+    }
+}
@@ -15,31 +15,41 @@
  */
 package com.cyphercove.coveprefs.widgets;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.*;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.util.LruCache;
 import android.view.MotionEvent;
 import android.view.SoundEffectConstants;
 import android.view.View;
-import com.cyphercove.coveprefs.R;
+import com.cyphercove.coveprefs.utils.OkLab;
 
 public class HueSelectorView extends View {
-    private static final int MISSING_COLOR = Color.MAGENTA;
 
     interface OnHueChangedListener {
-        void onHueChanged(HueSelectorView view, float newHue, boolean isFromTouchDown, float localX, float localY);
+        /** @param action The masked {@link MotionEvent} action that changed the hue. */
+        void onHueChanged(HueSelectorView view, float newHue, int action, float localX, float localY);
     }
 
     OnHueChangedListener listener;
 
-    private Paint huePaint, selectorPaint, disabledPaint;
-    private Path roundCornersMask;
-    private final int[] hues= new int[] {0xFFFF0000, 0xFFFFFF00, 0xFF00FF00, 0xFF00FFFF, 0xFF0000FF, 0xFFFF00FF, 0xFFFF0000};
+    private static final int[] HUES = {0xFFFF0000, 0xFFFFFF00, 0xFF00FF00, 0xFF00FFFF, 0xFF0000FF, 0xFFFF00FF, 0xFFFF0000};
+    private static final int HUE_STRIP_CACHE_BYTES = 3 * 1024 * 1024;
+    private static final float OKLCH_STRIP_LIGHTNESS = 0.75f;
+    private static final float OKLCH_STRIP_CHROMA = 0.15f;
+
+    /** Rendered hue strips, keyed by size, corner radius and color model, shared by all instances. */
+    private static final LruCache<String, Bitmap> hueStrips = new LruCache<String, Bitmap>(HUE_STRIP_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getRowBytes() * value.getHeight();
+        }
+    };
+
+    private Paint selectorPaint, disabledPaint;
+    private Bitmap hueStrip;
+    private boolean perceptual;
 
     private int cornerRadii;
     private int naturalHeight;
@@ -57,25 +67,11 @@ public class HueSelectorView extends View {
     public HueSelectorView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        final TypedArray a = context.obtainStyledAttributes(attrs,
-                R.styleable.CovePrefs_ColorPicker, defStyleAttr, R.style.CovePrefsColorPicker);
-        final ColorStateList indicatorColors = a.getColorStateList(R.styleable.CovePrefs_ColorPicker_coveprefs_selectorColor);
-        cornerRadii = a.getDimensionPixelSize(R.styleable.CovePrefs_ColorPicker_coveprefs_colorPickerCornerRadii, 1);
-        a.recycle();
-
-        final int selectorActivatedColor;
-        if (indicatorColors != null) {
-            selectorActivatedColor = indicatorColors.getColorForState(View.ENABLED_STATE_SET, MISSING_COLOR);
-        }  else {
-            selectorActivatedColor = MISSING_COLOR;
-        }
-
-        final Resources res = getResources();
-        naturalHeight = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_natural_height);
-        int selectorStrokeWidth = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_selector_stroke_width);
-
-        huePaint = new Paint(Paint.DITHER_FLAG);
-        huePaint.setStyle(Paint.Style.STROKE);
+        final ResolvedStyles.ColorPickerStyle style = ResolvedStyles.colorPicker(context, attrs, defStyleAttr);
+        cornerRadii = style.cornerRadii;
+        final int selectorActivatedColor = style.selectorColor;
+        naturalHeight = style.hsvNaturalHeight;
+        int selectorStrokeWidth = style.hsvSelectorStrokeWidth;
 
         selectorPaint = new Paint();
         selectorPaint.setColor(selectorActivatedColor);
@@ -85,10 +81,6 @@ public class HueSelectorView extends View {
         disabledPaint = new Paint();
         disabledPaint.setColor(0xAA808080);
         disabledPaint.setStyle(Paint.Style.FILL);
-
-        if (Build.VERSION.SDK_INT >= 21){
-            roundCornersMask = new Path();
-        }
     }
 
     public float getHue(){
@@ -106,33 +98,26 @@ public class HueSelectorView extends View {
     	this.listener = listener;
     }
     
-    private static float getHue(int color){
-    	float[] hsv={0f,0f,0f};
-    	Color.colorToHSV(color, hsv);
-    	return hsv[0];
-    }
-
     @Override 
     protected void onDraw(Canvas canvas) {
-        if (roundCornersMask != null){
-            canvas.clipPath(roundCornersMask);
+        if (hueStrip != null) {
+            canvas.drawBitmap(hueStrip, 0, 0, null);
         }
 
-        int hueStripCenterX = getWidth() / 2;
-        canvas.drawLine(hueStripCenterX, 0, hueStripCenterX, getHeight(), huePaint);
-
         if (isEnabled()) {
             float hueSelectorHeight = currentHue / 360f * getHeight();
             canvas.drawLine(0, hueSelectorHeight, getWidth(), hueSelectorHeight, selectorPaint);
         } else {
             canvas.drawRect(0, 0, getWidth(), getHeight(), disabledPaint);
         }
+        InputLatencyProbe.onDraw(InputLatencyProbe.WIDGET_HUE, this);
     }
     
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (!isEnabled())
             return false;
+        InputLatencyProbe.onInput(InputLatencyProbe.WIDGET_HUE, event);
         float x = event.getX();
         float y = event.getY();
 
@@ -156,7 +141,7 @@ public class HueSelectorView extends View {
         }
         if (listener !=null){
         	listener.onHueChanged(this, currentHue,
-                    event.getAction() == MotionEvent.ACTION_DOWN, (int)x, (int)y);
+                    event.getActionMasked(), (int)x, (int)y);
         }
         
         return true;
@@ -168,15 +153,46 @@ public class HueSelectorView extends View {
             return;
         }
 
-        @SuppressLint("DrawAllocation")
-        Shader hueShader = new LinearGradient(0, 0, 0, getHeight(), hues, null, Shader.TileMode.CLAMP);
-        huePaint.setShader(hueShader);
-        huePaint.setStrokeWidth(getWidth());
+        updateHueStrip();
+    }
+
+    /** Sets whether the strip shows OKLCH hues instead of HSV hues. */
+    void setPerceptual (boolean perceptual){
+        if (this.perceptual == perceptual)
+            return;
+        this.perceptual = perceptual;
+        updateHueStrip();
+        invalidate();
+    }
+
+    private void updateHueStrip (){
+        // Corners were never rounded before API 21, so keep the strip square there too.
+        hueStrip = getHueStrip(getWidth(), getHeight(), Build.VERSION.SDK_INT >= 21 ? cornerRadii : 0, perceptual);
+    }
 
-        if (Build.VERSION.SDK_INT >= 21){
-            roundCornersMask.reset();
-            roundCornersMask.addRoundRect(0, 0, getWidth(), getHeight(), cornerRadii, cornerRadii, Path.Direction.CW);
+    private static Bitmap getHueStrip (int width, int height, int cornerRadius, boolean perceptual){
+        if (width <= 0 || height <= 0)
+            return null;
+        String key = width + "x" + height + "r" + cornerRadius + (perceptual ? "oklch" : "hsv");
+        Bitmap bitmap = hueStrips.get(key);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DITHER_FLAG);
+            if (perceptual) {
+                // OKLCH hues at a fixed lightness and chroma, as one column that the shader stretches across.
+                int[] column = new int[height];
+                for (int y = 0; y < height; y++) {
+                    column[y] = OkLab.oklchToColor(OKLCH_STRIP_LIGHTNESS, OKLCH_STRIP_CHROMA, y * 360f / height);
+                }
+                Bitmap columnBitmap = Bitmap.createBitmap(column, 1, height, Bitmap.Config.ARGB_8888);
+                paint.setShader(new BitmapShader(columnBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+            } else {
+                paint.setShader(new LinearGradient(0, 0, 0, height, HUES, null, Shader.TileMode.CLAMP));
+            }
+            new Canvas(bitmap).drawRoundRect(new RectF(0, 0, width, height), cornerRadius, cornerRadius, paint);
+            hueStrips.put(key, bitmap);
         }
+        return bitmap;
     }
 
     @Override
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.Window;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+
+/**
+ * Measures how long it takes from a touch on a color or rotary picker widget to the frame that shows its result.
+ * Disabled unless a listener is set with {@link #setListener(Listener)}. Must only be used from the main thread.
+ * <p>
+ * The latency of a frame is measured from the earliest touch event it reflects, using the event's timestamp, to the
+ * end of the frame. On API 26+, the end of the frame is read from {@link FrameMetrics} for windows passed to
+ * {@link #attachWindow(Window)}; CovePrefs dialogs are attached automatically. Otherwise, it is taken as the start of
+ * the next Choreographer frame, which slightly overestimates it. Touch event timestamps only have millisecond
+ * precision.
+ */
+public final class InputLatencyProbe {
+    private InputLatencyProbe (){
+    }
+
+    // Make sure WIDGET_COUNT is kept in sync.
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({WIDGET_SATURATION_VALUE, WIDGET_HUE, WIDGET_ROTARY})
+    public @interface Widget {
+    }
+
+    /** The saturation/value (or lightness/chroma) plane of the color pickers. */
+    public static final int WIDGET_SATURATION_VALUE = 0;
+    /** The hue strip of the color pickers. */
+    public static final int WIDGET_HUE = 1;
+    /** The dial of the rotary picker. */
+    public static final int WIDGET_ROTARY = 2;
+    private static final int WIDGET_COUNT = 3;
+
+    private static final int MAX_FRAMES_IN_FLIGHT = 8;
+    /** Frames whose FrameMetrics haven't arrived by then are not counted. */
+    private static final long FRAME_METRICS_TIMEOUT_NANOS = 500000000L;
+
+    public interface Listener {
+        /**
+         * Called on the main thread after each touch gesture on a widget, once the frames it caused have been
+         * measured.
+         * @param histogram The latencies of all measured frames of the widget so far. It is updated in place, so it
+         *                  should not be kept after this call.
+         */
+        void onLatencyReport (@Widget int widget, @NonNull Histogram histogram);
+    }
+
+    /** A histogram of input-to-frame latencies with one millisecond buckets. */
+    public static final class Histogram {
+        private static final int MAX_BUCKET_MILLIS = 500;
+
+        /** The last bucket counts everything from {@link #MAX_BUCKET_MILLIS} up. */
+        private final int[] buckets = new int[MAX_BUCKET_MILLIS + 1];
+        private int count;
+        private long maxNanos;
+
+        Histogram (){
+        }
+
+        void record (long latencyNanos){
+            if (latencyNanos < 0)
+                latencyNanos = 0;
+            buckets[(int)Math.min(MAX_BUCKET_MILLIS, latencyNanos / 1000000L)]++;
+            count++;
+            maxNanos = Math.max(maxNanos, latencyNanos);
+        }
+
+        /** @return The number of frames measured. */
+        public int getCount (){
+            return count;
+        }
+
+        /**
+         * @param percentile The percentile, [0, 100].
+         * @return The latency in milliseconds that the percentile of frames were at or under, rounded up to a whole
+         * millisecond. 0 if no frames have been measured.
+         */
+        public float getPercentileMillis (float percentile){
+            if (count == 0)
+                return 0f;
+            int rank = Math.max(1, (int)Math.ceil(percentile / 100f * count));
+            int seen = 0;
+            for (int i = 0; i < MAX_BUCKET_MILLIS; i++) {
+                seen += buckets[i];
+                if (seen >= rank)
+                    return Math.min(i + 1, getMaxMillis());
+            }
+            return getMaxMillis();
+        }
+
+        /** @return The highest latency measured, in milliseconds. */
+        public float getMaxMillis (){
+            return maxNanos / 1000000f;
+        }
+
+        /** Clears all measurements. */
+        public void reset (){
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = 0;
+            }
+            count = 0;
+            maxNanos = 0;
+        }
+    }
+
+    /** FrameMetrics arrive a few frames late, so several drawn frames can be waiting for them. */
+    private static final class WidgetState {
+        final Histogram histogram = new Histogram();
+        /** The earliest touch not drawn yet, or -1. */
+        long pendingInputNanos = -1;
+        /** A queue of frames drawn but not measured yet: the earliest touch each one shows, and when it was drawn. */
+        final long[] drawnInputNanos = new long[MAX_FRAMES_IN_FLIGHT];
+        final long[] drawNanos = new long[MAX_FRAMES_IN_FLIGHT];
+        int drawnHead, drawnCount;
+        /** Where the metrics of the drawn frames come from, or null to use the next Choreographer frame. */
+        AttachedWindow window;
+        boolean gestureEnded;
+        long gestureEndNanos;
+
+        void addDrawn (long inputNanos, long drawTimeNanos){
+            if (drawnCount == MAX_FRAMES_IN_FLIGHT)
+                removeDrawn();
+            int index = (drawnHead + drawnCount) % MAX_FRAMES_IN_FLIGHT;
+            drawnInputNanos[index] = inputNanos;
+            drawNanos[index] = drawTimeNanos;
+            drawnCount++;
+        }
+
+        void removeDrawn (){
+            drawnHead = (drawnHead + 1) % MAX_FRAMES_IN_FLIGHT;
+            drawnCount--;
+        }
+
+        /** Counts the oldest drawn frame, ending at the given time. */
+        void recordDrawn (long frameEndNanos){
+            histogram.record(frameEndNanos - drawnInputNanos[drawnHead]);
+            removeDrawn();
+        }
+    }
+
+    @RequiresApi(26)
+    private static final class AttachedWindow implements Window.OnFrameMetricsAvailableListener {
+        final Window window;
+
+        AttachedWindow (Window window){
+            this.window = window;
+        }
+
+        @Override
+        public void onFrameMetricsAvailable (Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation){
+            long frameStartNanos = frameMetrics.getMetric(FrameMetrics.INTENDED_VSYNC_TIMESTAMP);
+            long frameEndNanos = frameStartNanos + frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+            for (WidgetState state : states) {
+                if (state.window != this)
+                    continue;
+                // Frames arrive in order. Ones drawn before this frame started must have been dropped.
+                while (state.drawnCount > 0 && state.drawNanos[state.drawnHead] <= frameEndNanos) {
+                    if (state.drawNanos[state.drawnHead] >= frameStartNanos)
+                        state.recordDrawn(frameEndNanos);
+                    else
+                        state.removeDrawn();
+                }
+            }
+        }
+    }
+
+    private static final WidgetState[] states = new WidgetState[WIDGET_COUNT];
+    private static final ArrayList<AttachedWindow> windows = new ArrayList<>();
+    private static Listener listener;
+    private static Handler mainHandler;
+    private static boolean frameScheduled;
+
+    static {
+        for (int i = 0; i < WIDGET_COUNT; i++) {
+            states[i] = new WidgetState();
+        }
+    }
+
+    private static final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame (long frameTimeNanos) {
+            frameScheduled = false;
+            boolean waiting = false;
+            for (int i = 0; i < WIDGET_COUNT; i++) {
+                WidgetState state = states[i];
+                while (state.drawnCount > 0 && frameTimeNanos > state.drawNanos[state.drawnHead]) {
+                    // A frame that starts after a draw is the first one that can't have included it.
+                    if (state.window == null)
+                        state.recordDrawn(frameTimeNanos);
+                    else if (frameTimeNanos - state.drawNanos[state.drawnHead] > FRAME_METRICS_TIMEOUT_NANOS)
+                        state.removeDrawn();
+                    else
+                        break;
+                }
+                if (state.gestureEnded && state.drawnCount == 0 && frameTimeNanos > state.gestureEndNanos) {
+                    state.gestureEnded = false;
+                    state.pendingInputNanos = -1; // The last touches didn't change anything.
+                    if (listener != null)
+                        listener.onLatencyReport(i, state.histogram);
+                }
+                waiting |= state.drawnCount > 0 || state.gestureEnded;
+            }
+            if (waiting)
+                scheduleFrame();
+        }
+    };
+
+    /**
+     * Enables or disables latency measurement.
+     * @param listener Receives the measurements, or null to disable measuring.
+     */
+    public static void setListener (@Nullable Listener listener){
+        InputLatencyProbe.listener = listener;
+        if (listener == null) {
+            for (WidgetState state : states) {
+                state.pendingInputNanos = -1;
+                state.drawnCount = 0;
+                state.gestureEnded = false;
+            }
+        }
+    }
+
+    /** Clears the measurements of all widgets. */
+    public static void reset (){
+        for (WidgetState state : states) {
+            state.histogram.reset();
+        }
+    }
+
+    /**
+     * Measures frames of widgets in the window with {@link FrameMetrics}. Has no effect below API 26, or if no listener
+     * is set. Remove it with {@link #detachWindow(Window)} before it is destroyed.
+     */
+    public static void attachWindow (@NonNull Window window){
+        if (Build.VERSION.SDK_INT < 26 || listener == null || findWindow(window) >= 0)
+            return;
+        if (mainHandler == null)
+            mainHandler = new Handler(Looper.getMainLooper());
+        AttachedWindow attachedWindow = new AttachedWindow(window);
+        window.addOnFrameMetricsAvailableListener(attachedWindow, mainHandler);
+        windows.add(attachedWindow);
+    }
+
+    public static void detachWindow (@NonNull Window window){
+        if (Build.VERSION.SDK_INT < 26)
+            return;
+        int index = findWindow(window);
+        if (index < 0)
+            return;
+        AttachedWindow attachedWindow = windows.remove(index);
+        window.removeOnFrameMetricsAvailableListener(attachedWindow);
+        for (WidgetState state : states) {
+            if (state.window == attachedWindow) {
+                state.window = null;
+                state.drawnCount = 0;
+            }
+        }
+    }
+
+    private static int findWindow (Window window){
+        for (int i = 0; i < windows.size(); i++) {
+            if (windows.get(i).window == window)
+                return i;
+        }
+        return -1;
+    }
+
+    /** Called by a widget for each touch event it handles. */
+    static void onInput (@Widget int widget, MotionEvent event){
+        if (listener == null)
+            return;
+        WidgetState state = states[widget];
+        if (state.pendingInputNanos < 0)
+            state.pendingInputNanos = event.getEventTime() * 1000000L;
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            state.gestureEnded = true;
+            state.gestureEndNanos = System.nanoTime();
+            scheduleFrame();
+        }
+    }
+
+    /** Called by a widget when it draws. */
+    static void onDraw (@Widget int widget, View view){
+        if (listener == null)
+            return;
+        WidgetState state = states[widget];
+        if (state.pendingInputNanos < 0)
+            return;
+        AttachedWindow window = null;
+        if (Build.VERSION.SDK_INT >= 26 && !windows.isEmpty()) {
+            View rootView = view.getRootView();
+            for (int i = 0; i < windows.size(); i++) {
+                if (windows.get(i).window.peekDecorView() == rootView) {
+                    window = windows.get(i);
+                    break;
+                }
+            }
+        }
+        if (window != state.window) {
+            state.window = window;
+            state.drawnCount = 0;
+        }
+        state.addDrawn(state.pendingInputNanos, System.nanoTime());
+        state.pendingInputNanos = -1;
+        scheduleFrame();
+    }
+
+    private static void scheduleFrame (){
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+}
@@ -18,32 +18,30 @@ package com.cyphercove.coveprefs.widgets;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Configuration;
-import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.os.Build;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.widget.ImageViewCompat;
 import androidx.viewpager.widget.PagerAdapter;
 import androidx.viewpager.widget.ViewPager;
 import androidx.appcompat.widget.AppCompatImageButton;
-import android.text.*;
 import android.util.AttributeSet;
 import android.util.TypedValue;
-import android.view.KeyEvent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.inputmethod.EditorInfo;
-import android.view.inputmethod.InputMethodManager;
 import android.widget.*;
 import com.cyphercove.coveprefs.R;
 import com.cyphercove.coveprefs.utils.CovePrefsUtils;
 import com.cyphercove.coveprefs.utils.MultiColor;
 
+import java.util.ArrayList;
+
 /**
  */
 public class MultiColorPicker extends FrameLayout {
-    private static final int MISSING_COLOR = Color.MAGENTA;
 
     public interface OnMultiColorChangedListener {
         void onColorChanged(MultiColor multiColor);
@@ -57,10 +55,12 @@ public class MultiColorPicker extends FrameLayout {
     private HSVSelectorView hsvView;
     private View hexHashMark;
     private EditText hexEditText;
-    private boolean hexEditTextWatcherDisabled;
+    private HexColorField hexField;
     private ViewPager headerViewPager;
     private ImageButton prevButton, nextButton;
     private ColorCacheView colorCacheView;
+    private HorizontalScrollView widgetsScroller;
+    private final ViewOffsetCache viewOffsets = new ViewOffsetCache(this);
     private OnMultiColorChangedListener listener;
     private OnActiveIndexChangedListener indexListener;
     private int currentWidgetsColor;
@@ -74,10 +74,19 @@ public class MultiColorPicker extends FrameLayout {
     private int headerTextAppearanceId, headerDisabledBackgroundColor;
 
     private static class HeaderItem {
-        ColorSwatch colorSwatch;
-        TextView textView;
+        final int type;
+        final ColorSwatch colorSwatch;
+        final TextView textView;
+
+        HeaderItem (int type, ColorSwatch colorSwatch, TextView textView){
+            this.type = type;
+            this.colorSwatch = colorSwatch;
+            this.textView = textView;
+        }
     }
-    private HeaderItem[][] headerItems;
+    /** The header items of the instantiated pages, indexed by color slot, so a slot's views can be updated without
+     * visiting every type's. */
+    private final ArrayList<ArrayList<HeaderItem>> headerItemsBySlot = new ArrayList<>();
 
     public MultiColorPicker(Context context) {
         this(context, null);
@@ -90,19 +99,16 @@ public class MultiColorPicker extends FrameLayout {
     public MultiColorPicker(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        final TypedArray a = context.obtainStyledAttributes(attrs,
-                R.styleable.CovePrefs_ColorPicker, defStyleAttr, R.style.CovePrefsColorPicker);
-        headerDisabledBackgroundColor = a.getColor(R.styleable.CovePrefs_ColorPicker_coveprefs_multiColorPickerHeaderDisabledColor, MISSING_COLOR);
-        headerTextAppearanceId = a.getResourceId(
-                R.styleable.CovePrefs_ColorPicker_coveprefs_headerTextAppearance, 0);
-        ColorStateList headerIconColorStateList = a.getColorStateList(R.styleable.CovePrefs_ColorPicker_coveprefs_headerIconButtonColor);
-        a.recycle();
+        final ResolvedStyles.ColorPickerStyle style = ResolvedStyles.colorPicker(context, attrs, defStyleAttr);
+        headerDisabledBackgroundColor = style.headerDisabledBackgroundColor;
+        headerTextAppearanceId = style.headerTextAppearanceId;
+        ColorStateList headerIconColorStateList = style.headerIconColorStateList;
+        boolean inflateLayout = style.inflateLayout;
 
         inflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        inflater.inflate(R.layout.coveprefs_color_picker, this);
+        ColorPickerLayout layout = ColorPickerLayout.create(this, true, inflateLayout);
 
-        findViewById(R.id.coveprefs_multicolor_header).setVisibility(View.VISIBLE);
-        headerViewPager = findViewById(R.id.coveprefs_pager_swatch);
+        headerViewPager = layout.headerViewPager;
         headerViewPager.setAdapter(headerAdapter);
         headerViewPager.setFocusableInTouchMode(true); // Allow touch to unfocus the hexEditText so keyboard closes
         headerViewPager.addOnPageChangeListener(new ViewPager.OnPageChangeListener() {
@@ -130,7 +136,7 @@ public class MultiColorPicker extends FrameLayout {
             }
         });
 
-        prevButton = findViewById(R.id.coveprefs_prev);
+        prevButton = layout.prevButton;
         if (headerIconColorStateList != null && prevButton instanceof AppCompatImageButton)
             ImageViewCompat.setImageTintList(prevButton, headerIconColorStateList);
         prevButton.setOnClickListener(new OnClickListener() {
@@ -142,7 +148,7 @@ public class MultiColorPicker extends FrameLayout {
             }
         });
 
-        nextButton = findViewById(R.id.coveprefs_next);
+        nextButton = layout.nextButton;
         if (headerIconColorStateList != null && nextButton instanceof AppCompatImageButton)
             ImageViewCompat.setImageTintList(prevButton, headerIconColorStateList);
         nextButton.setOnClickListener(new OnClickListener() {
@@ -154,100 +160,64 @@ public class MultiColorPicker extends FrameLayout {
             }
         });
 
-        hsvView = findViewById(R.id.coveprefs_hsv);
+        hsvView = layout.hsvView;
         HSVSelectorView.OnColorChangedListener onHSVColorSelectedListener = new HSVSelectorView.OnColorChangedListener() {
             @Override
             public void onColorChanged (HSVSelectorView view, int newColor, boolean isFromTouchDown, float localX, float localY) {
                 setWidgetsColor(newColor, false, true, false, isFromTouchDown,
-                        CovePrefsUtils.getRelativeX(view, MultiColorPicker.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, MultiColorPicker.this) + localY);
+                        viewOffsets.getRelativeX(view) + localX,
+                        viewOffsets.getRelativeY(view) + localY);
             }
         };
         hsvView.setOnColorChangedListener(onHSVColorSelectedListener);
         hsvView.setFocusableInTouchMode(true); // Allow touch to unfocus the hexEditText so keyboard closes
-        CovePrefsUtils.clearAncestorOutlineClipping(hsvView, this);
 
-        hexHashMark = findViewById(R.id.coveprefs_hex_hashmark);
-        hexEditText = findViewById(R.id.coveprefs_hex);
-        InputFilter hexInputFilter = new InputFilter() {
-            // Rejects changes that insert non-hex digits.
+        hexHashMark = layout.hexHashMark;
+        hexEditText = layout.hexEditText;
+        hexField = new HexColorField(hexEditText, new HexColorField.Listener() {
             @Override
-            public CharSequence filter (CharSequence source, int start, int end, Spanned dest, int dstart, int dend) {
-                for (int i = start; i < end; i++) {
-                    if (Character.digit(source.charAt(i), 16) == -1) {
-                        return "";
-                    }
-                }
-                return null;
-            }
-        };
-        InputFilter[] inputFilters = {new InputFilter.LengthFilter(6), hexInputFilter, new InputFilter.AllCaps()};
-        hexEditText.setFilters(inputFilters);
-        hexEditText.setInputType(InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS | EditorInfo.IME_FLAG_NO_FULLSCREEN);
-        hexEditText.setSingleLine();
-        hexEditText.setImeOptions(EditorInfo.IME_ACTION_DONE);
-        hexEditText.setOnFocusChangeListener(new OnFocusChangeListener() { // auto-hide keyboard when focus lost
-            public void onFocusChange(View v, boolean hasFocus) {
-                if (v == hexEditText) {
-                    if (!hasFocus)
-                        ((InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE))
-                                .hideSoftInputFromWindow(hexEditText.getWindowToken(), 0);
-                }
-            }
-        });
-        hexEditText.addTextChangedListener(new TextWatcher(){
-            @Override
-            public void afterTextChanged(Editable s) {
-                if (hexEditTextWatcherDisabled) return;
-                if (s.length() == 6){
-                    int color = Color.parseColor("#" + s.toString());
-                    setWidgetsColor(color, false, false, true, true,
-                            CovePrefsUtils.getRelativeX(hexEditText, MultiColorPicker.this) + hexEditText.getWidth(),
-                            CovePrefsUtils.getRelativeY(hexEditText, MultiColorPicker.this) + hexEditText.getHeight() / 2f);
-                }
-            }
-            public void beforeTextChanged(CharSequence s, int start, int count, int after){}
-            public void onTextChanged(CharSequence s, int start, int before, int count){}
-        });
-        hexEditText.setOnEditorActionListener(new TextView.OnEditorActionListener() {
-            @Override
-            public boolean onEditorAction(TextView v, int actionId, KeyEvent event) {
-                // Restore shown value if invalid value entered
-                if ((actionId == EditorInfo.IME_ACTION_DONE && v.getText().length() != 6)) {
-                    setHexEditTextColorWithoutPropagation(currentWidgetsColor);
-                }
-                return false; // allow default keyboard close action
+            public void onHexColorEntered (int color) {
+                setWidgetsColor(color, false, false, true, true,
+                        viewOffsets.getRelativeX(hexEditText) + hexEditText.getWidth(),
+                        viewOffsets.getRelativeY(hexEditText) + hexEditText.getHeight() / 2f);
             }
         });
 
-        colorCacheView = findViewById(R.id.coveprefs_colorcache);
+        colorCacheView = layout.colorCacheView;
         // avoid allowing focus jump back to EditText when buttons are pressed
         ColorCacheView.OnColorSelectedListener onColorCacheSelectedListener = new ColorCacheView.OnColorSelectedListener() {
             @Override
             public void onColorChanged (Button view, int newColor, float localX, float localY) {
                 setWidgetsColor(newColor, false, false, false, true,
-                        CovePrefsUtils.getRelativeX(view, MultiColorPicker.this) + localX,
-                        CovePrefsUtils.getRelativeY(view, MultiColorPicker.this) + localY);
+                        viewOffsets.getRelativeX(view) + localX,
+                        viewOffsets.getRelativeY(view) + localY);
                 hsvView.requestFocus(); // avoid allowing focus jump back to EditText when buttons are pressed
             }
         };
         colorCacheView.setOnColorSelectedListener(onColorCacheSelectedListener);
-        CovePrefsUtils.clearAncestorOutlineClipping(colorCacheView, this);
+
+        widgetsScroller = layout.widgetsScroller;
 
         headerShadowRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1.5f,
                 getContext().getResources().getDisplayMetrics());
     }
 
-    private void setHexEditTextColorWithoutPropagation (int color){
-        hexEditTextWatcherDisabled = true;
-        hexEditText.setText(String.format("%06X", (0xFFFFFF & color)));
-        hexEditTextWatcherDisabled = false;
-    }
-
     /** Sets the multi color. The passed object is copied and not modified.
      * @param activeIndex The color slot for the MultiColor's current type that should be selected.
      * @param multiColor  The MultiColor to set. */
     public void setMultiColorValue(int activeIndex, MultiColor multiColor) {
+        setMultiColorValue(activeIndex, multiColor, null);
+    }
+
+    /** Sets the multi color and puts the widgets back in a state saved with {@link #getPickerState()}. The passed
+     * object is copied and not modified.
+     * @param multiColor The MultiColor to set, which should be the value the picker had when the state was saved.
+     * @param state The saved state. */
+    public void setMultiColorValue(MultiColor multiColor, @NonNull ColorPickerState state) {
+        setMultiColorValue(state.activeIndex, multiColor, state);
+    }
+
+    private void setMultiColorValue(int activeIndex, MultiColor multiColor, @Nullable ColorPickerState state) {
         this.multiColor = new MultiColor(multiColor);
         int valueCount = multiColor.getValueCount();
         setWidgetsEnabled(valueCount != 0);
@@ -256,20 +226,34 @@ public class MultiColorPicker extends FrameLayout {
         this.activeIndex = activeIndex;
 
         int activeColor = multiColor.getValues()[activeIndex];
-        hsvView.setColor(activeColor, false);
-        setHexEditTextColorWithoutPropagation(activeColor);
-
-        headerViewPager.setOffscreenPageLimit(multiColor.definition.getTypeCount());
-        headerItems = new HeaderItem[multiColor.definition.getTypeCount()][];
-        for (int i = 0; i < headerItems.length; i++) {
-            headerItems[i] = new HeaderItem[multiColor.definition.getValueCount(i)];
-            for (int j = 0; j < headerItems[i].length; j++) {
-                headerItems[i][j] = new HeaderItem();
-            }
+        currentWidgetsColor = activeColor;
+        if (state != null)
+            hsvView.setHSV(state.hue, state.saturation, state.value);
+        else
+            hsvView.setColor(activeColor, false);
+        hexField.setColor(activeColor);
+
+        for (ArrayList<HeaderItem> slotItems : headerItemsBySlot) {
+            slotItems.clear();
         }
         headerAdapter.notifyDataSetChanged();
-        headerViewPager.setCurrentItem(multiColor.getType());
+        int typeCount = multiColor.definition.getTypeCount();
+        int page = state != null && state.page < typeCount ? state.page : multiColor.getType();
+        headerViewPager.setCurrentItem(page, false);
         updateViewPagerButtons();
+        if (state != null)
+            ColorPicker.restoreWidgetsScroll(widgetsScroller, state.widgetsScrollX);
+    }
+
+    /**
+     * @return The state of the picker that can't be derived from its MultiColor value.
+     */
+    @NonNull
+    public ColorPickerState getPickerState () {
+        float[] hsv = new float[3];
+        hsvView.getHSV(hsv);
+        return new ColorPickerState(hsv[0], hsv[1], hsv[2], activeIndex, headerViewPager.getCurrentItem(),
+                widgetsScroller.getScrollX());
     }
 
     @ColorPicker.Widgets
@@ -282,8 +266,10 @@ public class MultiColorPicker extends FrameLayout {
         boolean hsv = (widgets & ColorPicker.WIDGET_HSV_PICKER) != 0;
         boolean hex = (widgets & ColorPicker.WIDGET_HEX_TEXT_EDIT) != 0;
         boolean recent = (widgets & ColorPicker.WIDGET_RECENTLY_PICKED) != 0;
+        boolean oklch = (widgets & ColorPicker.WIDGET_OKLCH_PICKER) != 0;
 
-        hsvView.setVisibility(hsv ? VISIBLE : GONE);
+        hsvView.setPerceptual(oklch);
+        hsvView.setVisibility(hsv || oklch ? VISIBLE : GONE);
         hexHashMark.setVisibility(hex ? VISIBLE : GONE);
         hexEditText.setVisibility(hex ? VISIBLE : GONE);
         colorCacheView.setVisibility(recent ? VISIBLE : GONE);
@@ -304,28 +290,18 @@ public class MultiColorPicker extends FrameLayout {
         if (!isFromActivatedIndex){
             multiColor.getValues()[activeIndex] = color;
 
-            if (headerItems != null) {
-                for (HeaderItem[] headerItemsByType : headerItems) {
-                    for (int i = 0; i < headerItemsByType.length; i++) {
-                        if (i == activeIndex) {
-                            HeaderItem headerItem = headerItemsByType[i];
-                            ColorSwatch colorSwatch = headerItem.colorSwatch;
-                            TextView textView = headerItem.textView;
-                            if (colorSwatch != null) {
-                                if (animated)
-                                    colorSwatch.setColorAnimated(
-                                            animationCenterX - CovePrefsUtils.getRelativeX(colorSwatch, this),
-                                            animationCenterY - CovePrefsUtils.getRelativeY(colorSwatch, this),
-                                            color | 0xff000000);
-                                else
-                                    colorSwatch.setColor(color | 0xff000000);
-                            }
-                            if (textView != null) {
-                                CovePrefsUtils.setShadow(textView, Color.BLACK, needTextShadow(color) ? headerShadowRadius : 0);
-                            }
-                        }
-                    }
-                }
+            ArrayList<HeaderItem> slotItems = getHeaderItems(activeIndex);
+            for (int i = 0, n = slotItems.size(); i < n; i++) {
+                HeaderItem headerItem = slotItems.get(i);
+                ColorSwatch colorSwatch = headerItem.colorSwatch;
+                if (animated)
+                    colorSwatch.setColorAnimated(
+                            animationCenterX - viewOffsets.getRelativeX(colorSwatch),
+                            animationCenterY - viewOffsets.getRelativeY(colorSwatch),
+                            color | 0xff000000);
+                else
+                    colorSwatch.setColor(color | 0xff000000);
+                CovePrefsUtils.setShadow(headerItem.textView, Color.BLACK, needTextShadow(color) ? headerShadowRadius : 0);
             }
         }
 
@@ -338,7 +314,7 @@ public class MultiColorPicker extends FrameLayout {
             hsvView.setColor(color, animated);
         }
         if (!isFromHex) {
-            setHexEditTextColorWithoutPropagation(color);
+            hexField.setColor(color);
         }
 
         if (listener != null && !isFromActivatedIndex){
@@ -363,14 +339,14 @@ public class MultiColorPicker extends FrameLayout {
     }
 
     protected void setActiveIndex (int index){
+        ArrayList<HeaderItem> previousSlotItems = getHeaderItems(activeIndex);
+        for (int i = 0, n = previousSlotItems.size(); i < n; i++) {
+            previousSlotItems.get(i).textView.setActivated(false);
+        }
         activeIndex = index;
-        if (headerItems != null) {
-            for (HeaderItem[] headerItemForType : headerItems) {
-                for (int i = 0; i < headerItemForType.length; i++) {
-                    TextView textView = headerItemForType[i].textView;
-                    if (textView != null) textView.setActivated(i == activeIndex);
-                }
-            }
+        ArrayList<HeaderItem> slotItems = getHeaderItems(activeIndex);
+        for (int i = 0, n = slotItems.size(); i < n; i++) {
+            slotItems.get(i).textView.setActivated(true);
         }
 
         setWidgetsColor(multiColor.getValues()[index], true, false, false,
@@ -380,6 +356,13 @@ public class MultiColorPicker extends FrameLayout {
             indexListener.onActiveIndexChanged(index);
     }
 
+    private ArrayList<HeaderItem> getHeaderItems (int slot){
+        while (headerItemsBySlot.size() <= slot) {
+            headerItemsBySlot.add(new ArrayList<HeaderItem>());
+        }
+        return headerItemsBySlot.get(slot);
+    }
+
     private final PagerAdapter headerAdapter = new PagerAdapter() {
         @Override
         public int getCount() {
@@ -429,7 +412,6 @@ public class MultiColorPicker extends FrameLayout {
             boolean disabled = multiColor.definition.getValueCount(type) == 0;
             ColorSwatch colorSwatch = view.findViewById(R.id.coveprefs_swatch);
             colorSwatch.setColor(initialColor);
-            if (!disabled) headerItems[type][index].colorSwatch = colorSwatch;
             TextView textView = view.findViewById(R.id.coveprefs_label);
             textView.setText(label);
             if (!disabled) {
@@ -444,7 +426,7 @@ public class MultiColorPicker extends FrameLayout {
                 } else {
                     textView.setFocusable(false);
                 }
-                headerItems[type][index].textView = textView;
+                getHeaderItems(index).add(new HeaderItem(type, colorSwatch, textView));
             }
             if (headerTextAppearanceId != 0){
                 if (Build.VERSION.SDK_INT < 23)
@@ -458,6 +440,12 @@ public class MultiColorPicker extends FrameLayout {
         @Override
         public void destroyItem(ViewGroup collection, int position, Object view) {
             collection.removeView((View) view);
+            for (ArrayList<HeaderItem> slotItems : headerItemsBySlot) { // recreated in instantiateItem if needed again
+                for (int i = slotItems.size() - 1; i >= 0; i--) {
+                    if (slotItems.get(i).type == position)
+                        slotItems.remove(i);
+                }
+            }
         }
     };
 
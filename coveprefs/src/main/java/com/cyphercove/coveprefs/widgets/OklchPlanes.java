@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cyphercove.coveprefs.utils.OkLab;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Renders and caches the lightness/chroma planes shown by {@link SaturationValueSelectorView} in OKLCH mode. Hues are
+ * grouped into buckets, and each bucket's plane is rendered once on a background thread into a small bitmap that is
+ * scaled up when drawn. Must be used from the main thread.
+ */
+final class OklchPlanes {
+    private OklchPlanes (){
+    }
+
+    /** The chroma at the right edge of the plane. Slightly above the highest chroma of any sRGB color. */
+    static final float CHROMA_RANGE = 0.33f;
+    /** Width and height of a rendered plane, in pixels. */
+    static final int PLANE_SIZE = 64;
+    private static final int HUE_BUCKETS = 180;
+    private static final int CACHED_PLANES = 48;
+
+    interface Listener {
+        void onPlaneReady(int bucket);
+    }
+
+    /*
+     * Planes are indexed by bucket, and the least recently used one is evicted when a new one is added, so get() only
+     * indexes arrays. Everything here is only touched on the main thread.
+     */
+    private static final Bitmap[] planes = new Bitmap[HUE_BUCKETS];
+    private static final long[] lastUsed = new long[HUE_BUCKETS];
+    private static final boolean[] pending = new boolean[HUE_BUCKETS];
+    private static long useCount;
+    private static int cachedCount;
+    private static final ArrayList<Listener> listeners = new ArrayList<>();
+    private static Handler mainHandler;
+    private static ExecutorService executor;
+
+    static int bucketOf (float hue){
+        int bucket = (int)(hue / 360f * HUE_BUCKETS + 0.5f) % HUE_BUCKETS;
+        return bucket < 0 ? bucket + HUE_BUCKETS : bucket;
+    }
+
+    /**
+     * @return The plane for the bucket, or null if it hasn't been rendered yet. In that case it is queued for rendering
+     * and listeners are notified when it is ready.
+     */
+    @Nullable
+    static Bitmap get (int bucket){
+        Bitmap plane = planes[bucket];
+        if (plane == null)
+            request(bucket);
+        else
+            lastUsed[bucket] = ++useCount;
+        return plane;
+    }
+
+    static void addListener (@NonNull Listener listener){
+        listeners.add(listener);
+    }
+
+    static void removeListener (@NonNull Listener listener){
+        listeners.remove(listener);
+    }
+
+    private static void request (final int bucket){
+        if (pending[bucket])
+            return;
+        pending[bucket] = true;
+        if (executor == null) {
+            mainHandler = new Handler(Looper.getMainLooper());
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable r) {
+                    Thread thread = new Thread(r, "CovePrefsOklchPlanes");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap plane = render(bucket);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        pending[bucket] = false;
+                        put(bucket, plane);
+                        for (int i = listeners.size() - 1; i >= 0; i--) {
+                            listeners.get(i).onPlaneReady(bucket);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static void put (int bucket, Bitmap plane){
+        if (planes[bucket] == null) {
+            if (cachedCount == CACHED_PLANES)
+                planes[leastRecentlyUsed()] = null;
+            else
+                cachedCount++;
+        }
+        planes[bucket] = plane;
+        lastUsed[bucket] = ++useCount;
+    }
+
+    private static int leastRecentlyUsed (){
+        int oldest = -1;
+        for (int i = 0; i < HUE_BUCKETS; i++) {
+            if (planes[i] != null && (oldest == -1 || lastUsed[i] < lastUsed[oldest]))
+                oldest = i;
+        }
+        return oldest;
+    }
+
+    /**
+     * Lightness runs from 1 at the top row to 0 at the bottom, and chroma from 0 at the left column to
+     * {@link #CHROMA_RANGE} at the right. Colors outside the sRGB gamut are clipped to the highest chroma in gamut at
+     * their lightness, which is found once per row.
+     */
+    private static Bitmap render (int bucket){
+        double radians = Math.toRadians(bucket * 360.0 / HUE_BUCKETS);
+        float cosHue = (float)Math.cos(radians);
+        float sinHue = (float)Math.sin(radians);
+        int[] pixels = new int[PLANE_SIZE * PLANE_SIZE];
+        for (int y = 0; y < PLANE_SIZE; y++) {
+            float lightness = 1f - (float)y / (PLANE_SIZE - 1);
+            float maxChroma = OkLab.maxChroma(lightness, cosHue, sinHue);
+            for (int x = 0; x < PLANE_SIZE; x++) {
+                float chroma = Math.min(maxChroma, (float)x / (PLANE_SIZE - 1) * CHROMA_RANGE);
+                pixels[y * PLANE_SIZE + x] = OkLab.oklabToColor(lightness, chroma * cosHue, chroma * sinHue);
+            }
+        }
+        return Bitmap.createBitmap(pixels, PLANE_SIZE, PLANE_SIZE, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import android.view.View;
+
+import com.cyphercove.coveprefs.R;
+
+import java.util.WeakHashMap;
+
+/**
+ * Caches the style values the color and rotary picker views read in their constructors, so a dialog that builds
+ * many of them only resolves them once. Values are keyed by theme and default style attribute, and discarded if
+ * the configuration changes. Views with a {@code style} or picker attributes set directly in XML are resolved
+ * without the cache, since their values are specific to that view.
+ */
+final class ResolvedStyles {
+    private ResolvedStyles (){
+    }
+
+    private static final int MISSING_COLOR = Color.MAGENTA;
+
+    /** Resolved {@code CovePrefs_ColorPicker} values and dimensions of the color picker views. */
+    static final class ColorPickerStyle {
+        final int selectorColor;
+        final int cornerRadii;
+        final int headerTextAppearanceId;
+        final int headerDisabledBackgroundColor;
+        final ColorStateList headerIconColorStateList;
+        final boolean inflateLayout;
+        final int svNaturalWidth, hsvNaturalHeight, hsvSelectorRadius, hsvSelectorStrokeWidth;
+        private final Configuration configuration;
+
+        ColorPickerStyle (Context context, AttributeSet attrs, int defStyleAttr){
+            final TypedArray a = context.obtainStyledAttributes(attrs,
+                    R.styleable.CovePrefs_ColorPicker, defStyleAttr, R.style.CovePrefsColorPicker);
+            selectorColor = enabledColor(a.getColorStateList(R.styleable.CovePrefs_ColorPicker_coveprefs_selectorColor));
+            cornerRadii = a.getDimensionPixelSize(R.styleable.CovePrefs_ColorPicker_coveprefs_colorPickerCornerRadii, 1);
+            headerTextAppearanceId = a.getResourceId(R.styleable.CovePrefs_ColorPicker_coveprefs_headerTextAppearance, 0);
+            headerDisabledBackgroundColor = a.getColor(R.styleable.CovePrefs_ColorPicker_coveprefs_multiColorPickerHeaderDisabledColor, MISSING_COLOR);
+            headerIconColorStateList = a.getColorStateList(R.styleable.CovePrefs_ColorPicker_coveprefs_headerIconButtonColor);
+            inflateLayout = a.getBoolean(R.styleable.CovePrefs_ColorPicker_coveprefs_inflateColorPickerLayout, false);
+            a.recycle();
+
+            final Resources res = context.getResources();
+            svNaturalWidth = res.getDimensionPixelSize(R.dimen.coveprefs_svview_natural_width);
+            hsvNaturalHeight = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_natural_height);
+            hsvSelectorRadius = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_selector_radius);
+            hsvSelectorStrokeWidth = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_selector_stroke_width);
+            configuration = new Configuration(res.getConfiguration());
+        }
+    }
+
+    /** Resolved {@code CovePrefs_RotaryPicker} values and dimensions of the rotary picker views. */
+    static final class RotaryPickerStyle {
+        final int selectorColor;
+        final int circleBackgroundColor;
+        final int headerTextColor, headerBackgroundColor;
+        final int headerTextAppearanceId;
+        final float disabledAlpha;
+        final int naturalSize, centerDotRadius, selectorWidth, selectorHeight, selectorStrokeWidth, radialPadding;
+        private final Configuration configuration;
+
+        RotaryPickerStyle (Context context, AttributeSet attrs, int defStyleAttr){
+            final TypedValue outValue = new TypedValue();
+            context.getTheme().resolveAttribute(android.R.attr.disabledAlpha, outValue, true);
+            disabledAlpha = outValue.getFloat();
+
+            final TypedArray a = context.obtainStyledAttributes(attrs,
+                    R.styleable.CovePrefs_RotaryPicker, defStyleAttr, R.style.CovePrefsRotaryPicker);
+            selectorColor = enabledColor(a.getColorStateList(R.styleable.CovePrefs_RotaryPicker_coveprefs_selectorColor));
+            circleBackgroundColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_rotaryCircleBackgroundColor, MISSING_COLOR);
+            headerTextColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_headerTextColor, MISSING_COLOR);
+            headerBackgroundColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_headerBackgroundColor, MISSING_COLOR);
+            headerTextAppearanceId = a.getResourceId(R.styleable.CovePrefs_RotaryPicker_coveprefs_headerTextAppearance, -1);
+            a.recycle();
+
+            final Resources res = context.getResources();
+            naturalSize = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_natural_size);
+            centerDotRadius = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_center_dot_radius);
+            selectorWidth = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_width);
+            selectorHeight = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_height);
+            selectorStrokeWidth = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_stroke);
+            radialPadding = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_radial_padding);
+            configuration = new Configuration(res.getConfiguration());
+        }
+    }
+
+    private static final WeakHashMap<Resources.Theme, SparseArray<ColorPickerStyle>> colorPickerStyles = new WeakHashMap<>();
+    private static final WeakHashMap<Resources.Theme, SparseArray<RotaryPickerStyle>> rotaryPickerStyles = new WeakHashMap<>();
+
+    static ColorPickerStyle colorPicker (Context context, AttributeSet attrs, int defStyleAttr){
+        if (hasOwnStyle(attrs, R.styleable.CovePrefs_ColorPicker))
+            return new ColorPickerStyle(context, attrs, defStyleAttr);
+        synchronized (colorPickerStyles) {
+            SparseArray<ColorPickerStyle> styles = colorPickerStyles.get(context.getTheme());
+            if (styles == null) {
+                styles = new SparseArray<>(1);
+                colorPickerStyles.put(context.getTheme(), styles);
+            }
+            ColorPickerStyle style = styles.get(defStyleAttr);
+            if (style == null || !style.configuration.equals(context.getResources().getConfiguration())) {
+                style = new ColorPickerStyle(context, null, defStyleAttr);
+                styles.put(defStyleAttr, style);
+            }
+            return style;
+        }
+    }
+
+    static RotaryPickerStyle rotaryPicker (Context context, AttributeSet attrs, int defStyleAttr){
+        if (hasOwnStyle(attrs, R.styleable.CovePrefs_RotaryPicker))
+            return new RotaryPickerStyle(context, attrs, defStyleAttr);
+        synchronized (rotaryPickerStyles) {
+            SparseArray<RotaryPickerStyle> styles = rotaryPickerStyles.get(context.getTheme());
+            if (styles == null) {
+                styles = new SparseArray<>(1);
+                rotaryPickerStyles.put(context.getTheme(), styles);
+            }
+            RotaryPickerStyle style = styles.get(defStyleAttr);
+            if (style == null || !style.configuration.equals(context.getResources().getConfiguration())) {
+                style = new RotaryPickerStyle(context, null, defStyleAttr);
+                styles.put(defStyleAttr, style);
+            }
+            return style;
+        }
+    }
+
+    private static boolean hasOwnStyle (AttributeSet attrs, int[] styleable){
+        if (attrs == null)
+            return false;
+        if (attrs.getStyleAttribute() != 0)
+            return true;
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            int nameResource = attrs.getAttributeNameResource(i);
+            for (int attr : styleable) {
+                if (attr == nameResource)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static int enabledColor (ColorStateList colors){
+        return colors == null ? MISSING_COLOR : colors.getColorForState(View.ENABLED_STATE_SET, MISSING_COLOR);
+    }
+}
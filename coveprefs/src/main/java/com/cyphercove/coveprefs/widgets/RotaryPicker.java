@@ -16,8 +16,6 @@
 package com.cyphercove.coveprefs.widgets;
 
 import android.content.Context;
-import android.content.res.TypedArray;
-import android.graphics.Color;
 import android.os.Build;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
@@ -28,7 +26,6 @@ import com.cyphercove.coveprefs.R;
 /**
  */
 public class RotaryPicker extends FrameLayout {
-    private static final int MISSING_COLOR = Color.MAGENTA;
 
     public interface OnAngleChangedListener {
         void onAngleChanged(int newAngle);
@@ -49,13 +46,10 @@ public class RotaryPicker extends FrameLayout {
     public RotaryPicker(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        final TypedArray a = context.obtainStyledAttributes(attrs,
-                R.styleable.CovePrefs_RotaryPicker, defStyleAttr, R.style.CovePrefsRotaryPicker);
-        int headerTextColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_headerTextColor, MISSING_COLOR);
-        int headerBackgroundColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_headerBackgroundColor, MISSING_COLOR);
-        int headerTextAppearanceResId = a.getResourceId(
-                R.styleable.CovePrefs_RotaryPicker_coveprefs_headerTextAppearance, -1);
-        a.recycle();
+        final ResolvedStyles.RotaryPickerStyle style = ResolvedStyles.rotaryPicker(context, attrs, defStyleAttr);
+        int headerTextColor = style.headerTextColor;
+        int headerBackgroundColor = style.headerBackgroundColor;
+        int headerTextAppearanceResId = style.headerTextAppearanceId;
 
         final LayoutInflater inflater = (LayoutInflater) context.getSystemService(
                 Context.LAYOUT_INFLATER_SERVICE);
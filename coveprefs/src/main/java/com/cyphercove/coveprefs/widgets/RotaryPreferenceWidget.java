@@ -15,8 +15,6 @@
  */
 package com.cyphercove.coveprefs.widgets;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
@@ -34,7 +32,6 @@ public class RotaryPreferenceWidget extends View {
 
     private float centerX, centerY, radius, arrowRatio, arrowBottom;
     private Paint paint;
-    ValueAnimator valueAnimator;
     private Path arrowPath;
     private float value, oldValue, nextValue;
 
@@ -66,48 +63,22 @@ public class RotaryPreferenceWidget extends View {
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(color);
         paint.setStrokeWidth(strokeWidth);
-
-        valueAnimator = new ValueAnimator();
-        // animate SVView's hue in opposite direction, shortest path
-        // animate SVView's hue in opposite direction, shortest path
-        ValueAnimator.AnimatorUpdateListener animatorUpdateListener = new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate (ValueAnimator animation) {
-                float fraction = CovePrefsUtils.Curve.slowInSlowOut(valueAnimator.getAnimatedFraction());
-
-                if (nextValue - oldValue > 180f) // animate SVView's hue in opposite direction, shortest path
-                    value = (fraction * (nextValue - oldValue - 360f) + oldValue + 360f) % 360f;
-                else if (oldValue - nextValue > 180f) // animate SVView's hue in opposite direction, shortest path
-                    value = (fraction * (nextValue - oldValue + 360f) + oldValue) % 360f;
-                else
-                    value = fraction * (nextValue - oldValue) + oldValue;
-                invalidate();
-            }
-        };
-        valueAnimator.addUpdateListener(animatorUpdateListener);
-        valueAnimator.addListener(animatorListener);
     }
 
     /** Instantly changes the angle value.
      * @param value The new value to change the widget to.*/
     public void setValue (float value){
-        if (valueAnimator.isRunning()){
-            valueAnimator.cancel();
-        }
+        AnimationTicker.cancel(animationTarget);
         this.value = nextValue = value % 360;
         invalidate();
     }
 
     public void setValueAnimated (float value){
-        if (valueAnimator.isRunning()){
-            valueAnimator.end();
-        }
+        AnimationTicker.end(animationTarget);
         oldValue = this.value;
         nextValue = value % 360;
 
-        valueAnimator.setFloatValues(oldValue, nextValue);
-        valueAnimator.setDuration(ANIMATION_DURATION);
-        valueAnimator.start();
+        AnimationTicker.start(getContext(), animationTarget, ANIMATION_DURATION);
     }
 
     @Override
@@ -138,26 +109,25 @@ public class RotaryPreferenceWidget extends View {
         canvas.drawLine(0, arrowBottom, 0, radius, paint);
     }
 
-    Animator.AnimatorListener animatorListener = new Animator.AnimatorListener() {
+    private final AnimationTicker.Target animationTarget = new AnimationTicker.Target() {
         @Override
-        public void onAnimationStart(Animator animation) {
-
+        public void onAnimationUpdate(float fraction) {
+            // Keeps the easing of the former ValueAnimator and its default interpolator
+            fraction = CovePrefsUtils.Curve.slowInSlowOut(CovePrefsUtils.Curve.accelerateDecelerate(fraction));
+
+            if (nextValue - oldValue > 180f) // animate in opposite direction, shortest path
+                value = (fraction * (nextValue - oldValue - 360f) + oldValue + 360f) % 360f;
+            else if (oldValue - nextValue > 180f) // animate in opposite direction, shortest path
+                value = (fraction * (nextValue - oldValue + 360f) + oldValue) % 360f;
+            else
+                value = fraction * (nextValue - oldValue) + oldValue;
+            invalidate();
         }
 
         @Override
-        public void onAnimationEnd(Animator animation) {
+        public void onAnimationEnd() {
             value = nextValue;
             invalidate();
         }
-
-        @Override
-        public void onAnimationCancel(Animator animation) {
-
-        }
-
-        @Override
-        public void onAnimationRepeat(Animator animation) {
-
-        }
     };
 }
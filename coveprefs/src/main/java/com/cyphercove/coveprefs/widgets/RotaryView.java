@@ -16,22 +16,15 @@
 package com.cyphercove.coveprefs.widgets;
 
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.util.AttributeSet;
-import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.SoundEffectConstants;
 import android.view.View;
-import com.cyphercove.coveprefs.R;
 
 public class RotaryView extends View {
-	private static final int MISSING_COLOR = Color.MAGENTA;
 
 	private Paint selectorPaint, backgroundPaint;
 	private OnValueSelectedListener listener;
@@ -60,40 +53,24 @@ public class RotaryView extends View {
 	public RotaryView(Context context, AttributeSet attrs, int defStyleAttr) {
 		super(context, attrs, defStyleAttr);
 
-		final TypedValue outValue = new TypedValue();
-		context.getTheme().resolveAttribute(android.R.attr.disabledAlpha, outValue, true);
-		disabledAlpha = outValue.getFloat();
-
-		final TypedArray a = context.obtainStyledAttributes( attrs,
-				R.styleable.CovePrefs_RotaryPicker, defStyleAttr,
-				R.style.CovePrefsRotaryPicker);
-		final ColorStateList selectorColors = a.getColorStateList(R.styleable.CovePrefs_RotaryPicker_coveprefs_selectorColor);
-		int circleBackgroundColor = a.getColor(R.styleable.CovePrefs_RotaryPicker_coveprefs_rotaryCircleBackgroundColor, MISSING_COLOR);
-		a.recycle();
-
-		final int selectorActivatedColor;
-		if (selectorColors != null) {
-			selectorActivatedColor = selectorColors.getColorForState(View.ENABLED_STATE_SET, MISSING_COLOR);
-		} else {
-			selectorActivatedColor = MISSING_COLOR;
-		}
-		final Resources res = getResources();
-		defaultSize = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_natural_size);
-		centerDotRadius = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_center_dot_radius);
+		final ResolvedStyles.RotaryPickerStyle style = ResolvedStyles.rotaryPicker(context, attrs, defStyleAttr);
+		disabledAlpha = style.disabledAlpha;
+		defaultSize = style.naturalSize;
+		centerDotRadius = style.centerDotRadius;
 
 		selectorPath = new Path();
-		defaultSelectorWidth = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_width);
-		defaultSelectorHeight = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_height);
-		radialPadding = res.getDimensionPixelSize(R.dimen.coveprefs_rotary_radial_padding);
+		defaultSelectorWidth = style.selectorWidth;
+		defaultSelectorHeight = style.selectorHeight;
+		radialPadding = style.radialPadding;
 
 		selectorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 		selectorPaint.setStyle(Paint.Style.FILL);
-		selectorPaint.setColor(selectorActivatedColor);
-		selectorPaint.setStrokeWidth(res.getDimensionPixelSize(R.dimen.coveprefs_rotary_selector_stroke));
+		selectorPaint.setColor(style.selectorColor);
+		selectorPaint.setStrokeWidth(style.selectorStrokeWidth);
 
 		backgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 		backgroundPaint.setStyle(Paint.Style.FILL);
-		backgroundPaint.setColor(circleBackgroundColor);
+		backgroundPaint.setColor(style.circleBackgroundColor);
 
 		if (isInEditMode()){
 			setValue(100);
@@ -206,6 +183,7 @@ public class RotaryView extends View {
 		canvas.translate(0, -radius + radialPadding);
 		canvas.drawPath(selectorPath, selectorPaint);
 
+		InputLatencyProbe.onDraw(InputLatencyProbe.WIDGET_ROTARY, this);
 	}
 
 	@Override
@@ -232,10 +210,13 @@ public class RotaryView extends View {
 		case MotionEvent.ACTION_UP:
 			if (tracking && value != downValue)
 				playSoundEffect(SoundEffectConstants.CLICK);
+			if (tracking)
+				InputLatencyProbe.onInput(InputLatencyProbe.WIDGET_ROTARY, event);
 			tracking = false;
 			break;
 		}
 		if (tracking) {
+			InputLatencyProbe.onInput(InputLatencyProbe.WIDGET_ROTARY, event);
 			int previousValue = value;
 			value = valueFromPosition(x, y);
 			if (event.getAction() == MotionEvent.ACTION_DOWN)
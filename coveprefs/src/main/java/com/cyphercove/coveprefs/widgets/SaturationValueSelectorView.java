@@ -15,34 +15,48 @@
  */
 package com.cyphercove.coveprefs.widgets;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.*;
-import android.os.Build;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.SoundEffectConstants;
 import android.view.View;
-import com.cyphercove.coveprefs.R;
+import com.cyphercove.coveprefs.utils.ColorMath;
 
 public class SaturationValueSelectorView extends View {
-    private static final int MISSING_COLOR = Color.MAGENTA;
 
     interface OnSaturationValueChangedListener {
-        void onSaturationValueChanged(SaturationValueSelectorView view, float newSaturation, float newValue, boolean isFromTouchDown, int localX, int localY);
+        /** @param action The masked {@link MotionEvent} action that changed the selection. */
+        void onSaturationValueChanged(SaturationValueSelectorView view, float newSaturation, float newValue, int action, int localX, int localY);
     }
 
     OnSaturationValueChangedListener listener;
 
-    private Paint saturationPaint, valuePaint, selectorPaint, disabledPaint;
-    private Path roundCornersMask;
-    private int[] saturations = new int[] { 0, 0xFFFFFFFF }; // first index is updated when color is updated
-    private final int[] values= new int[] { 0x00000000, 0xFF000000 };//clear black to opaque black;
+    /**
+     * The saturation and value gradients over a fully saturated hue, as premultiplied white-to-clear along the top and
+     * black along the bottom. Bilinear filtering of these four texels is exactly the blend of the two gradients, so
+     * the whole plane can be drawn with a single shader that doesn't depend on the hue.
+     */
+    private static Bitmap saturationValueOverlay;
+
+    private Paint overlayPaint, planePaint, selectorPaint, disabledPaint;
+    private final Matrix overlayMatrix = new Matrix();
+    private final Matrix planeMatrix = new Matrix();
+    private int saturatedColor;
+    private float currentHue;
+
+    private boolean perceptual;
+    private int planeBucket;
+    private Bitmap plane;
+    private final OklchPlanes.Listener planeListener = new OklchPlanes.Listener() {
+        @Override
+        public void onPlaneReady(int bucket) {
+            if (bucket == planeBucket)
+                invalidate();
+        }
+    };
 
-    private int selectorRadius, cornerRadii, naturalWidth, naturalHeight;
+    private int selectorRadius, naturalWidth, naturalHeight;
 
     private float currentSaturation, currentValue;
 
@@ -57,29 +71,19 @@ public class SaturationValueSelectorView extends View {
     public SaturationValueSelectorView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        final TypedArray a = context.obtainStyledAttributes(attrs,
-                R.styleable.CovePrefs_ColorPicker, defStyleAttr, R.style.CovePrefsColorPicker);
-        final ColorStateList indicatorColors = a.getColorStateList(R.styleable.CovePrefs_ColorPicker_coveprefs_selectorColor);
-        cornerRadii = a.getDimensionPixelSize(R.styleable.CovePrefs_ColorPicker_coveprefs_colorPickerCornerRadii, 1);
-        a.recycle();
-
-        final int selectorActivatedColor;
-        if (indicatorColors != null) {
-            selectorActivatedColor = indicatorColors.getColorForState(View.ENABLED_STATE_SET, MISSING_COLOR);
-        }  else {
-            selectorActivatedColor = MISSING_COLOR;
-        }
-
-        final Resources res = getResources();
-        naturalWidth = res.getDimensionPixelSize(R.dimen.coveprefs_svview_natural_width);
-        naturalHeight = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_natural_height);
-        selectorRadius = res.getDimensionPixelSize(R.dimen.coveprefs_hsv_selector_radius);
+        final ResolvedStyles.ColorPickerStyle style = ResolvedStyles.colorPicker(context, attrs, defStyleAttr);
+        final int selectorActivatedColor = style.selectorColor;
+        naturalWidth = style.svNaturalWidth;
+        naturalHeight = style.hsvNaturalHeight;
+        selectorRadius = style.hsvSelectorRadius;
 
-        saturationPaint = new Paint(Paint.DITHER_FLAG); //may not need aa, since it's rectangular
-        saturationPaint.setStyle(Paint.Style.STROKE);
-
-        valuePaint = new Paint(Paint.DITHER_FLAG); //may not need aa, since it's rectangular
-        valuePaint.setStyle(Paint.Style.STROKE);
+        if (saturationValueOverlay == null) {
+            saturationValueOverlay = Bitmap.createBitmap(new int[]{0xFFFFFFFF, 0x00000000, 0xFF000000, 0xFF000000},
+                    2, 2, Bitmap.Config.ARGB_8888);
+        }
+        overlayPaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+        overlayPaint.setShader(new BitmapShader(saturationValueOverlay, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+        planePaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
 
         selectorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         selectorPaint.setColor(selectorActivatedColor);
@@ -88,10 +92,6 @@ public class SaturationValueSelectorView extends View {
         disabledPaint = new Paint();
         disabledPaint.setColor(0xAA808080);
         disabledPaint.setStyle(Paint.Style.FILL);
-
-        if (Build.VERSION.SDK_INT >= 21){
-            roundCornersMask = new Path();
-        }
     }
 
     public float getSaturation(){
@@ -102,9 +102,23 @@ public class SaturationValueSelectorView extends View {
         return currentValue;
     }
 
-    private void updateSaturationPaintColor(){
-        Shader saturationShader = new LinearGradient(getWidth(), 0, 0, 0, saturations, null, Shader.TileMode.CLAMP);
-        saturationPaint.setShader(saturationShader);
+    /**
+     * Sets whether the view shows the OKLCH lightness/chroma plane instead of the HSV saturation/value plane. In OKLCH
+     * mode, saturation is the fraction of {@link OklchPlanes#CHROMA_RANGE} and value is the lightness.
+     */
+    void setPerceptual (boolean perceptual){
+        if (this.perceptual == perceptual)
+            return;
+        this.perceptual = perceptual;
+        planeBucket = OklchPlanes.bucketOf(currentHue);
+        plane = null;
+        if (isAttachedToWindow()) {
+            if (perceptual)
+                OklchPlanes.addListener(planeListener);
+            else
+                OklchPlanes.removeListener(planeListener);
+        }
+        invalidate();
     }
 
     /** Sets the currently visible color and selector position. Does not trigger a callback on the listener.
@@ -122,9 +136,11 @@ public class SaturationValueSelectorView extends View {
     /** Sets the visible hue.
      * @param hue The hue to set the selector to.*/
     public void setHue (float hue){
-        float[] saturated = {hue,1f,1f};
-        saturations[0] = Color.HSVToColor(saturated); //update the opaque saturated color
-        updateSaturationPaintColor();
+        currentHue = hue;
+        if (perceptual)
+            planeBucket = OklchPlanes.bucketOf(hue);
+        else
+            saturatedColor = ColorMath.HSVToColor(hue, 1f, 1f);
         invalidate();
     }
 
@@ -134,18 +150,18 @@ public class SaturationValueSelectorView extends View {
 
     @Override 
     protected void onDraw(Canvas canvas) {
-        if (roundCornersMask != null){
-            canvas.clipPath(roundCornersMask);
+        if (perceptual) {
+            // Until the current hue's plane is ready, keep showing the last one.
+            Bitmap bucketPlane = OklchPlanes.get(planeBucket);
+            if (bucketPlane != null)
+                plane = bucketPlane;
+            if (plane != null)
+                canvas.drawBitmap(plane, planeMatrix, planePaint);
+        } else {
+            canvas.drawColor(saturatedColor);
+            canvas.drawRect(0, 0, getWidth(), getHeight(), overlayPaint);
         }
 
-        // Draw saturation as horizontal line across center
-        float svCenterY = getHeight() / 2f;
-        canvas.drawLine(0, svCenterY, getWidth(), svCenterY, saturationPaint);
-
-        // Draw value as vertical line up center
-        float svCenterX = getWidth() / 2f;
-        canvas.drawLine(svCenterX, 0, svCenterX, getHeight(), valuePaint);
-
         if (isEnabled()){
             canvas.drawCircle(currentSaturation * getWidth(),
                     (1 - currentValue) * getHeight(),
@@ -153,13 +169,14 @@ public class SaturationValueSelectorView extends View {
         } else {
             canvas.drawRect(0, 0, getWidth(), getHeight(), disabledPaint);
         }
-        
+        InputLatencyProbe.onDraw(InputLatencyProbe.WIDGET_SATURATION_VALUE, this);
     }
     
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (!isEnabled())
             return false;
+        InputLatencyProbe.onInput(InputLatencyProbe.WIDGET_SATURATION_VALUE, event);
         float x = Math.max(0, Math.min(getWidth(), event.getX()));
         float y = Math.max(0, Math.min(getHeight(), event.getY()));
 
@@ -178,7 +195,7 @@ public class SaturationValueSelectorView extends View {
         currentValue = 1f - y / (float)getHeight(); // value
         if (listener !=null){
         	listener.onSaturationValueChanged(this, getSaturation(), getValue(),
-                    event.getAction() == MotionEvent.ACTION_DOWN, (int)x, (int)y);
+                    event.getActionMasked(), (int)x, (int)y);
         }
         
         return true;
@@ -190,18 +207,25 @@ public class SaturationValueSelectorView extends View {
             return;
         }
 
-        saturationPaint.setStrokeWidth(getHeight());
-        updateSaturationPaintColor();
+        // Map the overlay's texel centers to the corners of the view.
+        overlayMatrix.setTranslate(-0.5f, -0.5f);
+        overlayMatrix.postScale(getWidth(), getHeight());
+        overlayPaint.getShader().setLocalMatrix(overlayMatrix);
+        planeMatrix.setTranslate(-0.5f, -0.5f);
+        planeMatrix.postScale(getWidth() / (OklchPlanes.PLANE_SIZE - 1f), getHeight() / (OklchPlanes.PLANE_SIZE - 1f));
+    }
 
-        @SuppressLint("DrawAllocation")
-        Shader valueShader = new LinearGradient(0, 0, 0, getHeight(), values, null, Shader.TileMode.CLAMP);
-        valuePaint.setShader(valueShader);
-        valuePaint.setStrokeWidth(getWidth());
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (perceptual)
+            OklchPlanes.addListener(planeListener);
+    }
 
-        if (Build.VERSION.SDK_INT >= 21){
-            roundCornersMask.reset();
-            roundCornersMask.addRoundRect(0, 0, getWidth(), getHeight(), cornerRadii, cornerRadii, Path.Direction.CW);
-        }
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        OklchPlanes.removeListener(planeListener);
     }
 
     @Override
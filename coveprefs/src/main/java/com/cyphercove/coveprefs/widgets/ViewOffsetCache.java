@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.cyphercove.coveprefs.utils.CovePrefsUtils;
+
+import java.util.Arrays;
+
+/**
+ * Caches the positions of views relative to an origin view, so touch and animation coordinates can be translated
+ * between them without walking the view hierarchy on each event. Offsets are measured on first use and kept until the
+ * window lays out or scrolls again. While the origin is detached, nothing is cached. Must only be used from the main
+ * thread.
+ */
+final class ViewOffsetCache implements View.OnAttachStateChangeListener, ViewTreeObserver.OnGlobalLayoutListener,
+        ViewTreeObserver.OnScrollChangedListener {
+
+    private static final int[] LOCATION = new int[2];
+
+    private final View origin;
+    private View[] views = new View[8];
+    private float[] offsets = new float[16];
+    private int count;
+    private boolean originMeasured;
+    private int originX, originY;
+    private ViewTreeObserver observer;
+
+    ViewOffsetCache (View origin){
+        this.origin = origin;
+        origin.addOnAttachStateChangeListener(this);
+        if (origin.isAttachedToWindow())
+            onViewAttachedToWindow(origin);
+    }
+
+    /** @return The x position of the view's left edge, relative to the origin's. */
+    float getRelativeX (View view){
+        if (observer == null)
+            return CovePrefsUtils.getRelativeX(view, origin);
+        return offsets[indexOf(view) * 2];
+    }
+
+    /** @return The y position of the view's top edge, relative to the origin's. */
+    float getRelativeY (View view){
+        if (observer == null)
+            return CovePrefsUtils.getRelativeY(view, origin);
+        return offsets[indexOf(view) * 2 + 1];
+    }
+
+    private int indexOf (View view){
+        for (int i = 0; i < count; i++) {
+            if (views[i] == view)
+                return i;
+        }
+        if (!originMeasured) {
+            origin.getLocationInWindow(LOCATION);
+            originX = LOCATION[0];
+            originY = LOCATION[1];
+            originMeasured = true;
+        }
+        if (count == views.length) {
+            views = Arrays.copyOf(views, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 4);
+        }
+        view.getLocationInWindow(LOCATION);
+        views[count] = view;
+        offsets[count * 2] = LOCATION[0] - originX;
+        offsets[count * 2 + 1] = LOCATION[1] - originY;
+        return count++;
+    }
+
+    private void clear (){
+        Arrays.fill(views, 0, count, null);
+        count = 0;
+        originMeasured = false;
+    }
+
+    @Override
+    public void onViewAttachedToWindow (View v){
+        observer = origin.getViewTreeObserver();
+        observer.addOnGlobalLayoutListener(this);
+        observer.addOnScrollChangedListener(this);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow (View v){
+        if (observer.isAlive()) {
+            observer.removeOnGlobalLayoutListener(this);
+            observer.removeOnScrollChangedListener(this);
+        }
+        observer = null;
+        clear();
+    }
+
+    @Override
+    public void onGlobalLayout (){
+        clear();
+    }
+
+    @Override
+    public void onScrollChanged (){
+        clear();
+    }
+}
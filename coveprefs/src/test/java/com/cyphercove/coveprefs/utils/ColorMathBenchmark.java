@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.Color;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of ColorMath with the usual allocating conversions. The framework's {@code android.graphics.Color}
+ * can't run on the JVM, so {@link java.awt.Color#RGBtoHSB(int, int, int, float[])}, which returns a new array per call
+ * the same way, stands in for it here. ColorMathFrameworkTest in the instrumented tests times the framework itself.
+ * <p>
+ * Run {@link #main(String[])} from the IDE, with the unit test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorMathBenchmark {
+    private static final int COLOR_COUNT = 1024;
+
+    private final int[] colors = new int[COLOR_COUNT];
+    private final float[] hsv = new float[COLOR_COUNT * 3];
+    private final int[] colorsOut = new int[COLOR_COUNT];
+
+    @Setup
+    public void setUp (){
+        Random random = new Random(0);
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            colors[i] = 0xFF000000 | random.nextInt(1 << 24);
+        }
+        ColorMath.colorsToHSV(colors, 0, hsv, 0, COLOR_COUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public void colorToHSV (Blackhole blackhole){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            ColorMath.colorToHSV(colors[i], hsv, i * 3);
+        }
+        blackhole.consume(hsv);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public void colorToHSVAllocating (Blackhole blackhole){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = colors[i];
+            blackhole.consume(Color.RGBtoHSB((color >> 16) & 0xFF, (color >> 8) & 0xFF, color & 0xFF, null));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public void hue (Blackhole blackhole){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            blackhole.consume(ColorMath.hue(colors[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public int[] HSVToColor (){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            colorsOut[i] = ColorMath.HSVToColor(hsv, i * 3);
+        }
+        return colorsOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public int[] HSVToColors (){
+        ColorMath.HSVToColors(hsv, 0, colorsOut, 0, COLOR_COUNT);
+        return colorsOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public int[] HSVToColorReference (){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            colorsOut[i] = Color.HSBtoRGB(hsv[i * 3] / 360f, hsv[i * 3 + 1], hsv[i * 3 + 2]);
+        }
+        return colorsOut;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public void colorToHSL (Blackhole blackhole){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            ColorMath.colorToHSL(colors[i], hsv, i * 3);
+        }
+        blackhole.consume(hsv);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOR_COUNT)
+    public int[] HSLToColor (){
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            colorsOut[i] = ColorMath.HSLToColor(hsv, i * 3);
+        }
+        return colorsOut;
+    }
+
+    public static void main (String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ColorMathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks ColorMath over the whole RGB cube against a double precision reference implementation of the textbook
+ * conversions. Every 8-bit channel must come out within 1 of the reference, and every color must survive a round trip
+ * within 1 per channel.
+ */
+public class ColorMathTest {
+    private static final int COLOR_COUNT = 1 << 24;
+    /** The largest allowed difference between an 8-bit channel and the reference. */
+    private static final int CHANNEL_TOLERANCE = 1;
+    private static final double HUE_TOLERANCE = 1e-3;
+    private static final double COMPONENT_TOLERANCE = 1e-5;
+
+    /** Writes the reference hue [0, 360), saturation and value of the color into hsvOut. */
+    private static void referenceColorToHSV (int color, double[] hsvOut){
+        double r = ((color >> 16) & 0xFF) / 255.0;
+        double g = ((color >> 8) & 0xFF) / 255.0;
+        double b = (color & 0xFF) / 255.0;
+        double max = Math.max(r, Math.max(g, b));
+        double delta = max - Math.min(r, Math.min(g, b));
+        hsvOut[0] = referenceHue(r, g, b, max, delta);
+        hsvOut[1] = max == 0.0 ? 0.0 : delta / max;
+        hsvOut[2] = max;
+    }
+
+    /** Writes the reference hue [0, 360), saturation and lightness of the color into hslOut. */
+    private static void referenceColorToHSL (int color, double[] hslOut){
+        double r = ((color >> 16) & 0xFF) / 255.0;
+        double g = ((color >> 8) & 0xFF) / 255.0;
+        double b = (color & 0xFF) / 255.0;
+        double max = Math.max(r, Math.max(g, b));
+        double min = Math.min(r, Math.min(g, b));
+        double delta = max - min;
+        double l = (max + min) / 2.0;
+        hslOut[0] = referenceHue(r, g, b, max, delta);
+        hslOut[1] = delta == 0.0 ? 0.0 : delta / (1.0 - Math.abs(2.0 * l - 1.0));
+        hslOut[2] = l;
+    }
+
+    private static double referenceHue (double r, double g, double b, double max, double delta){
+        if (delta == 0.0)
+            return 0.0;
+        double h;
+        if (max == r)
+            h = (g - b) / delta;
+        else if (max == g)
+            h = 2.0 + (b - r) / delta;
+        else
+            h = 4.0 + (r - g) / delta;
+        h *= 60.0;
+        return h < 0.0 ? h + 360.0 : h;
+    }
+
+    /** Converts a hue, chroma and the amount added to every channel to an opaque color, the reference way. */
+    private static int referenceChromaToColor (double hue, double chroma, double m){
+        double hx = hue / 60.0;
+        double x = chroma * (1.0 - Math.abs(hx % 2.0 - 1.0));
+        double r, g, b;
+        switch ((int)hx) {
+            case 0: r = chroma; g = x; b = 0; break;
+            case 1: r = x; g = chroma; b = 0; break;
+            case 2: r = 0; g = chroma; b = x; break;
+            case 3: r = 0; g = x; b = chroma; break;
+            case 4: r = x; g = 0; b = chroma; break;
+            default: r = chroma; g = 0; b = x; break;
+        }
+        return 0xFF000000 | (referenceChannel(r + m) << 16) | (referenceChannel(g + m) << 8) | referenceChannel(b + m);
+    }
+
+    private static int referenceChannel (double x){
+        return (int)Math.round(Math.max(0.0, Math.min(1.0, x)) * 255.0);
+    }
+
+    private static int referenceHSVToColor (double hue, double saturation, double value){
+        double chroma = value * saturation;
+        return referenceChromaToColor(hue, chroma, value - chroma);
+    }
+
+    private static int referenceHSLToColor (double hue, double saturation, double lightness){
+        double chroma = (1.0 - Math.abs(2.0 * lightness - 1.0)) * saturation;
+        return referenceChromaToColor(hue, chroma, lightness - chroma / 2.0);
+    }
+
+    // The assertions only build their messages on failure, so the loops over the cube stay fast.
+
+    private static void assertHueEquals (int color, double expected, double actual){
+        double difference = Math.abs(expected - actual);
+        difference = Math.min(difference, 360.0 - difference);
+        if (difference > HUE_TOLERANCE)
+            fail(String.format("#%06X: expected hue %f but was %f", color & 0xFFFFFF, expected, actual));
+    }
+
+    private static void assertComponentEquals (int color, int index, double expected, double actual){
+        if (Math.abs(expected - actual) > COMPONENT_TOLERANCE)
+            fail(String.format("#%06X: expected component %d to be %f but was %f",
+                    color & 0xFFFFFF, index, expected, actual));
+    }
+
+    private static void assertChannelsEqual (int color, int expected, int actual){
+        for (int shift = 0; shift < 32; shift += 8) {
+            int difference = Math.abs(((expected >>> shift) & 0xFF) - ((actual >>> shift) & 0xFF));
+            if (difference > CHANNEL_TOLERANCE)
+                fail(String.format("#%06X: expected #%08X but was #%08X", color & 0xFFFFFF, expected, actual));
+        }
+    }
+
+    @Test
+    public void colorToHSVMatchesReference (){
+        float[] hsv = new float[3];
+        double[] expected = new double[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            ColorMath.colorToHSV(color, hsv);
+            referenceColorToHSV(color, expected);
+            assertHueEquals(color, expected[0], hsv[0]);
+            assertComponentEquals(color, 1, expected[1], hsv[1]);
+            assertComponentEquals(color, 2, expected[2], hsv[2]);
+            if (ColorMath.hue(color) != hsv[0] || ColorMath.value(color) != hsv[2])
+                fail(String.format("#%06X: hue() or value() differs from colorToHSV()", color & 0xFFFFFF));
+        }
+    }
+
+    @Test
+    public void HSVToColorMatchesReference (){
+        double[] hsv = new double[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            referenceColorToHSV(color, hsv);
+            int expected = referenceHSVToColor(hsv[0], hsv[1], hsv[2]);
+            assertChannelsEqual(color, expected,
+                    ColorMath.HSVToColor((float)hsv[0], (float)hsv[1], (float)hsv[2]));
+        }
+    }
+
+    @Test
+    public void HSVRoundTripsOverRgbCube (){
+        float[] hsv = new float[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            ColorMath.colorToHSV(color, hsv);
+            assertChannelsEqual(color, color, ColorMath.HSVToColor(hsv, 0));
+        }
+    }
+
+    @Test
+    public void HSVToColorKeepsAlpha (){
+        assertEquals(0x80FF0000, ColorMath.HSVToColor(0x80, 0f, 1f, 1f));
+        assertEquals(0x00FFFFFF, ColorMath.HSVToColor(0x00, 120f, 0f, 1f));
+    }
+
+    @Test
+    public void colorToHSLMatchesReference (){
+        float[] hsl = new float[3];
+        double[] expected = new double[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            ColorMath.colorToHSL(color, hsl);
+            referenceColorToHSL(color, expected);
+            assertHueEquals(color, expected[0], hsl[0]);
+            assertComponentEquals(color, 1, expected[1], hsl[1]);
+            assertComponentEquals(color, 2, expected[2], hsl[2]);
+        }
+    }
+
+    @Test
+    public void HSLToColorMatchesReference (){
+        double[] hsl = new double[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            referenceColorToHSL(color, hsl);
+            int expected = referenceHSLToColor(hsl[0], hsl[1], hsl[2]);
+            assertChannelsEqual(color, expected,
+                    ColorMath.HSLToColor((float)hsl[0], (float)hsl[1], (float)hsl[2]));
+        }
+    }
+
+    @Test
+    public void HSLRoundTripsOverRgbCube (){
+        float[] hsl = new float[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            ColorMath.colorToHSL(color, hsl);
+            assertChannelsEqual(color, color, ColorMath.HSLToColor(hsl, 0));
+        }
+    }
+
+    @Test
+    public void batchConversionsMatchSingleConversions (){
+        int[] colors = {0xFF000000, 0xFFFFFFFF, 0xFF3366CC, 0xFFFF0000, 0xFF00FF80, 0xFF7F7F7F};
+        float[] hsv = new float[colors.length * 3 + 2];
+        ColorMath.colorsToHSV(colors, 1, hsv, 2, colors.length - 1);
+        float[] single = new float[3];
+        int[] roundTripped = new int[colors.length];
+        ColorMath.HSVToColors(hsv, 2, roundTripped, 1, colors.length - 1);
+        for (int i = 1; i < colors.length; i++) {
+            ColorMath.colorToHSV(colors[i], single);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(single[j], hsv[2 + (i - 1) * 3 + j], 0f);
+            }
+            assertEquals(ColorMath.HSVToColor(single, 0), roundTripped[i]);
+        }
+    }
+}
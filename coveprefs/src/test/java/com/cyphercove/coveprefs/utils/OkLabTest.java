@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks OkLab's table-based conversions over the whole RGB cube, its cube root around the point where it switches
+ * from Math.cbrt to the table, and that OKLCH colors are brought into the sRGB gamut the way a double precision
+ * reference implementation of the published conversions does.
+ */
+public class OkLabTest {
+    private static final int COLOR_COUNT = 1 << 24;
+    /** The largest allowed difference between an 8-bit channel and the original. */
+    private static final int CHANNEL_TOLERANCE = 1;
+    private static final float CBRT_TOLERANCE = 1e-4f;
+    /** How far an 8-bit color may be from the OKLab color it was converted from, in each of L, a and b. */
+    private static final double LAB_TOLERANCE = 0.01;
+    /** How far outside [0, 1] a linear channel may be and still count as in gamut. */
+    private static final double GAMUT_TOLERANCE = 1e-4;
+
+    /** Writes the reference OKLab lightness, a and b of the color into labOut. */
+    private static void referenceColorToOklab (int color, double[] labOut){
+        double r = referenceSrgbToLinear((color >> 16) & 0xFF);
+        double g = referenceSrgbToLinear((color >> 8) & 0xFF);
+        double b = referenceSrgbToLinear(color & 0xFF);
+
+        double l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+        double m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+        double s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+
+        labOut[0] = 0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s;
+        labOut[1] = 1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s;
+        labOut[2] = 0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s;
+    }
+
+    private static double referenceSrgbToLinear (int channel){
+        double c = channel / 255.0;
+        return c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    /** Writes the unclamped reference linear sRGB channels of the OKLab color into rgbOut. */
+    private static void referenceOklabToLinear (double lightness, double a, double b, double[] rgbOut){
+        double l = lightness + 0.3963377774 * a + 0.2158037573 * b;
+        double m = lightness - 0.1055613458 * a - 0.0638541728 * b;
+        double s = lightness - 0.0894841775 * a - 1.2914855480 * b;
+        l = l * l * l;
+        m = m * m * m;
+        s = s * s * s;
+        rgbOut[0] = 4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s;
+        rgbOut[1] = -1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s;
+        rgbOut[2] = -0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s;
+    }
+
+    private static boolean referenceIsInGamut (double lightness, double a, double b, double[] scratch){
+        referenceOklabToLinear(lightness, a, b, scratch);
+        for (double channel : scratch) {
+            if (channel < -GAMUT_TOLERANCE || channel > 1.0 + GAMUT_TOLERANCE)
+                return false;
+        }
+        return true;
+    }
+
+    /** @return The highest in gamut chroma at the lightness and hue, found by bisection in double precision. */
+    private static double referenceMaxChroma (double lightness, double cosHue, double sinHue, double[] scratch){
+        double low = 0.0, high = 0.5;
+        for (int i = 0; i < 50; i++) {
+            double mid = (low + high) * 0.5;
+            if (referenceIsInGamut(lightness, mid * cosHue, mid * sinHue, scratch))
+                low = mid;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    // The assertions only build their messages on failure, so the loops over the cube stay fast.
+
+    private static void assertChannelsEqual (int color, int expected, int actual){
+        for (int shift = 0; shift < 32; shift += 8) {
+            int difference = Math.abs(((expected >>> shift) & 0xFF) - ((actual >>> shift) & 0xFF));
+            if (difference > CHANNEL_TOLERANCE)
+                fail(String.format("#%06X: expected #%08X but was #%08X", color & 0xFFFFFF, expected, actual));
+        }
+    }
+
+    @Test
+    public void colorToOklabMatchesReference (){
+        float[] lab = new float[3];
+        double[] expected = new double[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            OkLab.colorToOklab(color, lab, 0);
+            referenceColorToOklab(color, expected);
+            for (int j = 0; j < 3; j++) {
+                if (Math.abs(expected[j] - lab[j]) > CBRT_TOLERANCE * 4)
+                    fail(String.format("#%06X: expected component %d to be %f but was %f",
+                            color & 0xFFFFFF, j, expected[j], lab[j]));
+            }
+        }
+    }
+
+    @Test
+    public void oklabRoundTripsOverRgbCube (){
+        float[] lab = new float[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            OkLab.colorToOklab(color, lab, 0);
+            assertChannelsEqual(color, color, OkLab.oklabToColor(lab[0], lab[1], lab[2]));
+        }
+    }
+
+    @Test
+    public void oklchRoundTripsOverRgbCube (){
+        float[] lch = new float[3];
+        for (int i = 0; i < COLOR_COUNT; i++) {
+            int color = 0xFF000000 | i;
+            OkLab.colorToOklch(color, lch, 0);
+            assertChannelsEqual(color, color, OkLab.oklchToColor(lch[0], lch[1], lch[2]));
+        }
+    }
+
+    @Test
+    public void cbrtIsContinuousAtTableMinimum (){
+        float min = OkLab.CBRT_TABLE_MIN;
+        float below = Math.nextDown(min);
+        assertEquals(Math.cbrt(below), OkLab.cbrt(below), CBRT_TOLERANCE);
+        assertEquals(Math.cbrt(min), OkLab.cbrt(min), CBRT_TOLERANCE);
+        assertEquals(OkLab.cbrt(below), OkLab.cbrt(min), CBRT_TOLERANCE);
+    }
+
+    @Test
+    public void cbrtMatchesMathCbrt (){
+        float min = OkLab.CBRT_TABLE_MIN;
+        // Finely around the table minimum, where interpolating the table is least accurate, then over all of [0, 1].
+        for (float x = min * 0.5f; x < min * 4f; x = Math.nextUp(x)) {
+            if (Math.abs(Math.cbrt(x) - OkLab.cbrt(x)) > CBRT_TOLERANCE)
+                fail(String.format("cbrt(%s): expected %f but was %f", x, Math.cbrt(x), OkLab.cbrt(x)));
+        }
+        for (int i = 0; i <= 1 << 20; i++) {
+            float x = i / (float)(1 << 20);
+            if (Math.abs(Math.cbrt(x) - OkLab.cbrt(x)) > CBRT_TOLERANCE)
+                fail(String.format("cbrt(%s): expected %f but was %f", x, Math.cbrt(x), OkLab.cbrt(x)));
+        }
+        assertEquals(0f, OkLab.cbrt(0f), 0f);
+        assertEquals(1f, OkLab.cbrt(1f), 0f);
+    }
+
+    /**
+     * For a grid of OKLCH colors, checks that the result is the requested color if it is in gamut, or otherwise the
+     * color with the same lightness and hue at the highest chroma that is in gamut, to within 8-bit precision.
+     */
+    @Test
+    public void oklchToColorClipsChromaIntoGamut (){
+        double[] scratch = new double[3];
+        double[] actual = new double[3];
+        for (int lightnessStep = 15; lightnessStep <= 95; lightnessStep++) {
+            float lightness = lightnessStep / 100f;
+            for (float hue = 0f; hue < 360f; hue += 2.5f) {
+                double radians = Math.toRadians(hue);
+                double cosHue = Math.cos(radians), sinHue = Math.sin(radians);
+                double maxChroma = referenceMaxChroma(lightness, cosHue, sinHue, scratch);
+                for (float chroma = 0f; chroma <= 0.4f; chroma += 0.01f) {
+                    double expectedChroma = Math.min(chroma, maxChroma);
+                    int color = OkLab.oklchToColor(lightness, chroma, hue);
+                    assertTrue(referenceIsInGamut(lightness, expectedChroma * cosHue, expectedChroma * sinHue, scratch));
+                    referenceColorToOklab(color, actual);
+                    if (Math.abs(actual[0] - lightness) > LAB_TOLERANCE
+                            || Math.abs(actual[1] - expectedChroma * cosHue) > LAB_TOLERANCE
+                            || Math.abs(actual[2] - expectedChroma * sinHue) > LAB_TOLERANCE)
+                        fail(String.format("OKLCH(%.2f, %.2f, %.1f): expected OKLab(%.4f, %.4f, %.4f) but was "
+                                        + "#%06X, OKLab(%.4f, %.4f, %.4f)", lightness, chroma, hue,
+                                lightness, expectedChroma * cosHue, expectedChroma * sinHue,
+                                color & 0xFFFFFF, actual[0], actual[1], actual[2]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Cypher Cove, LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cyphercove.coveprefs.widgets;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.cyphercove.coveprefs.R;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the code-built color picker views match the layout resource, and compares the cost of building them
+ * with inflating the layout.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ColorPickerLayoutTest {
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int BENCHMARK_ITERATIONS = 200;
+
+    private Context context;
+
+    @Before
+    public void setUp (){
+        context = new ContextThemeWrapper(RuntimeEnvironment.getApplication(),
+                androidx.appcompat.R.style.Theme_AppCompat_Light_Dialog_Alert);
+    }
+
+    private ColorPickerLayout create (boolean multiColor, boolean inflate){
+        return ColorPickerLayout.create(new FrameLayout(context), multiColor, inflate);
+    }
+
+    private static FrameLayout pickerOf (ColorPickerLayout layout){
+        View view = layout.hsvView;
+        while (view.getParent() instanceof View)
+            view = (View)view.getParent();
+        return (FrameLayout)view;
+    }
+
+    private static int countViews (View view){
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup)view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    private static void collectIds (View view, Set<Integer> ids){
+        if (view.getVisibility() == View.GONE && view.getId() != R.id.coveprefs_prev && view.getId() != R.id.coveprefs_next)
+            return;
+        if (view.getId() != View.NO_ID)
+            ids.add(view.getId());
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup)view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                collectIds(group.getChildAt(i), ids);
+            }
+        }
+    }
+
+    private void assertSameIds (boolean multiColor){
+        Set<Integer> built = new HashSet<>(), inflated = new HashSet<>();
+        collectIds(pickerOf(create(multiColor, false)), built);
+        collectIds(pickerOf(create(multiColor, true)), inflated);
+        assertEquals(inflated, built);
+    }
+
+    private void assertHeaderMatchesLayout (boolean landscape){
+        ColorPickerLayout layout = create(true, false);
+        assertEquals(R.id.coveprefs_next, layout.prevButton.getNextFocusForwardId());
+        assertEquals(R.id.coveprefs_prev, layout.nextButton.getNextFocusForwardId());
+        ViewGroup header = (ViewGroup)layout.header;
+        assertNull(header.getLayoutTransition());
+        ViewGroup buttonFrame = (ViewGroup)layout.prevButton.getParent();
+        assertSame(buttonFrame, layout.nextButton.getParent());
+        if (landscape) {
+            assertSame(header, buttonFrame);
+        } else {
+            assertNotSame(header, buttonFrame);
+            assertNotNull(buttonFrame.getLayoutTransition());
+            assertNotSame(buttonFrame, layout.headerViewPager.getParent());
+        }
+
+        ColorPickerLayout inflated = create(true, true);
+        assertEquals(R.id.coveprefs_next, inflated.prevButton.getNextFocusForwardId());
+        assertEquals(R.id.coveprefs_prev, inflated.nextButton.getNextFocusForwardId());
+    }
+
+    @Test
+    public void builtViewsMatchLayoutResource (){
+        assertSameIds(false);
+        assertSameIds(true);
+        assertHeaderMatchesLayout(false);
+    }
+
+    @Test
+    @Config(qualifiers = "land")
+    public void builtViewsMatchLandscapeLayoutResource (){
+        assertSameIds(false);
+        assertSameIds(true);
+        assertHeaderMatchesLayout(true);
+    }
+
+    @Test
+    public void benchmarkConstruction (){
+        benchmark("portrait");
+    }
+
+    @Test
+    @Config(qualifiers = "land")
+    public void benchmarkLandscapeConstruction (){
+        benchmark("landscape");
+    }
+
+    private void benchmark (String orientation){
+        for (boolean multiColor : new boolean[]{false, true}) {
+            long builtNanos = time(multiColor, false);
+            long inflatedNanos = time(multiColor, true);
+            int builtViews = countViews(pickerOf(create(multiColor, false)));
+            int inflatedViews = countViews(pickerOf(create(multiColor, true)));
+            String name = (multiColor ? "MultiColorPicker" : "ColorPicker") + ", " + orientation;
+            System.out.println(String.format("%s: built %.1f us, %d views; inflated %.1f us, %d views",
+                    name, builtNanos / 1000.0, builtViews, inflatedNanos / 1000.0, inflatedViews));
+            assertTrue(name, builtViews < inflatedViews);
+        }
+    }
+
+    /** @return The mean time to create the views, in nanoseconds. */
+    private long time (boolean multiColor, boolean inflate){
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            create(multiColor, inflate);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            create(multiColor, inflate);
+        }
+        return (System.nanoTime() - start) / BENCHMARK_ITERATIONS;
+    }
+}